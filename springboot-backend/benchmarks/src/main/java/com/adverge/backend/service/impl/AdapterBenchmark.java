@@ -0,0 +1,134 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.AdRequest;
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.model.Config;
+import com.adverge.backend.service.ConfigService;
+import com.adverge.benchmarks.Fixtures;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各广告平台适配器的竞价请求构建与响应解析
+ * <p>
+ * 与适配器位于同一个包中，以便直接调用受保护的 buildBidRequest/parseBidResponse。
+ * 响应样例与启动预热共用，位于主工程的 warmup/responses/&lt;平台名&gt;.json，按 RestTemplate 的方式反序列化为 Map。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdapterBenchmark {
+
+    @Param({"AdColony", "AppLovin", "BigoAds", "Chartboost", "Fyber", "InMobi",
+            "IronSource", "Mahimeta", "Mintegral", "TopOn", "UnityAds", "Vungle"})
+    private String platform;
+
+    private AbstractAdNetworkService adapter;
+    private AdRequest adRequest;
+    private Map<String, Object> response;
+
+    @Setup
+    public void setup() throws IOException {
+        adapter = createAdapter(platform, Fixtures.config());
+        adRequest = Fixtures.adRequest();
+        response = loadResponse(platform);
+        if (adapter.parseBidResponse(response) == null) {
+            throw new IllegalStateException(platform + " 响应样例解析结果为空");
+        }
+    }
+
+    @Benchmark
+    public Object buildBidRequest() {
+        return adapter.buildBidRequest(adRequest);
+    }
+
+    @Benchmark
+    public BidResponse parseBidResponse() {
+        return adapter.parseBidResponse(response);
+    }
+
+    static AbstractAdNetworkService createAdapter(String platform, Config config) {
+        // 请求不会真正发出，RestTemplate 仅用于满足构造参数
+        RestTemplate restTemplate = new RestTemplate();
+        switch (platform) {
+            case "AdColony":
+                return new AdColonyServiceImpl(restTemplate, configService(config));
+            case "AppLovin":
+                return new AppLovinServiceImpl(restTemplate, config);
+            case "BigoAds":
+                return new BigoAdsServiceImpl(restTemplate, config);
+            case "Chartboost":
+                return new ChartboostServiceImpl(restTemplate, config);
+            case "Fyber":
+                return new FyberServiceImpl(restTemplate, config);
+            case "InMobi":
+                return new InMobiServiceImpl(restTemplate, config);
+            case "IronSource":
+                return new IronSourceServiceImpl(restTemplate, config);
+            case "Mahimeta":
+                return new MahimetaServiceImpl(restTemplate, config);
+            case "Mintegral":
+                return new MintegralServiceImpl(restTemplate, config);
+            case "TopOn":
+                return new TopOnServiceImpl(restTemplate, config);
+            case "UnityAds":
+                return new UnityAdsServiceImpl(restTemplate, config);
+            case "Vungle":
+                return new VungleServiceImpl(restTemplate, configService(config));
+            default:
+                throw new IllegalArgumentException("未知的广告平台: " + platform);
+        }
+    }
+
+    /**
+     * 只实现 getConfig/getPlatform 的配置服务，供从 ConfigService 读取配置的适配器使用
+     */
+    private static ConfigService configService(Config config) {
+        return (ConfigService) Proxy.newProxyInstance(ConfigService.class.getClassLoader(),
+                new Class<?>[]{ConfigService.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConfig":
+                            return config;
+                        case "getPlatform":
+                            return config.getPlatforms().stream()
+                                    .filter(p -> p.getName().equalsIgnoreCase((String) args[0]))
+                                    .findFirst()
+                                    .orElse(null);
+                        case "toString":
+                            return "ConfigService[" + config.getAppId() + "]";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static Map<String, Object> loadResponse(String platform) throws IOException {
+        try (InputStream in = AdapterBenchmark.class.getResourceAsStream("/warmup/responses/" + platform + ".json")) {
+            if (in == null) {
+                throw new IllegalStateException("缺少响应样例: " + platform);
+            }
+            return new ObjectMapper().readValue(in, new TypeReference<Map<String, Object>>() {});
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.adverge.benchmarks;
+
+import com.adverge.backend.dto.AdEventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventServiceImpl 发送到Kafka前的 AdEventDto JSON 序列化
+ * <p>
+ * ObjectMapper 按Spring Boot默认方式构建，与应用内注入的实例行为一致。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdEventSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private AdEventDto event;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        event = Fixtures.adEvent();
+        json = objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public AdEventDto deserialize() throws Exception {
+        return objectMapper.readValue(json, AdEventDto.class);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.adverge.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 接受JMH的全部命令行参数；未指定 -rf/-rff 时以JSON格式输出到 target/jmh-result.json，
+ * 同时在 target/redis-value-sizes.json 中记录各缓存类型在两种格式下的序列化大小，便于CI比对。
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+    private static final String SIZE_REPORT_FILE = "target/redis-value-sizes.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+                || cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+        if (!cmdOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmdOptions.getResult().hasValue()) {
+            String format = cmdOptions.getResultFormat().orElse(ResultFormatType.JSON).name().toLowerCase();
+            builder.result(DEFAULT_RESULT_FILE.replace(".json", "." + format));
+        }
+
+        writeSizeReport(Paths.get(SIZE_REPORT_FILE));
+        new Runner(builder.build()).run();
+    }
+
+    /**
+     * 输出各缓存类型的序列化字节数
+     */
+    static void writeSizeReport(Path file) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        String[] valueTypes = {"Config", "BidResponse", "AdUnit"};
+        String[] formats = {"json", "compact"};
+        for (String valueType : valueTypes) {
+            for (String format : formats) {
+                RedisSerializer<Object> serializer = RedisValueSerializationBenchmark.serializer(format);
+                byte[] bytes = serializer.serialize(RedisValueSerializationBenchmark.sample(valueType));
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append("\n  {\"valueType\": \"").append(valueType)
+                        .append("\", \"format\": \"").append(format)
+                        .append("\", \"bytes\": ").append(bytes == null ? 0 : bytes.length).append('}');
+            }
+        }
+        json.append("\n]\n");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+} 
\ No newline at end of file
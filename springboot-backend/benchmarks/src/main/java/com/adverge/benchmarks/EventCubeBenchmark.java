@@ -0,0 +1,130 @@
+package com.adverge.benchmarks;
+
+import com.adverge.backend.dto.CubeQuery;
+import com.adverge.backend.dto.CubeResult;
+import com.adverge.backend.olap.EventCube;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventCube 的即席分组查询
+ * <p>
+ * 数据为一周内均匀分布的事件：20个平台、5000个广告位、500个应用、200个国家、3种系统、5种事件类型。
+ * 1亿行约占1.5GB堆内存。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EventCubeBenchmark {
+
+    private static final String[] EVENT_TYPES = {"REQUEST", "BID", "WIN", "IMPRESSION", "CLICK"};
+    private static final String[] OS = {"android", "ios", "harmony"};
+    private static final long WEEK_MILLIS = 7 * 24 * 3600_000L;
+
+    /**
+     * 立方体中的事件数
+     */
+    @Param({"10000000", "100000000"})
+    private int events;
+
+    /**
+     * 查询并行度，0为可用CPU数
+     */
+    @Param({"0"})
+    private int parallelism;
+
+    private EventCube cube;
+    private CubeQuery totalQuery;
+    private CubeQuery platformCountryQuery;
+    private CubeQuery hourlyQuery;
+    private CubeQuery topAdUnitQuery;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cube = new EventCube(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), events);
+        String[] platforms = names("platform", 20);
+        String[] adUnits = names("unit", 5000);
+        String[] apps = names("app", 500);
+        String[] countries = names("C", 200);
+        Random random = new Random(42L);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < events; i++) {
+            cube.append(start + WEEK_MILLIS * i / events,
+                    EVENT_TYPES[random.nextInt(EVENT_TYPES.length)],
+                    platforms[random.nextInt(platforms.length)],
+                    adUnits[random.nextInt(adUnits.length)],
+                    apps[random.nextInt(apps.length)],
+                    countries[random.nextInt(countries.length)],
+                    OS[random.nextInt(OS.length)],
+                    random.nextInt(300) / 100.0);
+        }
+
+        totalQuery = CubeQuery.builder().build();
+        platformCountryQuery = CubeQuery.builder()
+                .groupBy(List.of("platform", "country"))
+                .filters(Map.of("eventType", List.of("IMPRESSION")))
+                .limit(10)
+                .build();
+        hourlyQuery = CubeQuery.builder()
+                .groupBy(List.of("hour", "platform"))
+                .filters(Map.of("os", List.of("ios")))
+                .build();
+        topAdUnitQuery = CubeQuery.builder()
+                .groupBy(List.of("adUnit"))
+                .orderBy("revenue")
+                .limit(10)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cube.close();
+    }
+
+    @Benchmark
+    public CubeResult total() {
+        return cube.query(totalQuery);
+    }
+
+    @Benchmark
+    public CubeResult impressionsByPlatformAndCountry() {
+        return cube.query(platformCountryQuery);
+    }
+
+    @Benchmark
+    public CubeResult iosHourlyByPlatform() {
+        return cube.query(hourlyQuery);
+    }
+
+    @Benchmark
+    public CubeResult topAdUnitsByRevenue() {
+        return cube.query(topAdUnitQuery);
+    }
+
+    private static String[] names(String prefix, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = prefix + "-" + i;
+        }
+        return names;
+    }
+} 
\ No newline at end of file
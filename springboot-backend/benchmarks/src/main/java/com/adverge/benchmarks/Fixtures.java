@@ -0,0 +1,168 @@
+package com.adverge.benchmarks;
+
+import com.adverge.backend.dto.AdEventDto;
+import com.adverge.backend.dto.AdRequest;
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.model.AdUnit;
+import com.adverge.backend.model.Config;
+import com.adverge.backend.model.GeoData;
+import com.adverge.backend.model.UserData;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基准测试使用的样例数据，字段取值接近线上真实请求
+ */
+public final class Fixtures {
+
+    public static final String[] PLATFORM_NAMES = {
+            "AdColony", "AppLovin", "BigoAds", "Chartboost", "Fyber", "InMobi",
+            "IronSource", "Mahimeta", "Mintegral", "TopOn", "UnityAds", "Vungle"
+    };
+
+    private Fixtures() {
+    }
+
+    /**
+     * 包含全部平台的应用配置
+     */
+    public static Config config() {
+        Config config = new Config();
+        config.setId("cfg-5f1c2a9e");
+        config.setAppId("app-3b7d4e21");
+        config.setBidTimeout(3000);
+        config.setCacheExpiry(300);
+        List<Config.Platform> platforms = new ArrayList<>();
+        for (int i = 0; i < PLATFORM_NAMES.length; i++) {
+            Config.Platform platform = new Config.Platform();
+            platform.setName(PLATFORM_NAMES[i]);
+            platform.setEnabled(true);
+            platform.setAppId(PLATFORM_NAMES[i].toLowerCase() + "-app-10086");
+            platform.setAppKey("k-" + Integer.toHexString(PLATFORM_NAMES[i].hashCode()) + "-9f8e7d6c5b4a");
+            platform.setPlacementId(PLATFORM_NAMES[i].toLowerCase() + "-placement-" + (i + 1));
+            platform.setBidFloor(0.5 + i * 0.05);
+            platforms.add(platform);
+        }
+        config.setPlatforms(platforms);
+        config.setCreatedAt(new Date(1_700_000_000_000L));
+        config.setUpdatedAt(new Date(1_700_000_500_000L));
+        return config;
+    }
+
+    /**
+     * 带素材的竞价响应
+     */
+    public static BidResponse bidResponse(String source, double price) {
+        Map<String, String> trackingUrls = new HashMap<>();
+        trackingUrls.put("impression", "https://track.example.com/imp?src=" + source);
+        trackingUrls.put("click", "https://track.example.com/clk?src=" + source);
+        return BidResponse.builder()
+                .source(source)
+                .adId(source + "-ad-" + (long) (price * 1000))
+                .placementId(source.toLowerCase() + "-placement-1")
+                .price(price)
+                .currency("USD")
+                .bidToken(source + "-token-5c2e9a71")
+                .success(true)
+                .adData(BidResponse.AdData.builder()
+                        .adId(source + "-creative-1")
+                        .title("Puzzle Quest")
+                        .description("Play free today")
+                        .imageUrl("https://cdn.example.com/" + source + "/main.jpg")
+                        .iconUrl("https://cdn.example.com/" + source + "/icon.png")
+                        .ctaText("Install")
+                        .clickUrl("https://click.example.com/" + source + "/1")
+                        .trackingUrls(trackingUrls)
+                        .build())
+                .build();
+    }
+
+    /**
+     * 模拟各平台返回的竞价列表，其中约10%为null（超时或无填充）
+     */
+    public static List<BidResponse> randomBids(int count, long seed) {
+        Random random = new Random(seed);
+        List<BidResponse> bids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(10) == 0) {
+                bids.add(null);
+                continue;
+            }
+            String source = PLATFORM_NAMES[i % PLATFORM_NAMES.length];
+            bids.add(bidResponse(source, Math.round(random.nextDouble() * 500) / 100.0));
+        }
+        return bids;
+    }
+
+    public static AdUnit adUnit() {
+        AdUnit adUnit = new AdUnit();
+        adUnit.setId("unit-8a4f2c11");
+        adUnit.setName("首页插屏");
+        adUnit.setAppId("app-3b7d4e21");
+        adUnit.setType("interstitial");
+        adUnit.setDescription("首页进入时展示的插屏广告");
+        adUnit.setActive(true);
+        adUnit.setFloorPrice(new BigDecimal("0.80"));
+        adUnit.setRefreshInterval(30);
+        adUnit.setPosition("center");
+        adUnit.setSize("320x480");
+        adUnit.setCreatedAt(LocalDateTime.of(2024, 3, 1, 10, 0));
+        adUnit.setUpdatedAt(LocalDateTime.of(2024, 5, 20, 18, 30, 15));
+        return adUnit;
+    }
+
+    public static AdRequest adRequest() {
+        AdRequest.DeviceInfo deviceInfo = new AdRequest.DeviceInfo();
+        deviceInfo.setType("phone");
+        deviceInfo.setOs("Android");
+        deviceInfo.setOsVersion("13");
+        deviceInfo.setModel("Pixel 7");
+        deviceInfo.setManufacturer("Google");
+        deviceInfo.setScreenWidth("1080");
+        deviceInfo.setScreenHeight("2400");
+        deviceInfo.setLanguage("zh-CN");
+
+        GeoData geo = new GeoData();
+        geo.setCountry("CN");
+        geo.setRegion("GD");
+        geo.setCity("Shenzhen");
+        UserData userData = new UserData();
+        userData.setGeo(geo);
+
+        AdRequest request = new AdRequest();
+        request.setAppId("app-3b7d4e21");
+        request.setAdUnitId("unit-8a4f2c11");
+        request.setDeviceInfo(deviceInfo);
+        request.setUserData(userData);
+        request.setSessionId("sess-0c6e1f93");
+        request.setRequestId("req-7d2b4a58");
+        request.setType("interstitial");
+        request.setFloorPrice(new BigDecimal("0.80"));
+        return request;
+    }
+
+    public static AdEventDto adEvent() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("requestId", "req-7d2b4a58");
+        data.put("latencyMs", 87);
+        data.put("currency", "USD");
+        return AdEventDto.builder()
+                .eventType(AdEventDto.EventType.WIN)
+                .appId("app-3b7d4e21")
+                .adUnitId("unit-8a4f2c11")
+                .platform("AppLovin")
+                .adId("AppLovin-ad-1870")
+                .price(1.87)
+                .eventTime(new Date(1_700_000_000_000L))
+                .deviceInfo(adRequest().getDeviceInfo())
+                .data(data)
+                .build();
+    }
+} 
\ No newline at end of file
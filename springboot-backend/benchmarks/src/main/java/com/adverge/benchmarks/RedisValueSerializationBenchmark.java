@@ -0,0 +1,78 @@
+package com.adverge.benchmarks;
+
+import com.adverge.backend.config.RedisConfig;
+import com.adverge.backend.serializer.CompactCodecs;
+import com.adverge.backend.serializer.CompactRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis缓存值的序列化：JSON（带类型信息）与紧凑二进制格式对照
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RedisValueSerializationBenchmark {
+
+    @Param({"Config", "BidResponse", "AdUnit"})
+    private String valueType;
+
+    @Param({"json", "compact"})
+    private String format;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        serializer = serializer(format);
+        value = sample(valueType);
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    static RedisSerializer<Object> serializer(String format) {
+        if ("compact".equals(format)) {
+            return new CompactRedisSerializer(RedisConfig.jsonValueSerializer(), true, CompactCodecs.all());
+        }
+        return RedisConfig.jsonValueSerializer();
+    }
+
+    static Object sample(String valueType) {
+        switch (valueType) {
+            case "Config":
+                return Fixtures.config();
+            case "BidResponse":
+                return Fixtures.bidResponse("AppLovin", 1.87);
+            case "AdUnit":
+                return Fixtures.adUnit();
+            default:
+                throw new IllegalArgumentException("未知的值类型: " + valueType);
+        }
+    }
+} 
\ No newline at end of file
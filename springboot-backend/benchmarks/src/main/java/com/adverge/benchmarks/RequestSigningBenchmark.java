@@ -0,0 +1,104 @@
+package com.adverge.benchmarks;
+
+import com.adverge.backend.security.RequestSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SecurityServiceImpl 使用的请求签名与验签
+ * <p>
+ * legacySign 为引入 {@link RequestSigner} 之前基于TreeMap和字符串拼接的实现，作为对照。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestSigningBenchmark {
+
+    private static final String SECRET = "adverge-benchmark-secret-0123456789";
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    private RequestSigner signer;
+    private MockHttpServletRequest request;
+    private String signature;
+
+    @Setup
+    public void setup() {
+        signer = new RequestSigner(SECRET);
+        request = new MockHttpServletRequest("POST", "/api/bid");
+        request.addParameter("appId", "app-3b7d4e21");
+        request.addParameter("adUnitId", "unit-8a4f2c11");
+        request.addParameter("platform", "android");
+        request.addParameter("sdkVersion", "2.4.1");
+        request.addParameter("nonce", "6f1d0c2b9a8e");
+        signature = signer.sign(request, TIMESTAMP);
+    }
+
+    @Benchmark
+    public String sign() {
+        return signer.sign(request, TIMESTAMP);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return signer.verify(request, TIMESTAMP, signature);
+    }
+
+    @Benchmark
+    public String legacySign() {
+        return legacySign(request, TIMESTAMP);
+    }
+
+    private static String legacySign(HttpServletRequest request, long timestamp) {
+        SortedMap<String, String> parameters = new TreeMap<>();
+        Enumeration<String> paramNames = request.getParameterNames();
+        while (paramNames.hasMoreElements()) {
+            String name = paramNames.nextElement();
+            parameters.put(name, request.getParameter(name));
+        }
+        parameters.put("path", request.getRequestURI());
+        parameters.put("timestamp", String.valueOf(timestamp));
+
+        StringBuilder builder = new StringBuilder();
+        for (String key : parameters.keySet()) {
+            builder.append(key).append('=').append(parameters.get(key)).append('&');
+        }
+        builder.append("key=").append(SECRET);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+} 
\ No newline at end of file
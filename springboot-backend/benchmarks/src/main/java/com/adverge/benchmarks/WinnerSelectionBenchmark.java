@@ -0,0 +1,76 @@
+package com.adverge.benchmarks;
+
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.service.impl.BidSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * AdServiceImpl.bid 中的有效竞价过滤与胜出者选择
+ * <p>
+ * legacy* 为改用 {@link BidSelector} 之前基于Stream的实现，作为对照。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WinnerSelectionBenchmark {
+
+    /**
+     * 参与竞价的平台数量
+     */
+    @Param({"4", "12", "32"})
+    private int bidCount;
+
+    private List<BidResponse> bids;
+    private BigDecimal floorPrice;
+
+    @Setup
+    public void setup() {
+        bids = Fixtures.randomBids(bidCount, 42L);
+        floorPrice = new BigDecimal("1.20");
+    }
+
+    @Benchmark
+    public BidResponse selectWinner() {
+        return BidSelector.selectWinner(BidSelector.filterValid(bids, floorPrice));
+    }
+
+    @Benchmark
+    public BidResponse legacySelectWinner() {
+        List<BidResponse> validBids = bids.stream()
+                .filter(Objects::nonNull)
+                .filter(bid -> {
+                    if (floorPrice == null) {
+                        return true;
+                    }
+                    if (bid.getPrice() == null) {
+                        return false;
+                    }
+                    return bid.getPrice() >= floorPrice.doubleValue();
+                })
+                .collect(Collectors.toList());
+        Optional<BidResponse> winner = validBids.stream()
+                .max(Comparator.comparingDouble(BidResponse::getPrice));
+        return winner.orElse(null);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.adverge.loadtest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 按各平台适配器（*ServiceImpl.parseBidResponse）期望的格式生成竞价响应
+ */
+public final class BidResponses {
+
+    public static final List<String> PLATFORMS = Collections.unmodifiableList(Arrays.asList(
+            "AdColony", "AppLovin", "BigoAds", "Chartboost", "Fyber", "InMobi",
+            "IronSource", "Mahimeta", "Mintegral", "TopOn", "UnityAds", "Vungle"));
+
+    private BidResponses() {
+    }
+
+    /**
+     * 生成竞价响应JSON
+     *
+     * @param platform 平台名
+     * @param bidId 竞价ID，同时用作竞价令牌
+     * @param price 出价
+     * @return 响应体，平台未知时为null
+     */
+    public static String bid(String platform, String bidId, double price) {
+        String p = String.format(Locale.ROOT, "%.2f", price);
+        String img = "https://cdn.simulator.local/" + platform + "/" + bidId + ".jpg";
+        String icon = "https://cdn.simulator.local/" + platform + "/icon.png";
+        String click = "https://click.simulator.local/" + platform + "/" + bidId;
+        switch (platform) {
+            case "AdColony":
+            case "Fyber":
+                return "{\"bid\":{\"id\":\"" + bidId + "\",\"bid_id\":\"" + bidId + "\",\"price\":" + p
+                        + ",\"creative\":{\"title\":\"Simulated " + platform + "\",\"description\":\"Load test creative\""
+                        + ",\"image_url\":\"" + img + "\",\"main_image\":\"" + img + "\",\"icon_url\":\"" + icon
+                        + "\",\"icon\":\"" + icon + "\",\"cta_text\":\"Install\",\"click_url\":\"" + click + "\"}}}";
+            case "AppLovin":
+                return "{\"bid\":{\"id\":\"" + bidId + "\",\"token\":\"" + bidId + "\",\"price\":" + p
+                        + ",\"ad\":{\"title\":\"Simulated AppLovin\",\"description\":\"Load test creative\""
+                        + ",\"main_image\":\"" + img + "\",\"icon\":\"" + icon
+                        + "\",\"cta_text\":\"Install\",\"click_url\":\"" + click + "\"}}}";
+            case "BigoAds":
+                return "{\"price\":" + p + ",\"bidId\":\"" + bidId + "\",\"creative\":{\"adId\":\"" + bidId
+                        + "\",\"title\":\"Simulated BigoAds\",\"description\":\"Load test creative\""
+                        + ",\"imageUrl\":\"" + img + "\",\"iconUrl\":\"" + icon
+                        + "\",\"ctaText\":\"Install\",\"landingUrl\":\"" + click + "\"}}";
+            case "Chartboost":
+                return "{\"bid\":{\"id\":\"" + bidId + "\",\"nurl\":\"https://win.simulator.local/" + bidId + "\",\"price\":" + p
+                        + ",\"adm\":{\"title\":\"Simulated Chartboost\",\"desc\":\"Load test creative\""
+                        + ",\"img_url\":\"" + img + "\",\"icon_url\":\"" + icon
+                        + "\",\"cta\":\"Install\",\"click_url\":\"" + click + "\"}}}";
+            case "InMobi":
+                return "{\"id\":\"" + bidId + "\",\"seatbid\":[{\"bid\":[{\"id\":\"" + bidId + "\",\"price\":" + p
+                        + ",\"adomain\":\"simulator.local\",\"adm\":\"<img src=\\\"" + img
+                        + "\\\"><clickUrl src=\\\"" + click + "\\\">\"}]}]}";
+            case "IronSource":
+            case "Mahimeta":
+                return "{\"bid\":{\"id\":\"" + bidId + "\",\"bid_id\":\"" + bidId + "\",\"price\":" + p
+                        + ",\"ad\":{\"title\":\"Simulated " + platform + "\",\"description\":\"Load test creative\""
+                        + ",\"image_url\":\"" + img + "\",\"icon_url\":\"" + icon
+                        + "\",\"cta_text\":\"Install\",\"click_url\":\"" + click + "\"}}}";
+            case "Mintegral":
+                return "{\"price\":" + p + ",\"bid_id\":\"" + bidId
+                        + "\",\"ad\":{\"title\":\"Simulated Mintegral\",\"desc\":\"Load test creative\""
+                        + ",\"image_url\":\"" + img + "\",\"icon_url\":\"" + icon
+                        + "\",\"cta\":\"Install\",\"click_url\":\"" + click + "\"}}";
+            case "TopOn":
+                return "{\"price\":" + p + ",\"bid_id\":\"" + bidId
+                        + "\",\"ad_data\":{\"title\":\"Simulated TopOn\",\"description\":\"Load test creative\""
+                        + ",\"image_url\":\"" + img + "\",\"icon_url\":\"" + icon
+                        + "\",\"cta_text\":\"Install\",\"landing_url\":\"" + click + "\"}}";
+            case "UnityAds":
+                return "{\"bids\":[{\"bidId\":\"" + bidId + "\",\"token\":\"" + bidId + "\",\"price\":" + p
+                        + ",\"adData\":{\"title\":\"Simulated UnityAds\",\"description\":\"Load test creative\""
+                        + ",\"imageUrl\":\"" + img + "\",\"iconUrl\":\"" + icon
+                        + "\",\"ctaText\":\"Install\",\"clickUrl\":\"" + click + "\"}}]}";
+            case "Vungle":
+                return "{\"seatbid\":{\"bid\":{\"id\":\"" + bidId + "\",\"auction_id\":\"" + bidId + "\",\"price\":" + p
+                        + ",\"adm\":{\"title\":\"Simulated Vungle\",\"description\":\"Load test creative\""
+                        + ",\"image_url\":\"" + img + "\",\"icon_url\":\"" + icon
+                        + "\",\"cta_text\":\"Install\",\"click_url\":\"" + click + "\"}}}}";
+            default:
+                return null;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,328 @@
+package com.adverge.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 竞价接口压测驱动，输出 /bid 与 /v1/bid 的延迟分位数和每秒竞价数
+ * <p>
+ * 默认为闭环模式（固定并发数，每个线程串行发请求）；指定 --rate 时为开环模式，按固定速率发起请求，
+ * 延迟从计划发送时间起算，避免被测服务变慢时少计排队时间。
+ *
+ * <pre>
+ * java -jar loadtest.jar [--target http://localhost:8080/api] [--endpoint bid|v1-bid|both]
+ *      [--ad-unit-id ID] [--app-id ID] [--concurrency 64] [--rate 0] [--duration 60] [--warmup 10]
+ *      [--secret KEY] [--output target/loadtest-result.json]
+ * </pre>
+ */
+public final class LoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Options options;
+    private final HttpClient client;
+
+    private LoadDriver(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadDriver driver = new LoadDriver(options);
+
+        List<Result> results = new ArrayList<>();
+        if (!"v1-bid".equals(options.endpoint)) {
+            results.add(driver.run("/bid"));
+        }
+        if (!"bid".equals(options.endpoint)) {
+            results.add(driver.run("/v1/bid"));
+        }
+
+        for (Result result : results) {
+            System.out.println(result.summary());
+        }
+        writeReport(Paths.get(options.output), results);
+        System.out.println("结果已写入 " + options.output);
+        System.exit(0);
+    }
+
+    private Result run(String endpoint) throws InterruptedException {
+        System.out.printf(Locale.ROOT, "%s: 预热 %ds, 压测 %ds, %s%n", endpoint, options.warmupSeconds, options.durationSeconds,
+                options.rate > 0 ? "速率 " + options.rate + "/s" : "并发 " + options.concurrency);
+        Phase warmup = new Phase();
+        execute(endpoint, warmup, options.warmupSeconds);
+        Phase measured = new Phase();
+        long start = System.nanoTime();
+        execute(endpoint, measured, options.durationSeconds);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        return new Result(endpoint, measured, elapsedSeconds);
+    }
+
+    private void execute(String endpoint, Phase phase, int seconds) throws InterruptedException {
+        if (seconds <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        if (options.rate > 0) {
+            runOpenLoop(endpoint, phase, deadline);
+        } else {
+            runClosedLoop(endpoint, phase, deadline);
+        }
+    }
+
+    private void runClosedLoop(String endpoint, Phase phase, long deadline) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+        for (int i = 0; i < options.concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request(endpoint), HttpResponse.BodyHandlers.discarding());
+                        phase.record(start, response.statusCode());
+                    } catch (IOException e) {
+                        phase.record(start, -1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private void runOpenLoop(String endpoint, Phase phase, long deadline) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        // 限制同时在途的请求数，防止被测服务停顿时无限堆积
+        Semaphore inFlight = new Semaphore(options.concurrency * 16);
+        long next = System.nanoTime();
+        while (next < deadline) {
+            long now = System.nanoTime();
+            if (now < next) {
+                TimeUnit.NANOSECONDS.sleep(next - now);
+            }
+            long intended = next;
+            next += intervalNanos;
+            inFlight.acquire();
+            client.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        phase.record(intended, error == null ? response.statusCode() : -1);
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(options.concurrency * 16);
+    }
+
+    private HttpRequest request(String endpoint) {
+        String requestId = UUID.randomUUID().toString();
+        String body = "{\"appId\":\"" + options.appId + "\",\"adUnitId\":\"" + options.adUnitId
+                + "\",\"requestId\":\"" + requestId + "\",\"sessionId\":\"loadtest\",\"type\":\"interstitial\""
+                + ",\"deviceInfo\":{\"type\":\"phone\",\"os\":\"Android\",\"osVersion\":\"13\",\"model\":\"Pixel 7\""
+                + ",\"manufacturer\":\"Google\",\"screenWidth\":\"1080\",\"screenHeight\":\"2400\",\"language\":\"zh-CN\"}"
+                + ",\"userData\":{\"geo\":{\"country\":\"CN\",\"region\":\"GD\",\"city\":\"Shenzhen\"}}}";
+
+        URI uri;
+        HttpRequest.Builder builder;
+        if ("/bid".equals(endpoint)) {
+            uri = URI.create(options.target + "/bid/" + options.adUnitId);
+            // /bid 经过签名拦截器：签名内容为排序后的参数（path、timestamp）加密钥
+            long timestamp = System.currentTimeMillis();
+            builder = HttpRequest.newBuilder(uri)
+                    .header("X-Timestamp", String.valueOf(timestamp))
+                    .header("X-Signature", sign(uri.getPath(), timestamp));
+        } else {
+            uri = URI.create(options.target + "/v1/bid");
+            builder = HttpRequest.newBuilder(uri);
+        }
+        return builder
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private String sign(String path, long timestamp) {
+        String content = "path=" + path + "&timestamp=" + timestamp + "&key=" + options.secret;
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeReport(Path file, List<Result> results) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (Result result : results) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("\n  ").append(result.toJson());
+        }
+        json.append("\n]\n");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 单个阶段（预热或正式压测）的统计
+     */
+    private static final class Phase {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder filled = new LongAdder();
+        private final LongAdder noFill = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long startNanos, int status) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            recorder.recordValue(Math.min(Math.max(micros, 1), HIGHEST_TRACKABLE_MICROS));
+            if (status == 200) {
+                filled.increment();
+            } else if (status == 204) {
+                noFill.increment();
+            } else {
+                errors.increment();
+            }
+        }
+    }
+
+    private static final class Result {
+        private final String endpoint;
+        private final Histogram histogram;
+        private final long filled;
+        private final long noFill;
+        private final long errors;
+        private final double elapsedSeconds;
+
+        Result(String endpoint, Phase phase, double elapsedSeconds) {
+            this.endpoint = endpoint;
+            this.histogram = phase.recorder.getIntervalHistogram();
+            this.filled = phase.filled.sum();
+            this.noFill = phase.noFill.sum();
+            this.errors = phase.errors.sum();
+            this.elapsedSeconds = elapsedSeconds;
+        }
+
+        long completed() {
+            return filled + noFill + errors;
+        }
+
+        double auctionsPerSecond() {
+            return (filled + noFill) / elapsedSeconds;
+        }
+
+        double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        String summary() {
+            return String.format(Locale.ROOT,
+                    "%-8s 请求=%d 填充=%d 无填充=%d 错误=%d 竞价/秒=%.1f p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                    endpoint, completed(), filled, noFill, errors, auctionsPerSecond(),
+                    percentileMillis(50), percentileMillis(99), percentileMillis(99.9), histogram.getMaxValue() / 1000.0);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"endpoint\": \"%s\", \"requests\": %d, \"filled\": %d, \"noFill\": %d, \"errors\": %d, "
+                            + "\"durationSeconds\": %.3f, \"auctionsPerSecond\": %.2f, "
+                            + "\"latencyMs\": {\"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"p999\": %.3f, \"max\": %.3f}}",
+                    endpoint, completed(), filled, noFill, errors, elapsedSeconds, auctionsPerSecond(),
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9),
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+
+    private static final class Options {
+        private String target = "http://localhost:8080/api";
+        private String endpoint = "both";
+        private String adUnitId = "loadtest-ad-unit";
+        private String appId = "loadtest-app";
+        private int concurrency = 64;
+        private int rate;
+        private int durationSeconds = 60;
+        private int warmupSeconds = 10;
+        private String secret = "S3cre7K3y!F0rAdv3rg3";
+        private String output = "target/loadtest-result.json";
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--target":
+                        options.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                        break;
+                    case "--endpoint":
+                        if (!"bid".equals(value) && !"v1-bid".equals(value) && !"both".equals(value)) {
+                            throw new IllegalArgumentException("--endpoint 只能是 bid、v1-bid 或 both");
+                        }
+                        options.endpoint = value;
+                        break;
+                    case "--ad-unit-id":
+                        options.adUnitId = value;
+                        break;
+                    case "--app-id":
+                        options.appId = value;
+                        break;
+                    case "--concurrency":
+                        options.concurrency = Integer.parseInt(value);
+                        break;
+                    case "--rate":
+                        options.rate = Integer.parseInt(value);
+                        break;
+                    case "--duration":
+                        options.durationSeconds = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        options.warmupSeconds = Integer.parseInt(value);
+                        break;
+                    case "--secret":
+                        options.secret = value;
+                        break;
+                    case "--output":
+                        options.output = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知参数: " + args[i]);
+                }
+                i++;
+            }
+            return options;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.adverge.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地广告平台模拟器，替代全部平台适配器调用的竞价与胜出通知接口
+ * <p>
+ * 地址格式为 /&lt;平台名&gt;/&lt;适配器原有路径&gt;，与后端 ad.network.simulator-url 配合使用，
+ * 例如 AppLovin 的 /bid 对应 http://localhost:9090/AppLovin/bid。路径以 win 结尾的请求视为胜出通知，
+ * 其余视为竞价请求。延迟通过定时任务实现，不占用处理线程。
+ * <p>
+ * GET /_stats 返回各平台的请求计数。
+ *
+ * <pre>
+ * java -cp loadtest.jar com.adverge.loadtest.NetworkSimulator [--port 9090] [--profile simulator.properties]
+ * </pre>
+ */
+public final class NetworkSimulator {
+
+    private static final byte[] WIN_BODY = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERROR_BODY = "{\"error\":\"simulated error\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, SimulatorProfile.Network> networks = new LinkedHashMap<>();
+    private final Map<String, Counters> counters = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService handlers;
+    private HttpServer server;
+
+    public NetworkSimulator(SimulatorProfile profile) {
+        for (String platform : BidResponses.PLATFORMS) {
+            networks.put(platform, profile.network(platform));
+            counters.put(platform, new Counters());
+        }
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.scheduler = Executors.newScheduledThreadPool(threads);
+        this.handlers = Executors.newFixedThreadPool(threads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 9090;
+        String profilePath = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--profile":
+                    profilePath = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数: " + args[i]);
+            }
+        }
+        NetworkSimulator simulator = new NetworkSimulator(
+                SimulatorProfile.load(profilePath == null ? null : Paths.get(profilePath)));
+        simulator.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::stop));
+        System.out.println("广告平台模拟器已启动: http://localhost:" + port + "/<平台名>, 平台: " + BidResponses.PLATFORMS);
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 4096);
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        scheduler.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        drain(exchange.getRequestBody());
+        String path = exchange.getRequestURI().getPath();
+        if ("/_stats".equals(path)) {
+            send(exchange, 200, stats().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        int slash = path.indexOf('/', 1);
+        String platform = slash > 0 ? path.substring(1, slash) : path.substring(1);
+        SimulatorProfile.Network network = networks.get(platform);
+        if (network == null) {
+            send(exchange, 404, null);
+            return;
+        }
+        Counters counter = counters.get(platform);
+
+        if (path.endsWith("win")) {
+            counter.wins.increment();
+            send(exchange, 200, WIN_BODY);
+            return;
+        }
+
+        counter.requests.increment();
+        long delay = network.sampleLatencyMs();
+        scheduler.schedule(() -> respondBid(exchange, platform, network, counter), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void respondBid(HttpExchange exchange, String platform, SimulatorProfile.Network network, Counters counter) {
+        try {
+            if (network.sampleError()) {
+                counter.errors.increment();
+                send(exchange, 500, ERROR_BODY);
+            } else if (network.sampleNoBid()) {
+                counter.noBids.increment();
+                send(exchange, 204, null);
+            } else {
+                counter.bids.increment();
+                String body = BidResponses.bid(platform, UUID.randomUUID().toString(), network.samplePrice());
+                send(exchange, 200, body.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            // 调用方已超时断开
+            exchange.close();
+        }
+    }
+
+    private String stats() {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(entry.getKey()).append("\":{\"requests\":").append(c.requests.sum())
+                    .append(",\"bids\":").append(c.bids.sum())
+                    .append(",\"noBids\":").append(c.noBids.sum())
+                    .append(",\"errors\":").append(c.errors.sum())
+                    .append(",\"wins\":").append(c.wins.sum()).append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) >= 0) {
+            // 读完请求体以便复用连接
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bids = new LongAdder();
+        private final LongAdder noBids = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder wins = new LongAdder();
+    }
+} 
\ No newline at end of file
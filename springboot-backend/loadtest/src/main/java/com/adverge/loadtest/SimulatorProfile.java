@@ -0,0 +1,124 @@
+package com.adverge.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 模拟广告平台的行为参数
+ * <p>
+ * 从properties读取，键为 default.&lt;参数&gt; 或 &lt;平台名&gt;.&lt;参数&gt;，平台配置优先：
+ * <ul>
+ *     <li>latency.median-ms / latency.p99-ms：响应延迟的中位数与P99，按对数正态分布采样</li>
+ *     <li>no-bid-rate：返回204（无填充）的比例</li>
+ *     <li>error-rate：返回500的比例</li>
+ *     <li>price.median / price.sigma：出价的中位数与对数标准差，按对数正态分布采样</li>
+ * </ul>
+ */
+public final class SimulatorProfile {
+
+    /**
+     * 标准正态分布的0.99分位点
+     */
+    private static final double Z_99 = 2.326;
+
+    private final Properties properties;
+
+    private SimulatorProfile(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 加载内置的默认配置，再用指定文件中的配置覆盖
+     */
+    public static SimulatorProfile load(Path overrides) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = SimulatorProfile.class.getResourceAsStream("/simulator.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+        if (overrides != null) {
+            try (InputStream in = Files.newInputStream(overrides)) {
+                properties.load(in);
+            }
+        }
+        return new SimulatorProfile(properties);
+    }
+
+    /**
+     * 单个平台的行为参数
+     */
+    public Network network(String platform) {
+        return new Network(
+                getDouble(platform, "latency.median-ms"),
+                getDouble(platform, "latency.p99-ms"),
+                getDouble(platform, "no-bid-rate"),
+                getDouble(platform, "error-rate"),
+                getDouble(platform, "price.median"),
+                getDouble(platform, "price.sigma"));
+    }
+
+    private double getDouble(String platform, String key) {
+        String value = properties.getProperty(platform + "." + key);
+        if (value == null) {
+            value = properties.getProperty("default." + key);
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("缺少模拟器参数: default." + key);
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    /**
+     * 单个平台的采样器
+     */
+    public static final class Network {
+
+        private final double latencyMu;
+        private final double latencySigma;
+        private final double noBidRate;
+        private final double errorRate;
+        private final double priceMu;
+        private final double priceSigma;
+
+        Network(double latencyMedianMs, double latencyP99Ms, double noBidRate, double errorRate,
+                double priceMedian, double priceSigma) {
+            if (latencyMedianMs <= 0 || latencyP99Ms < latencyMedianMs) {
+                throw new IllegalArgumentException("延迟参数无效: median=" + latencyMedianMs + ", p99=" + latencyP99Ms);
+            }
+            this.latencyMu = Math.log(latencyMedianMs);
+            this.latencySigma = Math.log(latencyP99Ms / latencyMedianMs) / Z_99;
+            this.noBidRate = noBidRate;
+            this.errorRate = errorRate;
+            this.priceMu = Math.log(priceMedian);
+            this.priceSigma = priceSigma;
+        }
+
+        /**
+         * 采样响应延迟（毫秒）
+         */
+        public long sampleLatencyMs() {
+            return Math.round(Math.exp(latencyMu + latencySigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        public boolean sampleError() {
+            return ThreadLocalRandom.current().nextDouble() < errorRate;
+        }
+
+        public boolean sampleNoBid() {
+            return ThreadLocalRandom.current().nextDouble() < noBidRate;
+        }
+
+        /**
+         * 采样出价，保留两位小数
+         */
+        public double samplePrice() {
+            double price = Math.exp(priceMu + priceSigma * ThreadLocalRandom.current().nextGaussian());
+            return Math.max(0.01, Math.round(price * 100) / 100.0);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.adverge.backend.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于延迟梯度的自适应并发上限
+ * <p>
+ * 分别维护短期（约10个样本）和长期（约600个样本）的请求耗时指数平均，
+ * 梯度 = clamp(tolerance × 长期耗时 / 短期耗时, 0.5, 1)。下游变慢时短期耗时上升、梯度小于1，上限按比例收缩；
+ * 耗时平稳时梯度为1，上限每次增加 sqrt(上限) 的排队余量。新上限按 smoothing 与旧值加权，
+ * 并限制在 [minLimit, maxLimit] 之间。请求失败（5xx）时上限乘以0.9。
+ * 并发数不到上限一半时不调整，避免空闲时上限无限增长。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @return 占用成功时返回当前并发数（需调用 {@link #release} 归还），超过上限时返回-1
+     */
+    public int tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) estimatedLimit) {
+            inFlight.decrementAndGet();
+            return -1;
+        }
+        return current;
+    }
+
+    /**
+     * 归还名额并用本次耗时更新上限
+     *
+     * @param rttNanos 请求耗时
+     * @param inFlightAtStart 占用时的并发数
+     * @param failed 请求是否失败
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean failed) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (failed) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit * DROP_FACTOR);
+                return;
+            }
+            double rtt = rttNanos;
+            if (longRtt == 0) {
+                shortRtt = rtt;
+                longRtt = rtt;
+            } else {
+                shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+                longRtt += (rtt - longRtt) / LONG_WINDOW;
+            }
+            // 负载恢复后长期耗时明显偏高时加速回落，避免长期梯度被旧样本拉高
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            double limit = estimatedLimit;
+            if (inFlightAtStart < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        }
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.adverge.backend.admission;
+
+import com.adverge.backend.warmup.StartupReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 竞价接口的准入控制
+ * <p>
+ * /ad、/bid 与 /v1 的竞价接口共用一个自适应并发上限（见 {@link AdaptiveConcurrencyLimiter}）。
+ * 超过上限的请求在签名校验之前直接返回204（无填充），不占用竞价资源，
+ * 广告平台变慢时Tomcat线程不会全部阻塞在竞价上，追踪和管理接口仍可正常处理。
+ * <p>
+ * 服务未就绪（启动预热未完成或正在停机）时竞价请求同样直接返回204，不进入冷的竞价链路。
+ */
+@Slf4j
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    public static final String REJECTED_HEADER = "X-Adverge-Rejected";
+
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+    private static final String IN_FLIGHT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".inFlight";
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter rejected;
+    private final ApplicationAvailability availability;
+    private final StartupReport startupReport;
+
+    public AdmissionControlInterceptor(MeterRegistry registry,
+                                       ApplicationAvailability availability,
+                                       StartupReport startupReport,
+                                       @Value("${ad.admission.enabled:true}") boolean enabled,
+                                       @Value("${ad.admission.initial-limit:50}") int initialLimit,
+                                       @Value("${ad.admission.min-limit:10}") int minLimit,
+                                       @Value("${ad.admission.max-limit:150}") int maxLimit,
+                                       @Value("${ad.admission.smoothing:0.2}") double smoothing,
+                                       @Value("${ad.admission.tolerance:1.5}") double tolerance) {
+        this.enabled = enabled;
+        this.availability = availability;
+        this.startupReport = startupReport;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, smoothing, tolerance);
+        this.rejected = Counter.builder("ad.admission.rejected")
+                .description("超过并发上限被拒绝的竞价请求")
+                .register(registry);
+        Gauge.builder("ad.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("竞价接口当前的并发上限")
+                .register(registry);
+        Gauge.builder("ad.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("竞价接口正在处理的请求数")
+                .register(registry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            log.debug("服务未就绪，竞价请求直接返回无填充: uri={}", request.getRequestURI());
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            response.setHeader(REJECTED_HEADER, "not-ready");
+            return false;
+        }
+        if (!enabled) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            return true;
+        }
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            rejected.increment();
+            log.debug("竞价请求超过并发上限，直接返回无填充: uri={}, limit={}", request.getRequestURI(), limiter.getLimit());
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            response.setHeader(REJECTED_HEADER, "concurrency");
+            return false;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        request.setAttribute(IN_FLIGHT_ATTRIBUTE, inFlight);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        long rtt = System.nanoTime() - (Long) start;
+        startupReport.recordRequest(rtt);
+        Object inFlight = request.getAttribute(IN_FLIGHT_ATTRIBUTE);
+        if (inFlight == null) {
+            return;
+        }
+        boolean failed = ex != null || response.getStatus() >= 500;
+        limiter.release(rtt, (Integer) inFlight, failed);
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+} 
\ No newline at end of file
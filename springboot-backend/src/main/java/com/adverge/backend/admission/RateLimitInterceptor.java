@@ -0,0 +1,145 @@
+package com.adverge.backend.admission;
+
+import com.adverge.backend.model.AdUnit;
+import com.adverge.backend.model.App;
+import com.adverge.backend.security.RequestSignatureInterceptor;
+import com.adverge.backend.service.AdDirectoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按应用和广告位限流
+ * <p>
+ * 应用优先按请求头 X-Api-Key 解析，没有时按路径中的广告位所属应用，再没有时按查询参数 appId。
+ * 路径和查询参数不是凭证，只有通过签名校验的请求才按它们解析应用、扣减广告位的配额；未签名的请求
+ * （/v1 兼容接口）只按 X-Api-Key 限流，广告位须属于该应用，避免任何人借他人的广告位ID耗尽其配额。
+ * 限流参数取自应用实体（rateLimit、rateLimitBurst、adUnitRateLimit），未配置时使用 ad.rate-limit 下的默认值，
+ * 0表示不限流。超过限制返回429并带 Retry-After，拒绝数按应用计入 ad.ratelimit.rejected。
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    private static final String UNKNOWN_APP = "unknown";
+
+    private final AdDirectoryService adDirectoryService;
+    private final RateLimitRegistry registry;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final double defaultAppRate;
+    private final double defaultAdUnitRate;
+    private final double burstSeconds;
+
+    private final Map<String, Counter> rejectedByApp = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(AdDirectoryService adDirectoryService,
+                                RateLimitRegistry registry,
+                                MeterRegistry meterRegistry,
+                                @Value("${ad.rate-limit.enabled:true}") boolean enabled,
+                                @Value("${ad.rate-limit.default-app-rate:0}") double defaultAppRate,
+                                @Value("${ad.rate-limit.default-ad-unit-rate:0}") double defaultAdUnitRate,
+                                @Value("${ad.rate-limit.default-burst-seconds:2}") double burstSeconds) {
+        this.adDirectoryService = adDirectoryService;
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultAppRate = defaultAppRate;
+        this.defaultAdUnitRate = defaultAdUnitRate;
+        this.burstSeconds = burstSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) {
+            return true;
+        }
+        boolean verified = Boolean.TRUE.equals(request.getAttribute(RequestSignatureInterceptor.VERIFIED_ATTRIBUTE));
+        String adUnitId = pathVariable(request, "adUnitId");
+        App app = resolveApp(request, adUnitId, verified);
+        if (adUnitId != null && !verified && !ownedBy(adUnitId, app)) {
+            adUnitId = null;
+        }
+
+        double appRate = app != null && app.getRateLimit() != null ? app.getRateLimit() : defaultAppRate;
+        if (app != null && appRate > 0) {
+            TokenBucket rejected = registry.tryAcquire("app:" + app.getId(), appRate, burst(app, appRate));
+            if (rejected != null) {
+                return reject(response, app.getId(), "app", rejected);
+            }
+        }
+
+        double adUnitRate = app != null && app.getAdUnitRateLimit() != null ? app.getAdUnitRateLimit() : defaultAdUnitRate;
+        if (adUnitId != null && adUnitRate > 0) {
+            TokenBucket rejected = registry.tryAcquire("adunit:" + adUnitId, adUnitRate, burst(app, adUnitRate));
+            if (rejected != null) {
+                return reject(response, app != null ? app.getId() : UNKNOWN_APP, "ad_unit", rejected);
+            }
+        }
+        return true;
+    }
+
+    private App resolveApp(HttpServletRequest request, String adUnitId, boolean verified) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null) {
+            App app = adDirectoryService.getAppByApiKey(apiKey).orElse(null);
+            if (app != null) {
+                return app;
+            }
+        }
+        if (!verified) {
+            return null;
+        }
+        if (adUnitId != null) {
+            AdUnit adUnit = adDirectoryService.getAdUnit(adUnitId).orElse(null);
+            if (adUnit != null && adUnit.getAppId() != null) {
+                return adDirectoryService.getApp(adUnit.getAppId()).orElse(null);
+            }
+        }
+        String appId = request.getParameter("appId");
+        return appId == null ? null : adDirectoryService.getApp(appId).orElse(null);
+    }
+
+    private boolean ownedBy(String adUnitId, App app) {
+        return app != null && adDirectoryService.getAdUnit(adUnitId)
+                .map(adUnit -> app.getId().equals(adUnit.getAppId()))
+                .orElse(false);
+    }
+
+    private int burst(App app, double rate) {
+        if (app != null && app.getRateLimitBurst() != null && app.getRateLimitBurst() > 0) {
+            return app.getRateLimitBurst();
+        }
+        return (int) Math.max(1, Math.ceil(rate * burstSeconds));
+    }
+
+    private boolean reject(HttpServletResponse response, String appId, String scope, TokenBucket bucket) {
+        rejectedByApp.computeIfAbsent(appId + "|" + scope, key -> Counter.builder("ad.ratelimit.rejected")
+                .description("超过限流被拒绝的请求")
+                .tag("app", appId)
+                .tag("scope", scope)
+                .register(meterRegistry)).increment();
+        log.debug("请求超过限流: app={}, scope={}", appId, scope);
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (bucket.retryAfterMillis() + 999) / 1000)));
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String pathVariable(HttpServletRequest request, String name) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map ? ((Map<String, String>) variables).get(name) : null;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.adverge.backend.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流令牌桶注册表
+ * <p>
+ * 桶按键保存在ConcurrentHashMap中（内部按哈希分段），请求路径上只有一次查找和一次CAS。
+ * 配置变化时（应用的限流参数被修改）替换为新桶。
+ * <p>
+ * 集群模式下每个节点先在本地放行，定时把各桶本周期的放行数批量 INCRBY 到Redis的窗口计数
+ * （ratelimit:&lt;键&gt;:&lt;窗口&gt;，一次管道提交），再按返回的全局计数扣除其他节点消耗的令牌。
+ * 全局限流误差约为一个同步周期内各节点的放行量，不会在每个请求上访问Redis。
+ */
+@Slf4j
+@Component
+public class RateLimitRegistry {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean clusterMode;
+    private final long windowMillis;
+    private final int maxBuckets;
+
+    private final Map<String, Entry> buckets = new ConcurrentHashMap<>();
+
+    public RateLimitRegistry(RedisTemplate<String, String> redisTemplate,
+                             @Value("${ad.rate-limit.cluster-mode:false}") boolean clusterMode,
+                             @Value("${ad.rate-limit.cluster-window:10000}") long windowMillis,
+                             @Value("${ad.rate-limit.max-buckets:100000}") int maxBuckets) {
+        this.redisTemplate = redisTemplate;
+        this.clusterMode = clusterMode;
+        this.windowMillis = Math.max(1000, windowMillis);
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * 从指定键的令牌桶取一个令牌
+     *
+     * @param key 限流键
+     * @param ratePerSecond 每秒令牌数
+     * @param burst 桶容量
+     * @return 放行时为null，被拒绝时返回该桶（用于计算重试时间）
+     */
+    public TokenBucket tryAcquire(String key, double ratePerSecond, int burst) {
+        Entry entry = buckets.get(key);
+        if (entry == null || !entry.bucket.matches(ratePerSecond, burst)) {
+            if (entry == null && buckets.size() >= maxBuckets) {
+                // 桶数达到上限时不再为新键限流，由定时清理腾出空间
+                return null;
+            }
+            Entry created = new Entry(new TokenBucket(ratePerSecond, burst));
+            entry = buckets.compute(key, (k, old) ->
+                    old != null && old.bucket.matches(ratePerSecond, burst) ? old : created);
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.lastUsed > 1000) {
+            entry.lastUsed = now;
+        }
+        return entry.bucket.tryConsume() ? null : entry.bucket;
+    }
+
+    /**
+     * 集群模式下批量同步各桶的消耗
+     */
+    @Scheduled(fixedDelayString = "${ad.rate-limit.sync-interval:500}")
+    public void sync() {
+        if (!clusterMode || buckets.isEmpty()) {
+            return;
+        }
+        long window = System.currentTimeMillis() / windowMillis;
+        List<String> keys = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        buckets.forEach((key, entry) -> {
+            long delta = entry.bucket.drainUnsynced();
+            if (delta > 0) {
+                keys.add(KEY_PREFIX + key + ":" + window);
+                entries.add(entry);
+                deltas.add(delta);
+            }
+        });
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        long ttlSeconds = windowMillis * 2 / 1000;
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    byte[] rawKey = keys.get(i).getBytes(StandardCharsets.UTF_8);
+                    connection.stringCommands().incrBy(rawKey, deltas.get(i));
+                    connection.keyCommands().expire(rawKey, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("同步限流计数失败，本周期只按本节点限流: {}", e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            Object total = results.get(i * 2);
+            if (!(total instanceof Long)) {
+                continue;
+            }
+            Entry entry = entries.get(i);
+            long global = (Long) total;
+            long local = deltas.get(i);
+            synchronized (entry) {
+                if (entry.window != window) {
+                    entry.window = window;
+                    entry.lastGlobal = 0;
+                }
+                // 两次同步之间全局计数的增量减去本节点的部分，即其他节点的消耗
+                long others = global - entry.lastGlobal - local;
+                entry.lastGlobal = global;
+                entry.bucket.debit(others);
+            }
+        }
+    }
+
+    /**
+     * 清理长时间未使用的桶
+     */
+    @Scheduled(fixedDelayString = "${ad.rate-limit.cleanup-interval:60000}")
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - Math.max(60_000, windowMillis * 2);
+        buckets.values().removeIf(entry -> entry.lastUsed < threshold);
+    }
+
+    private static final class Entry {
+        private final TokenBucket bucket;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private long window = -1;
+        private long lastGlobal;
+
+        private Entry(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.adverge.backend.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁令牌桶
+ * <p>
+ * 用GCRA（通用信元速率算法）实现：只保存一个"理论到达时间"tat，每取一个令牌 tat 前进一个发放间隔，
+ * tat 超前当前时间不超过 burst 个间隔时允许，一次CAS完成，不需要定时补充令牌。
+ */
+public class TokenBucket {
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong tat;
+    /**
+     * 本节点自上次集群同步以来放行的请求数
+     */
+    private final LongAdder unsynced = new LongAdder();
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = intervalNanos * this.burst;
+        this.tat = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试取一个令牌
+     */
+    public boolean tryConsume() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (tat.compareAndSet(current, next)) {
+                unsynced.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 扣除其他节点消耗的令牌，最多扣到桶空
+     */
+    public void debit(long tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        tat.accumulateAndGet(now, (current, time) ->
+                Math.min(Math.max(current, time) + tokens * intervalNanos, time + burstNanos));
+    }
+
+    /**
+     * 距离下一个令牌可用的毫秒数
+     */
+    public long retryAfterMillis() {
+        long wait = tat.get() + intervalNanos - burstNanos - System.nanoTime();
+        return Math.max(0, wait / 1_000_000);
+    }
+
+    /**
+     * 取出并清零本节点未同步的放行数
+     */
+    long drainUnsynced() {
+        return unsynced.sumThenReset();
+    }
+
+    public boolean matches(double ratePerSecond, int burst) {
+        return this.ratePerSecond == ratePerSecond && this.burst == Math.max(1, burst);
+    }
+} 
\ No newline at end of file
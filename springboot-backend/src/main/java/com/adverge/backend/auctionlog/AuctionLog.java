@@ -0,0 +1,148 @@
+package com.adverge.backend.auctionlog;
+
+import com.adverge.backend.dto.AdRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 竞价日志：记录每一次竞价的请求属性、各平台出价与耗时、胜出结果，供离线分析
+ * <p>
+ * 请求线程只把 {@link AuctionLogEntry} 放入有界队列，由单独的写线程编码写入内存映射段文件，
+ * 请求路径不做任何IO。队列满时直接丢弃并计入 ad.auction.log.dropped，不会阻塞竞价。
+ * 段文件格式见 {@link AuctionLogFormat}，可用 {@link AuctionLogCsv} 转换为CSV。
+ */
+@Slf4j
+@Component
+public class AuctionLog {
+
+    private final boolean enabled;
+    private final String directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<AuctionLogEntry> queue;
+    private final Counter written;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuctionLog(@Value("${ad.auction-log.enabled:true}") boolean enabled,
+                      @Value("${ad.auction-log.dir:logs/auctions}") String directory,
+                      @Value("${ad.auction-log.segment-size:67108864}") int segmentSize,
+                      @Value("${ad.auction-log.max-segments:48}") int maxSegments,
+                      @Value("${ad.auction-log.queue-capacity:65536}") int queueCapacity,
+                      @Value("${ad.auction-log.flush-interval:1000}") long flushIntervalMillis,
+                      MeterRegistry registry) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.written = Counter.builder("ad.auction.log.written")
+                .description("写入竞价日志的竞价数")
+                .register(registry);
+        this.dropped = Counter.builder("ad.auction.log.dropped")
+                .description("写线程跟不上或写入失败而丢弃的竞价数")
+                .register(registry);
+        Gauge.builder("ad.auction.log.queue", queue, BlockingQueue::size)
+                .description("等待写入竞价日志的竞价数")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("竞价日志未开启");
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::drain, "auction-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("竞价日志已开启: dir={}, segmentSize={}", directory, segmentSize);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * 开始记录一次竞价
+     *
+     * @param networkCount 参与竞价的平台数
+     * @return 竞价日志条目，未开启时为null
+     */
+    public AuctionLogEntry start(String adUnitId, AdRequest adRequest, int networkCount) {
+        return running ? new AuctionLogEntry(adUnitId, adRequest, networkCount) : null;
+    }
+
+    /**
+     * 竞价结束，提交给写线程；队列已满时丢弃
+     *
+     * @param entry 竞价日志条目，为null时忽略
+     */
+    public void append(AuctionLogEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        entry.seal();
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    public long getDroppedCount() {
+        return (long) dropped.count();
+    }
+
+    private void drain() {
+        AuctionLogSegmentWriter writer;
+        try {
+            writer = new AuctionLogSegmentWriter(Paths.get(directory), segmentSize, maxSegments);
+        } catch (IOException e) {
+            log.error("无法创建竞价日志目录，竞价日志关闭: {}", directory, e);
+            running = false;
+            return;
+        }
+        long lastFlush = System.currentTimeMillis();
+        try (writer) {
+            while (running || !queue.isEmpty()) {
+                AuctionLogEntry entry = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    try {
+                        writer.write(entry);
+                        written.increment();
+                    } catch (IOException | RuntimeException e) {
+                        dropped.increment();
+                        log.warn("写入竞价日志失败: adUnitId={}", entry.adUnitId, e);
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastFlush >= flushIntervalMillis) {
+                    writer.flush();
+                    lastFlush = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.adverge.backend.auctionlog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 将竞价日志段转换为CSV，每个平台的出价一行，未调用任何平台的竞价输出一行空平台列
+ * <p>
+ * 参数可以是段文件或目录（按文件名顺序读取其中全部段），只依赖JDK，可直接用打包后的普通jar运行：
+ * <pre>
+ * java -cp target/adverge-backend-1.0.0.jar com.adverge.backend.auctionlog.AuctionLogCsv [-o auctions.csv] logs/auctions
+ * </pre>
+ */
+public final class AuctionLogCsv {
+
+    private static final String HEADER = "timestamp,ad_unit_id,app_id,ad_type,platform,device_type,os,floor_price,"
+            + "duration_ms,winner,network,outcome,price,latency_ms,filtered_by_floor";
+
+    private AuctionLogCsv() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String output = null;
+        List<Path> segments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-o".equals(args[i]) || "--output".equals(args[i])) {
+                output = args[++i];
+            } else {
+                segments.addAll(resolve(Paths.get(args[i])));
+            }
+        }
+        if (segments.isEmpty()) {
+            System.err.println("用法: AuctionLogCsv [-o 输出文件] <段文件或目录>...");
+            System.exit(1);
+        }
+
+        try (Writer writer = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            long auctions = 0;
+            for (Path segment : segments) {
+                auctions += convert(new AuctionLogReader(segment), writer);
+            }
+            writer.flush();
+            System.err.println("已转换 " + segments.size() + " 个段, " + auctions + " 次竞价");
+        }
+    }
+
+    /**
+     * 转换单个段
+     *
+     * @return 竞价数
+     */
+    public static long convert(AuctionLogReader reader, Writer writer) throws IOException {
+        long count = 0;
+        StringBuilder line = new StringBuilder(256);
+        AuctionLogRecord record;
+        while ((record = reader.next()) != null) {
+            count++;
+            List<AuctionLogRecord.Bid> bids = record.getBids();
+            String winner = record.getWinnerIndex() >= 0 ? bids.get(record.getWinnerIndex()).getNetwork() : null;
+            line.setLength(0);
+            line.append(Instant.ofEpochMilli(record.getTimestamp())).append(',');
+            field(line, record.getAdUnitId());
+            field(line, record.getAppId());
+            field(line, record.getAdType());
+            field(line, record.getPlatform());
+            field(line, record.getDeviceType());
+            field(line, record.getOs());
+            field(line, record.getFloorPrice());
+            field(line, record.getDurationMs());
+            field(line, winner);
+            int prefix = line.length();
+            if (bids.isEmpty()) {
+                line.append(",,,,\n");
+                writer.append(line);
+                continue;
+            }
+            for (AuctionLogRecord.Bid bid : bids) {
+                line.setLength(prefix);
+                field(line, bid.getNetwork());
+                field(line, bid.getOutcome());
+                field(line, bid.getPrice());
+                field(line, bid.getLatencyMs());
+                line.append(bid.isFilteredByFloor()).append('\n');
+                writer.append(line);
+            }
+        }
+        return count;
+    }
+
+    private static List<Path> resolve(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*" + AuctionLogFormat.FILE_SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static void field(StringBuilder line, Object value) {
+        if (value != null) {
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        line.append(',');
+    }
+} 
\ No newline at end of file
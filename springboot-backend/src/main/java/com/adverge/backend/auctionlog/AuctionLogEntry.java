@@ -0,0 +1,133 @@
+package com.adverge.backend.auctionlog;
+
+import com.adverge.backend.dto.AdRequest;
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.metrics.AuctionMetrics;
+import com.adverge.backend.trace.NetworkCallListener;
+
+import java.math.BigDecimal;
+
+/**
+ * 单次竞价在请求路径上收集的数据，竞价结束后交给 {@link AuctionLog} 异步写入
+ * <p>
+ * 各平台占用固定下标的槽位，槽位在发起请求的线程上按顺序分配，完成回调只写自己的槽位。
+ * 提交后标记为已封存，之后才返回的平台结果不再写入（其槽位保留为 pending）。完成回调与封存在同一把锁下进行，
+ * 封存返回后不会再有回调写入槽位，写线程读取时记录不会被改写。
+ */
+public final class AuctionLogEntry implements NetworkCallListener {
+
+    final long timestampMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    final String adUnitId;
+    final String appId;
+    final String adType;
+    final String platform;
+    final String deviceType;
+    final String os;
+    final Double floorPrice;
+
+    final String[] networks;
+    final byte[] outcomes;
+    final byte[] flags;
+    final int[] priceMicros;
+    final int[] latencyMicros;
+    int bidCount;
+    int winnerIndex = AuctionLogFormat.NO_WINNER;
+    int durationMicros;
+
+    private boolean sealed;
+
+    AuctionLogEntry(String adUnitId, AdRequest adRequest, int networkCount) {
+        this.adUnitId = adUnitId;
+        this.appId = adRequest.getAppId();
+        this.adType = adRequest.getType();
+        this.platform = adRequest.getPlatform();
+        AdRequest.DeviceInfo device = adRequest.getDeviceInfo();
+        this.deviceType = device == null ? null : device.getType();
+        this.os = device == null ? null : device.getOs();
+        BigDecimal floor = adRequest.getFloorPrice();
+        this.floorPrice = floor == null ? null : floor.doubleValue();
+
+        int capacity = Math.min(networkCount, AuctionLogFormat.MAX_BIDS);
+        this.networks = new String[capacity];
+        this.outcomes = new byte[capacity];
+        this.flags = new byte[capacity];
+        this.priceMicros = new int[capacity];
+        this.latencyMicros = new int[capacity];
+    }
+
+    @Override
+    public void networkCalled(String network) {
+        if (bidCount < networks.length) {
+            networks[bidCount] = network;
+            priceMicros[bidCount] = -1;
+            latencyMicros[bidCount] = -1;
+            bidCount++;
+        }
+    }
+
+    @Override
+    public synchronized void networkCompleted(String network, AuctionMetrics.Outcome outcome, long elapsedNanos,
+                                              Double price) {
+        if (sealed) {
+            return;
+        }
+        int index = indexOf(network);
+        if (index < 0) {
+            return;
+        }
+        latencyMicros[index] = AuctionLogFormat.nanosToMicros(elapsedNanos);
+        priceMicros[index] = AuctionLogFormat.toMicros(price);
+        outcomes[index] = encode(outcome);
+    }
+
+    /**
+     * 标记被底价过滤的出价
+     */
+    public void floorFiltered(String network) {
+        int index = indexOf(network);
+        if (index >= 0) {
+            flags[index] |= AuctionLogFormat.FLAG_FILTERED_BY_FLOOR;
+        }
+    }
+
+    /**
+     * 记录胜出平台
+     */
+    public void winner(BidResponse winner) {
+        if (winner != null) {
+            int index = indexOf(winner.getSource());
+            winnerIndex = index < 0 ? AuctionLogFormat.NO_WINNER : index;
+        }
+    }
+
+    /**
+     * 竞价结束，记录总耗时并封存
+     */
+    synchronized void seal() {
+        durationMicros = AuctionLogFormat.nanosToMicros(System.nanoTime() - startNanos);
+        sealed = true;
+    }
+
+    private int indexOf(String network) {
+        for (int i = 0; i < bidCount; i++) {
+            if (networks[i].equals(network)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte encode(AuctionMetrics.Outcome outcome) {
+        switch (outcome) {
+            case BID:
+                return 1;
+            case NO_BID:
+                return 2;
+            case TIMEOUT:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+} 
\ No newline at end of file
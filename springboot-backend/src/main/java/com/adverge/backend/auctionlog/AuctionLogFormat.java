@@ -0,0 +1,96 @@
+package com.adverge.backend.auctionlog;
+
+/**
+ * 竞价日志段文件格式
+ * <p>
+ * 段文件以固定32字节的文件头开始，其后是连续的记录，每条记录以1字节类型开头，类型为0表示段结束
+ * （映射文件未写入的部分全为0）。所有整数为大端序。
+ * <pre>
+ * 文件头   magic(4)="AVAL" version(2) reserved(2) baseTimestampMillis(8) reserved(16)
+ * 字符串   type(1)=1 id(2) length(2) utf8(length)
+ * 竞价     type(1)=2 bidCount(1) winnerIndex(1, 0xFF=无) reserved(1)
+ *          timestampDeltaMillis(4, zig-zag) adUnitId(2) appId(2) adType(2) platform(2) deviceType(2) os(2)
+ *          floorPriceMicros(4, -1=无) durationMicros(4)
+ *          bidCount × [ network(2) outcome(1) flags(1) priceMicros(4, -1=无) latencyMicros(4) ]
+ * </pre>
+ * 字符串（广告位、应用、平台名等）在段内首次出现时写入一条字符串记录并分配编号，之后的竞价记录只引用编号，
+ * 每个段独立可读。时间戳记录为与上一条竞价记录（段内第一条为文件头基准时间）的毫秒差，按 zig-zag 编码为有符号数：
+ * 条目在竞价结束时入队、时间戳却取自竞价开始，相邻记录的时间戳并不单调。差值超出32位时滚动到新段。
+ * 版本1的差值为无符号数，读取时仍兼容。
+ */
+public final class AuctionLogFormat {
+
+    public static final int MAGIC = 0x4156414C;
+    public static final short VERSION = 2;
+    public static final int HEADER_SIZE = 32;
+
+    public static final byte TYPE_END = 0;
+    public static final byte TYPE_STRING = 1;
+    public static final byte TYPE_AUCTION = 2;
+
+    public static final int AUCTION_FIXED_SIZE = 32;
+    public static final int BID_SIZE = 12;
+    public static final int STRING_FIXED_SIZE = 5;
+
+    /**
+     * 空字符串引用
+     */
+    public static final int NO_STRING = 0xFFFF;
+    /**
+     * 段内最多的字符串数，超过时滚动到新段
+     */
+    public static final int MAX_STRINGS = NO_STRING;
+    /**
+     * 单个字符串最多写入的字节数，超过时截断
+     */
+    public static final int MAX_STRING_BYTES = 255;
+    /**
+     * 单次竞价最多记录的平台数
+     */
+    public static final int MAX_BIDS = 254;
+    public static final int NO_WINNER = 0xFF;
+
+    public static final int FLAG_FILTERED_BY_FLOOR = 1;
+
+    public static final String FILE_SUFFIX = ".alog";
+
+    /**
+     * 平台结果编码，与 AuctionMetrics.Outcome 的顺序无关，新增结果只能追加
+     */
+    public static final String[] OUTCOMES = {"pending", "bid", "no_bid", "timeout", "error"};
+
+    private AuctionLogFormat() {
+    }
+
+    /**
+     * 金额转为百万分之一单位，null记为-1
+     */
+    static int toMicros(Double value) {
+        if (value == null || value.isNaN()) {
+            return -1;
+        }
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, Math.round(value * 1_000_000)));
+    }
+
+    /**
+     * 有符号差值按 zig-zag 编码，绝对值小的负数也只占低位
+     */
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static Double fromMicros(int micros) {
+        return micros < 0 ? null : micros / 1_000_000.0;
+    }
+
+    /**
+     * 纳秒转为微秒，按无符号32位截断
+     */
+    static int nanosToMicros(long nanos) {
+        return (int) Math.min(0xFFFF_FFFFL, Math.max(0, nanos / 1_000));
+    }
+} 
\ No newline at end of file
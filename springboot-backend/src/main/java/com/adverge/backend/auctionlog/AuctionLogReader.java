@@ -0,0 +1,140 @@
+package com.adverge.backend.auctionlog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 顺序读取单个竞价日志段
+ * <p>
+ * 可以读取正在写入的段，读到尚未写完的记录时视为段末尾。
+ */
+public class AuctionLogReader {
+
+    private final MappedByteBuffer buffer;
+    private final List<String> strings = new ArrayList<>();
+    private final short version;
+    private final long baseTimestamp;
+    private long timestamp;
+
+    public AuctionLogReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < AuctionLogFormat.HEADER_SIZE || buffer.getInt() != AuctionLogFormat.MAGIC) {
+            throw new IOException("不是竞价日志段文件: " + file);
+        }
+        this.version = buffer.getShort();
+        if (version < 1 || version > AuctionLogFormat.VERSION) {
+            throw new IOException("不支持的竞价日志版本: " + version + ", 文件: " + file);
+        }
+        buffer.getShort();
+        this.baseTimestamp = buffer.getLong();
+        this.timestamp = baseTimestamp;
+        buffer.position(AuctionLogFormat.HEADER_SIZE);
+    }
+
+    public long getBaseTimestamp() {
+        return baseTimestamp;
+    }
+
+    /**
+     * 读取下一次竞价
+     *
+     * @return 竞价记录，到达段末尾时为null
+     */
+    public AuctionLogRecord next() throws IOException {
+        while (buffer.hasRemaining()) {
+            byte type = buffer.get();
+            switch (type) {
+                case AuctionLogFormat.TYPE_END:
+                    return null;
+                case AuctionLogFormat.TYPE_STRING:
+                    if (!readString()) {
+                        return null;
+                    }
+                    break;
+                case AuctionLogFormat.TYPE_AUCTION:
+                    return readAuction();
+                default:
+                    throw new IOException("无效的记录类型: " + type + ", 位置: " + (buffer.position() - 1));
+            }
+        }
+        return null;
+    }
+
+    private boolean readString() throws IOException {
+        if (buffer.remaining() < AuctionLogFormat.STRING_FIXED_SIZE - 1) {
+            return false;
+        }
+        int id = Short.toUnsignedInt(buffer.getShort());
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.remaining() < length) {
+            return false;
+        }
+        if (id != strings.size()) {
+            throw new IOException("字符串编号不连续: " + id + ", 期望: " + strings.size());
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        strings.add(new String(bytes, StandardCharsets.UTF_8));
+        return true;
+    }
+
+    private AuctionLogRecord readAuction() throws IOException {
+        if (buffer.remaining() < AuctionLogFormat.AUCTION_FIXED_SIZE - 1) {
+            return null;
+        }
+        int bidCount = Byte.toUnsignedInt(buffer.get());
+        int winnerIndex = Byte.toUnsignedInt(buffer.get());
+        buffer.get();
+        if (buffer.remaining() < AuctionLogFormat.AUCTION_FIXED_SIZE - 4 + bidCount * AuctionLogFormat.BID_SIZE) {
+            return null;
+        }
+        int delta = buffer.getInt();
+        timestamp += version == 1 ? Integer.toUnsignedLong(delta) : AuctionLogFormat.unZigZag(delta);
+
+        AuctionLogRecord record = new AuctionLogRecord();
+        record.setTimestamp(timestamp);
+        record.setAdUnitId(string(buffer.getShort()));
+        record.setAppId(string(buffer.getShort()));
+        record.setAdType(string(buffer.getShort()));
+        record.setPlatform(string(buffer.getShort()));
+        record.setDeviceType(string(buffer.getShort()));
+        record.setOs(string(buffer.getShort()));
+        record.setFloorPrice(AuctionLogFormat.fromMicros(buffer.getInt()));
+        record.setDurationMs(Integer.toUnsignedLong(buffer.getInt()) / 1000.0);
+        record.setWinnerIndex(winnerIndex == AuctionLogFormat.NO_WINNER ? -1 : winnerIndex);
+
+        List<AuctionLogRecord.Bid> bids = new ArrayList<>(bidCount);
+        for (int i = 0; i < bidCount; i++) {
+            AuctionLogRecord.Bid bid = new AuctionLogRecord.Bid();
+            bid.setNetwork(string(buffer.getShort()));
+            int outcome = Byte.toUnsignedInt(buffer.get());
+            bid.setOutcome(outcome < AuctionLogFormat.OUTCOMES.length ? AuctionLogFormat.OUTCOMES[outcome] : "unknown");
+            bid.setFilteredByFloor((buffer.get() & AuctionLogFormat.FLAG_FILTERED_BY_FLOOR) != 0);
+            bid.setPrice(AuctionLogFormat.fromMicros(buffer.getInt()));
+            int latency = buffer.getInt();
+            bid.setLatencyMs(latency == -1 ? null : Integer.toUnsignedLong(latency) / 1000.0);
+            bids.add(bid);
+        }
+        record.setBids(bids);
+        return record;
+    }
+
+    private String string(short reference) throws IOException {
+        int id = Short.toUnsignedInt(reference);
+        if (id == AuctionLogFormat.NO_STRING) {
+            return null;
+        }
+        if (id >= strings.size()) {
+            throw new IOException("引用了未定义的字符串: " + id);
+        }
+        return strings.get(id);
+    }
+} 
\ No newline at end of file
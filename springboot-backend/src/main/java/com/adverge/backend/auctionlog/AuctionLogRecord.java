@@ -0,0 +1,39 @@
+package com.adverge.backend.auctionlog;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 从竞价日志段中读出的一次竞价
+ */
+@Data
+public class AuctionLogRecord {
+
+    private long timestamp;
+    private String adUnitId;
+    private String appId;
+    private String adType;
+    private String platform;
+    private String deviceType;
+    private String os;
+    private Double floorPrice;
+    private double durationMs;
+    /**
+     * 胜出平台在 bids 中的下标，无胜出时为-1
+     */
+    private int winnerIndex;
+    private List<Bid> bids;
+
+    @Data
+    public static class Bid {
+        private String network;
+        /**
+         * pending | bid | no_bid | timeout | error，pending 表示竞价结束时该平台仍未返回
+         */
+        private String outcome;
+        private Double price;
+        private Double latencyMs;
+        private boolean filteredByFloor;
+    }
+} 
\ No newline at end of file
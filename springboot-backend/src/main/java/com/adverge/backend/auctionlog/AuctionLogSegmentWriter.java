@@ -0,0 +1,229 @@
+package com.adverge.backend.auctionlog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将竞价记录编码写入内存映射的滚动段文件，只在单个写线程上使用
+ * <p>
+ * 当前段剩余空间不足时结束该段并新建一段，目录中的段数超过上限时删除最旧的段。
+ * 每条记录最后才写入类型字节，读取正在写入的段时不会读到未写完的记录。
+ */
+@Slf4j
+class AuctionLogSegmentWriter implements AutoCloseable {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final byte[][] pendingStrings = new byte[6 + AuctionLogFormat.MAX_BIDS][];
+    private final int[] stringIds = new int[6 + AuctionLogFormat.MAX_BIDS];
+    private MappedByteBuffer buffer;
+    private Path currentFile;
+    private long lastTimestamp;
+    private boolean dirty;
+
+    AuctionLogSegmentWriter(Path directory, int segmentSize, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(segmentSize, 1024 * 1024);
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * 写入一条竞价记录
+     */
+    void write(AuctionLogEntry entry) throws IOException {
+        int bidCount = entry.bidCount;
+        int recordSize = AuctionLogFormat.AUCTION_FIXED_SIZE + bidCount * AuctionLogFormat.BID_SIZE;
+        long delta = buffer == null ? 0 : entry.timestampMillis - lastTimestamp;
+        if (buffer == null || delta < Integer.MIN_VALUE || delta > Integer.MAX_VALUE
+                || buffer.remaining() < requiredSpace(entry, recordSize) + 1
+                || strings.size() + bidCount + 6 > AuctionLogFormat.MAX_STRINGS) {
+            roll(entry.timestampMillis);
+            delta = 0;
+        }
+        resolveStrings(entry);
+
+        MappedByteBuffer out = buffer;
+        int start = out.position();
+        out.put(AuctionLogFormat.TYPE_END);
+        out.put((byte) bidCount);
+        out.put((byte) entry.winnerIndex);
+        out.put((byte) 0);
+        out.putInt(AuctionLogFormat.zigZag((int) delta));
+        for (int i = 0; i < 6; i++) {
+            out.putShort((short) stringIds[i]);
+        }
+        out.putInt(AuctionLogFormat.toMicros(entry.floorPrice));
+        out.putInt(entry.durationMicros);
+        for (int i = 0; i < bidCount; i++) {
+            out.putShort((short) stringIds[6 + i]);
+            out.put(entry.outcomes[i]);
+            out.put(entry.flags[i]);
+            out.putInt(entry.priceMicros[i]);
+            out.putInt(entry.latencyMicros[i]);
+        }
+        out.put(start, AuctionLogFormat.TYPE_AUCTION);
+        lastTimestamp = entry.timestampMillis;
+        dirty = true;
+    }
+
+    /**
+     * 将已写入的数据刷到磁盘
+     */
+    void flush() {
+        if (buffer != null && dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        buffer = null;
+    }
+
+    /**
+     * 计算写入本条记录需要的空间，包括段内尚未出现的字符串
+     */
+    private int requiredSpace(AuctionLogEntry entry, int recordSize) {
+        int size = recordSize;
+        for (int i = 0; i < 6 + entry.bidCount; i++) {
+            String value = stringAt(entry, i);
+            pendingStrings[i] = null;
+            if (value != null && !strings.containsKey(value)) {
+                byte[] bytes = encode(value);
+                pendingStrings[i] = bytes;
+                size += AuctionLogFormat.STRING_FIXED_SIZE + bytes.length;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 为本条记录引用的字符串分配编号，段内首次出现的字符串先写入字符串记录
+     */
+    private void resolveStrings(AuctionLogEntry entry) {
+        for (int i = 0; i < 6 + entry.bidCount; i++) {
+            String value = stringAt(entry, i);
+            if (value == null) {
+                stringIds[i] = AuctionLogFormat.NO_STRING;
+                continue;
+            }
+            Integer id = strings.get(value);
+            if (id == null) {
+                byte[] bytes = pendingStrings[i] != null ? pendingStrings[i] : encode(value);
+                id = strings.size();
+                strings.put(value, id);
+                int start = buffer.position();
+                buffer.put(AuctionLogFormat.TYPE_END);
+                buffer.putShort((short) (int) id);
+                buffer.putShort((short) bytes.length);
+                buffer.put(bytes);
+                buffer.put(start, AuctionLogFormat.TYPE_STRING);
+            }
+            stringIds[i] = id;
+        }
+    }
+
+    private static String stringAt(AuctionLogEntry entry, int index) {
+        switch (index) {
+            case 0:
+                return entry.adUnitId;
+            case 1:
+                return entry.appId;
+            case 2:
+                return entry.adType;
+            case 3:
+                return entry.platform;
+            case 4:
+                return entry.deviceType;
+            case 5:
+                return entry.os;
+            default:
+                return entry.networks[index - 6];
+        }
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= AuctionLogFormat.MAX_STRING_BYTES) {
+            return bytes;
+        }
+        byte[] truncated = new byte[AuctionLogFormat.MAX_STRING_BYTES];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        return truncated;
+    }
+
+    private void roll(long baseTimestamp) throws IOException {
+        flush();
+        Path file = nextFile();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(AuctionLogFormat.MAGIC);
+        buffer.putShort(AuctionLogFormat.VERSION);
+        buffer.putShort((short) 0);
+        buffer.putLong(baseTimestamp);
+        buffer.position(AuctionLogFormat.HEADER_SIZE);
+        strings.clear();
+        lastTimestamp = baseTimestamp;
+        dirty = true;
+        log.debug("新建竞价日志段: {}", file);
+        if (currentFile != null) {
+            deleteOldSegments();
+        }
+        currentFile = file;
+    }
+
+    private Path nextFile() {
+        String base = "auction-" + LocalDateTime.now().format(FILE_TIME);
+        Path file = directory.resolve(base + AuctionLogFormat.FILE_SUFFIX);
+        for (int i = 1; Files.exists(file); i++) {
+            file = directory.resolve(base + "-" + i + AuctionLogFormat.FILE_SUFFIX);
+        }
+        return file;
+    }
+
+    private void deleteOldSegments() {
+        if (maxSegments <= 0) {
+            return;
+        }
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + AuctionLogFormat.FILE_SUFFIX)) {
+            files.forEach(segments::add);
+        } catch (IOException e) {
+            log.warn("列出竞价日志段失败: {}", directory, e);
+            return;
+        }
+        Collections.sort(segments);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException e) {
+                log.warn("删除竞价日志段失败: {}", segments.get(i), e);
+            }
+        }
+    }
+} 
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.adverge.backend.model.Config;
 import com.adverge.backend.repository.ConfigRepository;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
 import java.util.List;
@@ -13,8 +14,8 @@ public class AdNetworkConfig {
 
     @Bean
     public Config adConfig(ConfigRepository configRepository) {
-        // 检查是否已有配置
-        List<Config> existingConfigs = configRepository.findAll();
+        // 检查是否已有配置，只取第一条，避免启动时加载全部应用的配置
+        List<Config> existingConfigs = configRepository.findAll(PageRequest.of(0, 1)).getContent();
         if (!existingConfigs.isEmpty()) {
             return existingConfigs.get(0);
         }
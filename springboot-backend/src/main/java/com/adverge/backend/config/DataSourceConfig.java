@@ -1,20 +1,89 @@
 package com.adverge.backend.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 数据源配置类
  * 禁用 MongoDB 自动配置，启用 JPA
+ * <p>
+ * 主库取自 spring.datasource；配置了 ad.datasource.replica.urls 时，只读事务路由到从库，
+ * 见 {@link ReplicaRoutingDataSource}。
  */
+@Slf4j
 @Configuration
 @EnableJpaRepositories(basePackages = "com.adverge.backend.repository")
 @EnableTransactionManagement
 @AutoConfigureAfter({MongoAutoConfiguration.class, MongoDataAutoConfiguration.class})
 public class DataSourceConfig {
-    // 配置由 application.yml 完成
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry registry,
+            @Value("${ad.datasource.replica.urls:}") List<String> urls,
+            @Value("${ad.datasource.replica.username:}") String username,
+            @Value("${ad.datasource.replica.password:}") String password,
+            @Value("${ad.datasource.replica.pool-size:10}") int poolSize,
+            @Value("${ad.datasource.replica.max-lag:10}") long maxLagSeconds,
+            @Value("${ad.datasource.replica.allow-standalone:false}") boolean allowStandalone) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            String name = "replica-" + replicas.size();
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(url.trim());
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setUsername(StringUtils.hasText(username) ? username : properties.determineUsername());
+            dataSource.setPassword(StringUtils.hasText(username) ? password : properties.determinePassword());
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setReadOnly(true);
+            dataSource.setMetricRegistry(registry);
+            replicas.put(name, dataSource);
+        }
+        if (!replicas.isEmpty()) {
+            log.info("只读事务路由到{}个从库，允许的最大复制延迟{}秒", replicas.size(), maxLagSeconds);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagSeconds, allowStandalone, registry);
+    }
+
+    /**
+     * 连接延迟到第一条语句执行时才获取，此时事务的只读标记已经设置
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
 } 
\ No newline at end of file
@@ -1,13 +1,18 @@
 package com.adverge.backend.config;
 
+import com.adverge.backend.serializer.CompactCodecs;
+import com.adverge.backend.serializer.CompactRedisSerializer;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -21,25 +26,46 @@ public class RedisConfig {
      * 配置RedisTemplate，支持对象序列化
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       @Value("${ad.redis.compact-serializer:false}") boolean writeCompact) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
-        // 使用Jackson2JsonRedisSerializer来序列化和反序列化redis的value值
-        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
-        
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-        serializer.setObjectMapper(mapper);
+        // Config、BidResponse、AdUnit等缓存类型使用紧凑二进制格式，其余类型及旧数据仍走JSON
+        CompactRedisSerializer valueSerializer = new CompactRedisSerializer(jsonValueSerializer(), writeCompact, CompactCodecs.all());
         
-        template.setValueSerializer(serializer);
+        template.setValueSerializer(valueSerializer);
         // 使用StringRedisSerializer来序列化和反序列化redis的key值
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(serializer);
+        template.setHashValueSerializer(valueSerializer);
         template.afterPropertiesSet();
         
         return template;
     }
+    
+    /**
+     * 使用Jackson2JsonRedisSerializer来序列化和反序列化redis的value值（带类型信息）
+     */
+    public static Jackson2JsonRedisSerializer<Object> jsonValueSerializer() {
+        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
+        
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        // AdUnit等实体包含LocalDateTime字段
+        mapper.registerModule(new JavaTimeModule());
+        serializer.setObjectMapper(mapper);
+        return serializer;
+    }
+        
+    /**
+     * Redis消息监听容器，用于接收配置等变更通知
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 } 
\ No newline at end of file
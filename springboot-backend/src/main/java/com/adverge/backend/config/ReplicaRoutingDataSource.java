@@ -0,0 +1,208 @@
+package com.adverge.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离数据源
+ * <p>
+ * 只读事务（@Transactional(readOnly = true)）的连接从可用的从库中轮询选取，其余连接（写入、非只读事务、
+ * 事务外的查询，包括竞价链路上的查找）都取自主库。需要由 LazyConnectionDataSourceProxy 包装，
+ * 使连接在事务开始、只读标记已设置之后才真正获取。
+ * <p>
+ * 定时执行 SHOW REPLICA STATUS 检查各从库的复制延迟，复制中断、延迟超过 max-lag 或无法连接的从库
+ * 暂停使用，没有可用从库时只读事务回退到主库。
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagSeconds;
+    private final boolean allowStandalone;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaCounter;
+    private final Counter fallbackCounter;
+
+    /**
+     * @param primary 主库
+     * @param replicas 从库，名称为键
+     * @param maxLagSeconds 允许的最大复制延迟（秒）
+     * @param allowStandalone 未配置复制的实例是否视为无延迟，用于本地以两个独立实例测试
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    long maxLagSeconds, boolean allowStandalone, MeterRegistry registry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLagSeconds;
+        this.allowStandalone = allowStandalone;
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("ad.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("从库复制延迟（秒），-1为未知")
+                    .tag("replica", name)
+                    .register(registry);
+            Gauge.builder("ad.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("从库是否接收只读事务")
+                    .tag("replica", name)
+                    .register(registry);
+        });
+        this.replicaCounter = Counter.builder("ad.datasource.read-only")
+                .description("只读事务获取的连接")
+                .tag("target", "replica")
+                .register(registry);
+        this.fallbackCounter = Counter.builder("ad.datasource.read-only")
+                .description("只读事务获取的连接")
+                .tag("target", "primary")
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        Replica replica = select();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaCounter.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(-1);
+                log.warn("从库{}获取连接失败，暂停使用并回退到主库: {}", replica.name, e.getMessage());
+            }
+        }
+        fallbackCounter.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 轮询选取一个可用的从库，没有时返回 null
+     */
+    private Replica select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 检查各从库的复制延迟，启动后立即执行一次，检查通过前从库不接收只读事务
+     */
+    @Scheduled(fixedDelayString = "${ad.datasource.replica.check-interval:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            long lag;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                lag = replicationLag(connection);
+            } catch (SQLException e) {
+                if (replica.available) {
+                    log.warn("从库{}检查失败，暂停使用: {}", replica.name, e.getMessage());
+                }
+                replica.markDown(-1);
+                continue;
+            }
+            boolean healthy = lag >= 0 && lag <= maxLagSeconds;
+            if (healthy != replica.available) {
+                if (healthy) {
+                    log.info("从库{}复制延迟{}秒，恢复使用", replica.name, lag);
+                } else {
+                    log.warn("从库{}复制延迟{}，超过{}秒，暂停使用", replica.name,
+                            lag < 0 ? "未知（复制未运行）" : lag + "秒", maxLagSeconds);
+                }
+            }
+            replica.lagSeconds = lag;
+            replica.available = healthy;
+        }
+    }
+
+    /**
+     * @return 复制延迟（秒），复制未运行时为 -1
+     */
+    private long replicationLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet rs;
+            try {
+                rs = statement.executeQuery("SHOW REPLICA STATUS");
+            } catch (SQLSyntaxErrorException e) {
+                // MySQL 8.0.22 之前的版本
+                rs = statement.executeQuery("SHOW SLAVE STATUS");
+            }
+            try (ResultSet status = rs) {
+                if (!status.next()) {
+                    return allowStandalone ? 0 : -1;
+                }
+                ResultSetMetaData metaData = status.getMetaData();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    String column = metaData.getColumnLabel(i);
+                    if ("Seconds_Behind_Source".equalsIgnoreCase(column)
+                            || "Seconds_Behind_Master".equalsIgnoreCase(column)) {
+                        long lag = status.getLong(i);
+                        return status.wasNull() ? -1 : lag;
+                    }
+                }
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * 关闭从库连接池，主库连接池由容器关闭
+     */
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) replica.dataSource).close();
+                } catch (Exception e) {
+                    log.warn("关闭从库{}连接池失败: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+        private volatile long lagSeconds = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markDown(long lag) {
+            available = false;
+            lagSeconds = lag;
+        }
+    }
+} 
\ No newline at end of file
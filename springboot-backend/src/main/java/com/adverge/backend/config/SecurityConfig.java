@@ -1,5 +1,7 @@
 package com.adverge.backend.config;
 
+import com.adverge.backend.admission.AdmissionControlInterceptor;
+import com.adverge.backend.admission.RateLimitInterceptor;
 import com.adverge.backend.security.RequestSignatureInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -17,6 +19,8 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class SecurityConfig extends WebSecurityConfigurerAdapter implements WebMvcConfigurer {
 
     private final RequestSignatureInterceptor requestSignatureInterceptor;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
@@ -30,7 +34,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter implements WebM
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // 准入控制在签名校验之前，过载时尽早返回；按应用限流在签名校验之后，
+        // 未签名的请求不能借用其他应用的广告位ID消耗该应用的配额
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/ad/**", "/bid/**", "/v1/bid", "/v1/bid/**", "/v1/ad");
         registry.addInterceptor(requestSignatureInterceptor)
                 .addPathPatterns("/ad/**", "/bid/**", "/track/**");
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/ad/**", "/bid/**", "/v1/bid", "/v1/bid/**", "/v1/ad");
     }
 } 
\ No newline at end of file
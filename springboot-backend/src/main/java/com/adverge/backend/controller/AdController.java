@@ -1,6 +1,8 @@
 package com.adverge.backend.controller;
 
 import com.adverge.backend.dto.AdRequest;
+import com.adverge.backend.dto.BatchBidRequest;
+import com.adverge.backend.dto.BatchBidResponse;
 import com.adverge.backend.dto.BidResponse;
 import com.adverge.backend.dto.TrackRequest;
 import com.adverge.backend.service.AdService;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -74,6 +77,30 @@ public class AdController {
         }
     }
     
+    /**
+     * 多广告位批量竞价，所有广告位共用一次广告平台扇出
+     */
+    @PostMapping("/bid/batch")
+    public ResponseEntity<BatchBidResponse> bidBatch(
+            @Valid @RequestBody BatchBidRequest batchRequest,
+            HttpServletRequest request) {
+        
+        try {
+            long timestamp = System.currentTimeMillis();
+            String signature = securityService.generateRequestSignature(request, timestamp);
+            
+            List<BidResponse> bids = adService.bidBatch(batchRequest.getRequests(), request);
+            
+            return ResponseEntity.ok()
+                    .header("X-Timestamp", String.valueOf(timestamp))
+                    .header("X-Signature", signature)
+                    .body(new BatchBidResponse(bids));
+        } catch (Exception e) {
+            log.error("批量竞价请求失败", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * 记录广告展示
      */
@@ -81,13 +108,15 @@ public class AdController {
     public ResponseEntity<Map<String, Boolean>> trackImpression(
             @PathVariable String adId,
             @RequestParam String platform,
+            @RequestParam(required = false) String adUnitId,
+            @RequestParam(required = false) String deviceId,
             HttpServletRequest request) {
         
         try {
             long timestamp = System.currentTimeMillis();
             String signature = securityService.generateRequestSignature(request, timestamp);
             
-            adService.trackImpression(adId, platform, request);
+            adService.trackImpression(adId, platform, adUnitId, deviceId, request);
             
             Map<String, Boolean> response = new HashMap<>();
             response.put("success", true);
@@ -1,6 +1,8 @@
 package com.adverge.backend.controller;
 
 import com.adverge.backend.dto.AdUnitRequest;
+import com.adverge.backend.dto.AdUnitSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.AdUnit;
 import com.adverge.backend.service.AdUnitService;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,17 @@ public class AdUnitController {
         return ResponseEntity.ok(adUnits);
     }
 
+    /**
+     * 按游标分页获取广告位列表（轻量投影），可按应用过滤
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<AdUnitSummary>> listAdUnits(
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(adUnitService.listAdUnits(appId, after, size));
+    }
+
     /**
      * 根据ID获取广告位
      */
@@ -1,6 +1,8 @@
 package com.adverge.backend.controller;
 
 import com.adverge.backend.dto.AppRequest;
+import com.adverge.backend.dto.AppSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.App;
 import com.adverge.backend.service.AppService;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,17 @@ public class AppController {
         return ResponseEntity.ok(apps);
     }
 
+    /**
+     * 按游标分页获取应用列表（轻量投影），可按平台过滤
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<AppSummary>> listApps(
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(appService.listApps(platform, after, size));
+    }
+
     /**
      * 根据ID获取应用
      */
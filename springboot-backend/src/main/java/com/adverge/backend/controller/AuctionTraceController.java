@@ -0,0 +1,65 @@
+package com.adverge.backend.controller;
+
+import com.adverge.backend.dto.AuctionTrace;
+import com.adverge.backend.trace.AuctionTracer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 竞价采样追踪查询接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/auctions")
+@RequiredArgsConstructor
+public class AuctionTraceController {
+
+    private final AuctionTracer auctionTracer;
+
+    /**
+     * 查询本节点最近的竞价追踪，按时间倒序
+     * @param adUnitId 广告位ID
+     * @param platform 参与竞价的广告平台
+     * @param limit 最多返回条数
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<List<AuctionTrace>> getRecentAuctions(
+            @RequestParam(required = false) String adUnitId,
+            @RequestParam(required = false) String platform,
+            @RequestParam(defaultValue = "100") int limit) {
+        int size = Math.max(1, Math.min(limit, auctionTracer.getCapacity()));
+        return ResponseEntity.ok(auctionTracer.recent(adUnitId, platform, size));
+    }
+
+    /**
+     * 获取本节点的采样率
+     */
+    @GetMapping("/sampling")
+    public ResponseEntity<Map<String, Object>> getSampling() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("sampleRate", auctionTracer.getSampleRate());
+        result.put("capacity", auctionTracer.getCapacity());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 调整本节点的采样率，0表示关闭采样
+     */
+    @PutMapping("/sampling")
+    public ResponseEntity<Map<String, Object>> updateSampling(@RequestParam double sampleRate) {
+        try {
+            auctionTracer.setSampleRate(sampleRate);
+            log.info("竞价追踪采样率已调整为: {}", sampleRate);
+            return getSampling();
+        } catch (IllegalArgumentException e) {
+            log.warn("调整竞价追踪采样率失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+} 
\ No newline at end of file
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -66,6 +67,47 @@ public class CompatibilityController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    /**
+     * 多广告位批量竞价 (Android SDK兼容接口)
+     * <p>
+     * 返回与请求顺序一致的广告列表，无填充的位置为null
+     */
+    @PostMapping("/bid/batch")
+    public ResponseEntity<List<AdResponse>> legacyBidBatch(
+            @Valid @RequestBody BatchBidRequest batchRequest,
+            HttpServletRequest request) {
+        
+        log.debug("Android SDK发起批量竞价请求: {}个广告位", batchRequest.getRequests().size());
+        
+        try {
+            List<AdRequest> adRequests = batchRequest.getRequests();
+            List<BidResponse> bids = adService.bidBatch(adRequests, request);
+            
+            // 转换为SDK兼容的响应格式
+            List<AdResponse> adResponses = new ArrayList<>(bids.size());
+            for (int i = 0; i < bids.size(); i++) {
+                AdResponse adResponse = null;
+                if (bids.get(i) != null) {
+                    adResponse = AdResponse.fromBidResponse(bids.get(i));
+                    adResponse.setAdUnitId(adRequests.get(i).getAdUnitId());
+                }
+                adResponses.add(adResponse);
+            }
+            
+            // 添加签名和时间戳
+            long timestamp = System.currentTimeMillis();
+            String signature = securityService.generateRequestSignature(request, timestamp);
+            
+            return ResponseEntity.ok()
+                    .header("X-Timestamp", String.valueOf(timestamp))
+                    .header("X-Signature", signature)
+                    .body(adResponses);
+        } catch (Exception e) {
+            log.error("处理批量竞价请求失败", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
     /**
      * 获取广告 (Android SDK兼容接口)
@@ -83,6 +125,9 @@ public class CompatibilityController {
             options.put("appId", adRequest.getAppId());
             
             if (adRequest.getDeviceInfo() != null) {
+                if (adRequest.getDeviceInfo().getDeviceId() != null) {
+                    options.put("deviceId", adRequest.getDeviceInfo().getDeviceId());
+                }
                 options.put("deviceType", adRequest.getDeviceInfo().getType());
                 options.put("os", adRequest.getDeviceInfo().getOs());
                 options.put("model", adRequest.getDeviceInfo().getModel());
@@ -122,13 +167,14 @@ public class CompatibilityController {
             @RequestParam String adId,
             @RequestParam String platform,
             @RequestParam(required = false) String adUnitId,
+            @RequestParam(required = false) String deviceId,
             HttpServletRequest request) {
         
         log.debug("Android SDK记录广告展示: adId={}, platform={}, adUnitId={}", adId, platform, adUnitId);
         
         try {
             // 记录展示
-            adService.trackImpression(adId, platform, request);
+            adService.trackImpression(adId, platform, adUnitId, deviceId, request);
             
             // 构建成功响应
             Map<String, Boolean> response = new HashMap<>();
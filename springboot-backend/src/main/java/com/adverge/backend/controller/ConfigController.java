@@ -2,6 +2,7 @@ package com.adverge.backend.controller;
 
 import com.adverge.backend.model.Config;
 import com.adverge.backend.repository.ConfigRepository;
+import com.adverge.backend.service.ConfigService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +19,7 @@ import java.util.List;
 public class ConfigController {
 
     private final ConfigRepository configRepository;
+    private final ConfigService configService;
 
     /**
      * 获取配置信息
@@ -38,7 +40,9 @@ public class ConfigController {
         
         if (existingConfigs.isEmpty()) {
             // 创建新配置
-            return ResponseEntity.ok(configRepository.save(config));
+            Config savedConfig = configRepository.save(config);
+            configService.notifyConfigChanged();
+            return ResponseEntity.ok(savedConfig);
         } else {
             // 更新现有配置
             Config existingConfig = existingConfigs.get(0);
@@ -47,7 +51,9 @@ public class ConfigController {
             existingConfig.setPlatforms(config.getPlatforms());
             existingConfig.setUpdatedAt(new Date());
             
-            return ResponseEntity.ok(configRepository.save(existingConfig));
+            Config savedConfig = configRepository.save(existingConfig);
+            configService.notifyConfigChanged();
+            return ResponseEntity.ok(savedConfig);
         }
     }
 
@@ -62,7 +68,9 @@ public class ConfigController {
         config.getPlatforms().add(platform);
         config.setUpdatedAt(new Date());
         
-        return ResponseEntity.ok(configRepository.save(config));
+        Config savedConfig = configRepository.save(config);
+        configService.notifyConfigChanged();
+        return ResponseEntity.ok(savedConfig);
     }
 
     /**
@@ -94,7 +102,9 @@ public class ConfigController {
         }
         
         config.setUpdatedAt(new Date());
-        return ResponseEntity.ok(configRepository.save(config));
+        Config savedConfig = configRepository.save(config);
+        configService.notifyConfigChanged();
+        return ResponseEntity.ok(savedConfig);
     }
 
     /**
@@ -115,6 +125,8 @@ public class ConfigController {
         }
         
         config.setUpdatedAt(new Date());
-        return ResponseEntity.ok(configRepository.save(config));
+        Config savedConfig = configRepository.save(config);
+        configService.notifyConfigChanged();
+        return ResponseEntity.ok(savedConfig);
     }
 } 
\ No newline at end of file
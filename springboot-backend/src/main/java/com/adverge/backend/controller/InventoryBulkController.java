@@ -0,0 +1,113 @@
+package com.adverge.backend.controller;
+
+import com.adverge.backend.dto.BulkImportReport;
+import com.adverge.backend.service.InventoryBulkService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 应用与广告位的批量导入导出接口
+ * <p>
+ * 导入的请求体直接作为输入流读取，不经过 multipart 缓冲；请求头 Content-Encoding: gzip 时先解压。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/bulk")
+@RequiredArgsConstructor
+public class InventoryBulkController {
+
+    private final InventoryBulkService inventoryBulkService;
+
+    /**
+     * 批量导入
+     * @param entity apps 或 ad-units
+     * @param format csv 或 json，为空时按 Content-Type 判断
+     * @param dryRun 为true时只校验不写入
+     */
+    @PostMapping("/{entity}/import")
+    public ResponseEntity<BulkImportReport> importRows(
+            @PathVariable String entity,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            HttpServletRequest request) {
+        InventoryBulkService.Entity importEntity;
+        InventoryBulkService.Format importFormat;
+        try {
+            importEntity = InventoryBulkService.Entity.of(entity);
+            if (format != null) {
+                importFormat = InventoryBulkService.Format.valueOf(format.toUpperCase());
+            } else {
+                importFormat = contentType != null && contentType.toLowerCase().contains("json")
+                        ? InventoryBulkService.Format.JSON : InventoryBulkService.Format.CSV;
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean gzip = contentEncoding != null && contentEncoding.toLowerCase().contains("gzip");
+        try (InputStream in = gzip ? new GZIPInputStream(request.getInputStream(), 65536) : request.getInputStream()) {
+            return ResponseEntity.ok(inventoryBulkService.importRows(importEntity, importFormat, in, dryRun));
+        } catch (Exception e) {
+            log.error("批量导入{}失败", importEntity, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 导出全部应用或广告位，文件可直接再导入
+     * @param entity apps 或 ad-units
+     * @param format csv 或 json（NDJSON）
+     */
+    @GetMapping("/{entity}/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String entity,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        InventoryBulkService.Entity exportEntity;
+        InventoryBulkService.Format exportFormat;
+        try {
+            exportEntity = InventoryBulkService.Entity.of(entity);
+            exportFormat = InventoryBulkService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 65536, true) : out;
+            inventoryBulkService.export(exportEntity, exportFormat, target);
+            if (target instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+
+        String filename = exportEntity.name().toLowerCase().replace('_', '-') + exportFormat.getExtension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+} 
\ No newline at end of file
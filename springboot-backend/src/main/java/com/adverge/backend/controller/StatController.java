@@ -1,20 +1,32 @@
 package com.adverge.backend.controller;
 
-import com.adverge.backend.model.Metrics;
-import com.adverge.backend.repository.MetricsRepository;
+import com.adverge.backend.dto.CubeQuery;
+import com.adverge.backend.dto.CubeResult;
+import com.adverge.backend.dto.MetricBackfillReport;
+import com.adverge.backend.dto.MetricPartitionReport;
+import com.adverge.backend.dto.StatsRetentionReport;
+import com.adverge.backend.service.EventCubeService;
+import com.adverge.backend.service.MetricBackfillService;
+import com.adverge.backend.service.MetricPartitionService;
+import com.adverge.backend.service.ReachService;
+import com.adverge.backend.service.StatsQueryService;
+import com.adverge.backend.service.StatsRetentionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -22,8 +34,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StatController {
 
-    private final MetricsRepository metricsRepository;
+    private final StatsQueryService statsQueryService;
     private final RedisTemplate<String, String> redisTemplate;
+    private final StatsRetentionService statsRetentionService;
+    private final ReachService reachService;
+    private final MetricPartitionService metricPartitionService;
+    private final MetricBackfillService metricBackfillService;
+    private final EventCubeService eventCubeService;
 
     /**
      * 获取平台收益统计
@@ -43,31 +60,8 @@ public class StatController {
             endDate = new Date();
         }
         
-        // 从数据库查询指定时间范围内的数据
-        List<Metrics> metrics = metricsRepository.findByTimestampBetween(startDate, endDate);
-        
-        // 按平台分组统计
-        Map<String, DoubleSummaryStatistics> stats = metrics.stream()
-                .collect(Collectors.groupingBy(
-                        Metrics::getPlatform,
-                        Collectors.summarizingDouble(Metrics::getPrice)
-                ));
-        
-        // 转换为前端所需格式
-        List<Map<String, Object>> result = new ArrayList<>();
-        stats.forEach((platform, stat) -> {
-            Map<String, Object> platformStat = new HashMap<>();
-            platformStat.put("platform", platform);
-            platformStat.put("revenue", stat.getSum());
-            platformStat.put("count", stat.getCount());
-            platformStat.put("average", stat.getAverage());
-            result.add(platformStat);
-        });
-        
-        // 按收益排序
-        result.sort((a, b) -> Double.compare((Double) b.get("revenue"), (Double) a.get("revenue")));
-        
-        return ResponseEntity.ok(result);
+        // 按天分桶统计，已结束日期的桶来自缓存
+        return ResponseEntity.ok(statsQueryService.query(StatsQueryService.Dimension.PLATFORM, startDate, endDate));
     }
 
     /**
@@ -88,31 +82,8 @@ public class StatController {
             endDate = new Date();
         }
         
-        // 从数据库查询指定时间范围内的数据
-        List<Metrics> metrics = metricsRepository.findByTimestampBetween(startDate, endDate);
-        
-        // 按广告位分组统计
-        Map<String, DoubleSummaryStatistics> stats = metrics.stream()
-                .collect(Collectors.groupingBy(
-                        Metrics::getPlacementId,
-                        Collectors.summarizingDouble(Metrics::getPrice)
-                ));
-        
-        // 转换为前端所需格式
-        List<Map<String, Object>> result = new ArrayList<>();
-        stats.forEach((placementId, stat) -> {
-            Map<String, Object> placementStat = new HashMap<>();
-            placementStat.put("placementId", placementId);
-            placementStat.put("revenue", stat.getSum());
-            placementStat.put("count", stat.getCount());
-            placementStat.put("average", stat.getAverage());
-            result.add(placementStat);
-        });
-        
-        // 按收益排序
-        result.sort((a, b) -> Double.compare((Double) b.get("revenue"), (Double) a.get("revenue")));
-        
-        return ResponseEntity.ok(result);
+        // 按天分桶统计，已结束日期的桶来自缓存
+        return ResponseEntity.ok(statsQueryService.query(StatsQueryService.Dimension.PLACEMENT, startDate, endDate));
     }
 
     /**
@@ -133,38 +104,8 @@ public class StatController {
             endDate = new Date();
         }
         
-        // 从数据库查询指定时间范围内的数据
-        List<Metrics> metrics = metricsRepository.findByTimestampBetween(startDate, endDate);
-        
-        // 按日期分组统计
-        Map<String, DoubleSummaryStatistics> stats = metrics.stream()
-                .collect(Collectors.groupingBy(
-                        m -> {
-                            Calendar cal = Calendar.getInstance();
-                            cal.setTime(m.getTimestamp());
-                            return String.format("%d-%02d-%02d", 
-                                    cal.get(Calendar.YEAR), 
-                                    cal.get(Calendar.MONTH) + 1, 
-                                    cal.get(Calendar.DAY_OF_MONTH));
-                        },
-                        Collectors.summarizingDouble(Metrics::getPrice)
-                ));
-        
-        // 转换为前端所需格式
-        List<Map<String, Object>> result = new ArrayList<>();
-        stats.forEach((date, stat) -> {
-            Map<String, Object> dateStat = new HashMap<>();
-            dateStat.put("date", date);
-            dateStat.put("revenue", stat.getSum());
-            dateStat.put("count", stat.getCount());
-            dateStat.put("average", stat.getAverage());
-            result.add(dateStat);
-        });
-        
-        // 按日期排序
-        result.sort(Comparator.comparing(m -> (String) m.get("date")));
-        
-        return ResponseEntity.ok(result);
+        // 按天分桶统计，已结束日期的桶来自缓存
+        return ResponseEntity.ok(statsQueryService.query(StatsQueryService.Dimension.DAY, startDate, endDate));
     }
 
     /**
@@ -189,4 +130,112 @@ public class StatController {
         
         return ResponseEntity.ok(result);
     }
+    
+    /**
+     * 获取广告位/平台的独立设备数与用户数（HyperLogLog近似值，标准误差约0.81%）
+     */
+    @GetMapping("/reach")
+    public ResponseEntity<Map<String, Object>> getReach(
+            @RequestParam(required = false) String adUnitId,
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        
+        if (startDate == null) {
+            startDate = endDate.minusDays(6);
+        }
+        
+        try {
+            return ResponseEntity.ok(reachService.getReach(adUnitId, platform, startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * 获取本节点最近一次Redis统计键压缩的结果
+     */
+    @GetMapping("/retention")
+    public ResponseEntity<StatsRetentionReport> getRetentionReport() {
+        StatsRetentionReport report = statsRetentionService.getLastReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+    
+    /**
+     * 立即执行一次Redis统计键压缩，其他节点正在执行时返回409
+     */
+    @PostMapping("/retention/compact")
+    public ResponseEntity<StatsRetentionReport> compactStats() {
+        try {
+            StatsRetentionReport report = statsRetentionService.compact();
+            return report == null ? ResponseEntity.status(HttpStatus.CONFLICT).build() : ResponseEntity.ok(report);
+        } catch (Exception e) {
+            log.error("统计键压缩失败", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * 获取本节点最近一次 metric_events 分区维护的结果
+     */
+    @GetMapping("/partitions")
+    public ResponseEntity<MetricPartitionReport> getPartitionReport() {
+        MetricPartitionReport report = metricPartitionService.getLastReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+    
+    /**
+     * 立即执行一次 metric_events 分区维护，其他节点正在执行时返回409
+     */
+    @PostMapping("/partitions/maintain")
+    public ResponseEntity<MetricPartitionReport> maintainPartitions() {
+        try {
+            MetricPartitionReport report = metricPartitionService.maintain();
+            return report == null ? ResponseEntity.status(HttpStatus.CONFLICT).build() : ResponseEntity.ok(report);
+        } catch (Exception e) {
+            log.error("metric_events 分区维护失败", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * 获取本节点最近一次从 Metrics 补写历史事件的结果
+     */
+    @GetMapping("/partitions/backfill")
+    public ResponseEntity<MetricBackfillReport> getBackfillReport() {
+        MetricBackfillReport report = metricBackfillService.getLastReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+    
+    /**
+     * 从 Metrics 补写历史事件，其他节点正在执行时返回409
+     * @param restart 为true时从头补写，滚动发布完成后用于补上旧节点期间写入的事件
+     */
+    @PostMapping("/partitions/backfill")
+    public ResponseEntity<MetricBackfillReport> backfillEvents(@RequestParam(defaultValue = "false") boolean restart) {
+        try {
+            MetricBackfillReport report = metricBackfillService.backfill(restart);
+            return report == null ? ResponseEntity.status(HttpStatus.CONFLICT).build() : ResponseEntity.ok(report);
+        } catch (Exception e) {
+            log.error("补写 metric_events 历史事件失败", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * 本节点最近事件的多维分组与过滤查询
+     */
+    @PostMapping("/cube")
+    public ResponseEntity<CubeResult> queryCube(@RequestBody CubeQuery query) {
+        try {
+            return ResponseEntity.ok(eventCubeService.query(query));
+        } catch (IllegalArgumentException e) {
+            log.warn("立方体查询参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 } 
\ No newline at end of file
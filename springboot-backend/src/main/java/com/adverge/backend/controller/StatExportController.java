@@ -0,0 +1,94 @@
+package com.adverge.backend.controller;
+
+import com.adverge.backend.service.MetricExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 统计数据导出接口
+ * <p>
+ * 响应不设置 Content-Length，以分块传输边查询边输出；客户端声明接受 gzip 时整体以 gzip 压缩。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/stats/export")
+@RequiredArgsConstructor
+public class StatExportController {
+
+    private final MetricExportService metricExportService;
+
+    /**
+     * 导出指标数据
+     * @param dataset 数据集：events 事件明细，daily 按日期×平台×事件类型汇总
+     * @param format csv 或 ndjson
+     * @param startDate 开始日期，默认30天前
+     * @param endDate 结束日期（含），默认今天
+     * @param platform 平台，为空时导出全部平台
+     */
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String platform,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MetricExportService.Dataset exportDataset;
+        MetricExportService.Format exportFormat;
+        try {
+            exportDataset = MetricExportService.Dataset.valueOf(dataset.toUpperCase());
+            exportFormat = MetricExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(30);
+        if (end.isBefore(start)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!metricExportService.tryAcquire()) {
+            log.warn("同时进行的导出已达上限，拒绝导出{}", exportDataset);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            try {
+                OutputStream target = gzip ? new GZIPOutputStream(out, 65536, true) : out;
+                metricExportService.export(exportDataset, exportFormat, start, end, platform, target);
+                if (target instanceof GZIPOutputStream) {
+                    ((GZIPOutputStream) target).finish();
+                }
+            } finally {
+                metricExportService.release();
+            }
+        };
+
+        String filename = "metrics-" + exportDataset.name().toLowerCase() + "-" + start + "_" + end
+                + exportFormat.getExtension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+} 
\ No newline at end of file
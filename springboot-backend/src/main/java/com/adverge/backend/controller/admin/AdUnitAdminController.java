@@ -1,6 +1,9 @@
 package com.adverge.backend.controller.admin;
 
 import com.adverge.backend.dto.AdUnitRequest;
+import com.adverge.backend.dto.AdUnitSummary;
+import com.adverge.backend.dto.AppSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.AdUnit;
 import com.adverge.backend.model.App;
 import com.adverge.backend.service.AdUnitService;
@@ -14,8 +17,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 广告位管理界面控制器
@@ -34,13 +41,23 @@ public class AdUnitAdminController {
      * 广告位列表页面
      */
     @GetMapping
-    public String adUnitList(Model model) {
-        List<AdUnit> adUnits = adUnitService.getAllAdUnits();
-        model.addAttribute("adUnits", adUnits);
+    public String adUnitList(
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size,
+            Model model) {
         
-        // 获取所有应用，用于显示应用名称
-        List<App> apps = appService.getAllApps();
-        model.addAttribute("apps", apps);
+        KeysetPage<AdUnitSummary> page = adUnitService.listAdUnits(appId, after, size);
+        model.addAttribute("adUnits", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("appId", appId);
+        model.addAttribute("size", size);
+        
+        // 只查询当前页涉及的应用，用于显示应用名称
+        Set<String> appIds = page.getItems().stream()
+                .map(AdUnitSummary::getAppId)
+                .collect(Collectors.toSet());
+        model.addAttribute("apps", appService.getAppSummaries(appIds));
         
         return "admin/ad-units/list";
     }
@@ -64,8 +81,7 @@ public class AdUnitAdminController {
         model.addAttribute("isNew", true);
         
         // 获取所有应用，用于下拉选择框
-        List<App> apps = appService.getAllApps();
-        model.addAttribute("apps", apps);
+        model.addAttribute("apps", appOptions(appId));
         
         return "admin/ad-units/form";
     }
@@ -82,8 +98,7 @@ public class AdUnitAdminController {
         
         if (bindingResult.hasErrors()) {
             model.addAttribute("isNew", true);
-            List<App> apps = appService.getAllApps();
-            model.addAttribute("apps", apps);
+            model.addAttribute("apps", appOptions(adUnitRequest.getAppId()));
             return "admin/ad-units/form";
         }
         
@@ -144,8 +159,7 @@ public class AdUnitAdminController {
             model.addAttribute("isNew", false);
             
             // 获取所有应用，用于下拉选择框
-            List<App> apps = appService.getAllApps();
-            model.addAttribute("apps", apps);
+            model.addAttribute("apps", appOptions(adUnit.getAppId()));
             
             // 保存原应用ID，用于处理应用关联的更新
             model.addAttribute("originalAppId", adUnit.getAppId());
@@ -173,8 +187,7 @@ public class AdUnitAdminController {
         if (bindingResult.hasErrors()) {
             model.addAttribute("adUnitId", id);
             model.addAttribute("isNew", false);
-            List<App> apps = appService.getAllApps();
-            model.addAttribute("apps", apps);
+            model.addAttribute("apps", appOptions(adUnitRequest.getAppId()));
             model.addAttribute("originalAppId", originalAppId);
             return "admin/ad-units/form";
         }
@@ -331,4 +344,16 @@ public class AdUnitAdminController {
             return "redirect:/admin/ad-units";
         }
     }
+    
+    /**
+     * 应用下拉选项：取第一页应用投影，并确保包含当前选中的应用
+     */
+    private List<AppSummary> appOptions(String selectedAppId) {
+        List<AppSummary> apps = new ArrayList<>(appService.listApps(null, null, KeysetPage.MAX_SIZE).getItems());
+        if (selectedAppId != null && !selectedAppId.isEmpty()
+                && apps.stream().noneMatch(app -> selectedAppId.equals(app.getId()))) {
+            apps.addAll(appService.getAppSummaries(Collections.singletonList(selectedAppId)));
+        }
+        return apps;
+    }
 } 
\ No newline at end of file
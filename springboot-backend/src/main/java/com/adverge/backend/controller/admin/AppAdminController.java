@@ -1,6 +1,8 @@
 package com.adverge.backend.controller.admin;
 
-import com.adverge.backend.model.AdUnit;
+import com.adverge.backend.dto.AdUnitSummary;
+import com.adverge.backend.dto.AppSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.App;
 import com.adverge.backend.service.AdUnitService;
 import com.adverge.backend.service.AppService;
@@ -14,7 +16,6 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
 import java.util.Collections;
-import java.util.List;
 
 /**
  * 应用管理界面控制器
@@ -33,9 +34,16 @@ public class AppAdminController {
      * 应用列表页面
      */
     @GetMapping
-    public String appList(Model model) {
-        List<App> apps = appService.getAllApps();
-        model.addAttribute("apps", apps);
+    public String appList(
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size,
+            Model model) {
+        KeysetPage<AppSummary> page = appService.listApps(platform, after, size);
+        model.addAttribute("apps", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("platform", platform);
+        model.addAttribute("size", size);
         return "admin/apps/list";
     }
 
@@ -190,6 +198,8 @@ public class AppAdminController {
     @GetMapping("/view/{id}")
     public String viewApp(
             @PathVariable String id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size,
             Model model,
             RedirectAttributes redirectAttributes) {
         
@@ -199,12 +209,11 @@ public class AppAdminController {
             
             model.addAttribute("app", app);
             
-            // 获取应用关联的广告位
-            List<AdUnit> adUnits = Collections.emptyList();
-            if (app.getAdUnitIds() != null && !app.getAdUnitIds().isEmpty()) {
-                adUnits = adUnitService.getAdUnitsByIds(app.getAdUnitIds());
-            }
-            model.addAttribute("adUnits", adUnits);
+            // 分页获取应用关联的广告位
+            KeysetPage<AdUnitSummary> adUnitPage = adUnitService.listAdUnits(id, after, size);
+            model.addAttribute("adUnits", adUnitPage.getItems());
+            model.addAttribute("nextCursor", adUnitPage.getNextCursor());
+            model.addAttribute("size", size);
             
             return "admin/apps/view";
         } catch (Exception e) {
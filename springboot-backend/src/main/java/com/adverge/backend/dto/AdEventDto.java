@@ -56,11 +56,36 @@ public class AdEventDto {
      */
     private AdRequest.DeviceInfo deviceInfo;
     
+    /**
+     * 设备标识（广告ID或SDK生成的设备ID），为空时取 deviceInfo.deviceId
+     */
+    private String deviceId;
+    
+    /**
+     * 应用内的用户标识
+     */
+    private String userId;
+    
+    /**
+     * 国家代码
+     */
+    private String country;
+    
     /**
      * 事件相关数据
      */
     private Object data;
     
+    /**
+     * 事件的设备标识，未设置 deviceId 时取 deviceInfo.deviceId
+     */
+    public String resolveDeviceId() {
+        if (deviceId != null && !deviceId.isEmpty()) {
+            return deviceId;
+        }
+        return deviceInfo == null ? null : deviceInfo.getDeviceId();
+    }
+    
     /**
      * 事件类型枚举
      */
@@ -76,6 +76,10 @@ public class AdRequest {
     
     @Data
     public static class DeviceInfo {
+        /**
+         * 设备标识（广告ID或SDK生成的设备ID）
+         */
+        private String deviceId;
         private String type;
         private String os;
         private String osVersion;
@@ -0,0 +1,52 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 广告位列表投影
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdUnitSummary {
+
+    /**
+     * 广告位ID
+     */
+    private String id;
+
+    /**
+     * 广告位名称
+     */
+    private String name;
+
+    /**
+     * 关联的应用ID
+     */
+    private String appId;
+
+    /**
+     * 广告类型
+     */
+    private String type;
+
+    /**
+     * 是否启用
+     */
+    private boolean active;
+
+    /**
+     * 最低出价
+     */
+    private BigDecimal floorPrice;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+} 
\ No newline at end of file
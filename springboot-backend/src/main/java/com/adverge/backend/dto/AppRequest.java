@@ -23,4 +23,16 @@ public class AppRequest {
     private String icon;
     
     private boolean active = true;
+    
+    /**
+     * 竞价请求限流（次/秒），为空时使用全局默认值
+     */
+    private Double rateLimit;
+    
+    private Integer rateLimitBurst;
+    
+    /**
+     * 每个广告位的竞价请求限流（次/秒），为空时使用全局默认值
+     */
+    private Double adUnitRateLimit;
 } 
\ No newline at end of file
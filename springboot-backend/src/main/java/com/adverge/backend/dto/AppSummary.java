@@ -0,0 +1,46 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 应用列表投影，不加载广告位ID集合
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppSummary {
+
+    /**
+     * 应用ID
+     */
+    private String id;
+
+    /**
+     * 应用名称
+     */
+    private String name;
+
+    /**
+     * 应用包名
+     */
+    private String packageName;
+
+    /**
+     * 应用平台
+     */
+    private String platform;
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+} 
\ No newline at end of file
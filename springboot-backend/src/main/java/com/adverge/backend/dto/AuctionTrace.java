@@ -0,0 +1,88 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 单次竞价的采样追踪记录
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuctionTrace {
+    /**
+     * 写入环形缓冲区时的序号
+     */
+    private long sequence;
+
+    /**
+     * 请求ID，请求未携带时自动生成
+     */
+    private String requestId;
+
+    private String adUnitId;
+
+    private String appId;
+
+    /**
+     * 竞价开始时间
+     */
+    private Date startedAt;
+
+    /**
+     * 竞价总耗时（毫秒）
+     */
+    private double durationMs;
+
+    /**
+     * 底价
+     */
+    private BigDecimal floorPrice;
+
+    /**
+     * 胜出平台，未填充时为空
+     */
+    private String winner;
+
+    private Double winningPrice;
+
+    /**
+     * 各平台的调用情况
+     */
+    private List<NetworkCall> networks;
+
+    /**
+     * 单个平台的调用情况
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NetworkCall {
+        private String network;
+
+        /**
+         * bid、no_bid、timeout、error；竞价结束时仍未返回为 pending
+         */
+        private String outcome;
+
+        /**
+         * 请求耗时（毫秒），未返回时为空
+         */
+        private Double latencyMs;
+
+        private Double price;
+
+        /**
+         * 出价是否因低于底价被过滤
+         */
+        private boolean filteredByFloor;
+    }
+} 
\ No newline at end of file
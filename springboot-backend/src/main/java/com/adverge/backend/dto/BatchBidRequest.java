@@ -0,0 +1,24 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 多广告位批量竞价请求
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBidRequest {
+
+    /**
+     * 各广告位的竞价请求，同一广告位可以出现多次
+     */
+    @NotEmpty(message = "竞价请求不能为空")
+    private List<@Valid AdRequest> requests;
+} 
\ No newline at end of file
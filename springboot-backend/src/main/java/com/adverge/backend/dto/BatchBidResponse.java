@@ -0,0 +1,21 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 多广告位批量竞价结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBidResponse {
+
+    /**
+     * 与请求顺序一致的胜出竞价，无填充的位置为null
+     */
+    private List<BidResponse> bids;
+} 
\ No newline at end of file
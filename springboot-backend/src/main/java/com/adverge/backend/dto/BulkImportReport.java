@@ -0,0 +1,78 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 一次批量导入的结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportReport {
+
+    /**
+     * 导入的对象：apps 或 ad-units
+     */
+    private String entity;
+
+    /**
+     * 是否只校验、未写入
+     */
+    private boolean dryRun;
+
+    private long durationMillis;
+
+    /**
+     * 读取的数据行数（不含CSV的列名行）
+     */
+    private int rows;
+
+    /**
+     * 写入（dryRun 时为校验通过）的行数
+     */
+    private int imported;
+
+    /**
+     * 校验或写入失败的行数
+     */
+    private int failed;
+
+    /**
+     * 输入格式错误时读取在该处中止，之前的行已处理
+     */
+    private boolean aborted;
+
+    /**
+     * 失败行的明细，最多 ad.bulk.max-errors 条
+     */
+    private List<RowError> errors;
+
+    /**
+     * 失败行多于记录上限，errors 不完整
+     */
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * 数据行号，从1开始，不含CSV的列名行
+         */
+        private int row;
+
+        /**
+         * 出错的字段，整行的错误为空
+         */
+        private String field;
+
+        private String message;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 事件立方体查询
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CubeQuery {
+
+    /**
+     * 分组维度：platform、adUnit、app、country、os、eventType、hour，为空时只返回总计
+     */
+    private List<String> groupBy;
+
+    /**
+     * 过滤条件，维度 → 允许的取值；hour 用 from/to 过滤
+     */
+    private Map<String, List<String>> filters;
+
+    /**
+     * 开始时间（含），按小时向下取整
+     */
+    private Date from;
+
+    /**
+     * 结束时间（不含）
+     */
+    private Date to;
+
+    /**
+     * 排序：events（默认）或 revenue 降序，分组维度名则按该维度升序
+     */
+    private String orderBy;
+
+    /**
+     * 最多返回的分组数，默认1000
+     */
+    private Integer limit;
+} 
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 事件立方体查询结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CubeResult {
+
+    private List<String> groupBy;
+
+    /**
+     * 每个分组的维度取值与 events、revenue
+     */
+    private List<Map<String, Object>> rows;
+
+    /**
+     * 满足过滤条件的分组总数，可能大于返回的行数
+     */
+    private int groups;
+
+    private long totalEvents;
+
+    private double totalRevenue;
+
+    /**
+     * 扫描的段数与行数（按时间范围裁剪后）
+     */
+    private int scannedSegments;
+
+    private long scannedRows;
+
+    private double tookMillis;
+} 
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 基于游标（按ID递增）的分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    /**
+     * 当前页数据
+     */
+    private List<T> items;
+
+    /**
+     * 下一页游标（当前页最后一条记录的ID），没有更多数据时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 规范化每页条数
+     */
+    public static int normalizeSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * 规范化游标，首页使用空字符串（小于任何ID）
+     */
+    public static String normalizeCursor(String afterId) {
+        return afterId == null ? "" : afterId;
+    }
+
+    /**
+     * 从多查询一条的结果构造分页，多出的一条只用于判断是否还有下一页
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, String> idGetter) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, size));
+        return new KeysetPage<>(items, idGetter.apply(items.get(size - 1)));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 一次从 Metrics 向 metric_events 补写历史事件的结果，只在补写完成后返回；此前已完成时 batches 为0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricBackfillReport {
+
+    private Date startedAt;
+
+    private long durationMillis;
+
+    /**
+     * 补写的起始日期，早于该日期的事件已超出 metric_events 的保留期，不补写
+     */
+    private String since;
+
+    /**
+     * 本次执行的批数
+     */
+    private int batches;
+
+    /**
+     * 本次写入 metric_events 的行数，已存在的行不重复写入
+     */
+    private long copied;
+
+    /**
+     * 历次执行累计写入的行数
+     */
+    private long totalCopied;
+} 
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 一次 metric_events 分区维护的结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricPartitionReport {
+
+    private Date startedAt;
+
+    private long durationMillis;
+
+    /**
+     * 本次是否把未分区的表转换为按天分区
+     */
+    private boolean converted;
+
+    /**
+     * 新建的日分区
+     */
+    private List<String> created;
+
+    /**
+     * 过期删除的日分区
+     */
+    private List<String> dropped;
+
+    /**
+     * 删除前交换到的归档表，expire-mode 为 drop 时为空
+     */
+    private List<String> archivedTables;
+
+    /**
+     * 维护后的日分区数（不含 pmax）
+     */
+    private int partitions;
+
+    /**
+     * 最早与最晚的日分区
+     */
+    private String oldestPartition;
+
+    private String newestPartition;
+} 
\ No newline at end of file
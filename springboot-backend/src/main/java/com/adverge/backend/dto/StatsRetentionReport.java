@@ -0,0 +1,63 @@
+package com.adverge.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 一次Redis统计键压缩的结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsRetentionReport {
+    /**
+     * 执行压缩的节点
+     */
+    private String node;
+
+    private Date startedAt;
+
+    private long durationMillis;
+
+    /**
+     * 早于该日期（不含）的按天统计键被压缩
+     */
+    private String cutoffDate;
+
+    /**
+     * SCAN 遍历到的统计键数
+     */
+    private long scannedKeys;
+
+    /**
+     * 合并进月度哈希并删除的按天统计键数
+     */
+    private long compactedKeys;
+
+    /**
+     * 写入的月度哈希数
+     */
+    private int monthlyHashes;
+
+    /**
+     * 压缩前后 Redis 的 used_memory（字节），期间其他写入也会计入
+     */
+    private long usedMemoryBefore;
+
+    private long usedMemoryAfter;
+
+    /**
+     * 释放的内存（字节），即 usedMemoryBefore - usedMemoryAfter
+     */
+    private long reclaimedBytes;
+
+    /**
+     * 租约中途丢失、提前结束时为false
+     */
+    private boolean completed;
+} 
\ No newline at end of file
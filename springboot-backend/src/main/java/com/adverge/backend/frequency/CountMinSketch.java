@@ -0,0 +1,130 @@
+package com.adverge.backend.frequency;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 定长的 count-min sketch
+ * <p>
+ * depth 行、每行 width 个32位计数器，按行连续存放。键的64位哈希拆成两个32位哈希，
+ * 第 r 行的位置为 (h1 + r × h2) mod width。估计值不小于真实值；以 1-δ 的概率（δ = e^-depth）
+ * 高估不超过 (e / width) × 累加总数。计数器用 AtomicIntegerArray 保存，多线程累加无需加锁。
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicIntegerArray cells;
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.cells = new AtomicIntegerArray(depth * width);
+    }
+
+    public void add(long hash, int delta) {
+        for (int row = 0; row < depth; row++) {
+            cells.addAndGet(index(hash, row), delta);
+        }
+    }
+
+    /**
+     * 保守更新：只把各行中小于 估计值+delta 的计数器提高到 估计值+delta。
+     * 估计值仍不小于真实值，但与其他键共享的计数器增长更慢，高估远小于普通累加
+     */
+    public void addConservative(long hash, int delta) {
+        int target = estimate(hash) + delta;
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            int value;
+            while ((value = cells.get(index)) < target && !cells.compareAndSet(index, value, target)) {
+                // 并发更新时重试
+            }
+        }
+    }
+
+    public int estimate(long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, cells.get(index(hash, row)));
+        }
+        return min;
+    }
+
+    /**
+     * 多个相同尺寸的 sketch（例如连续的时间桶）之和的估计值：逐行求和后取最小，仍然不小于真实值
+     */
+    public static int estimate(List<CountMinSketch> sketches, long hash) {
+        if (sketches.isEmpty()) {
+            return 0;
+        }
+        CountMinSketch first = sketches.get(0);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < first.depth; row++) {
+            int index = first.index(hash, row);
+            long sum = 0;
+            for (CountMinSketch sketch : sketches) {
+                sum += sketch.cells.get(index);
+            }
+            min = Math.min(min, sum);
+        }
+        return (int) Math.min(min, Integer.MAX_VALUE);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * 计数器总数，即 depth × width
+     */
+    public int size() {
+        return cells.length();
+    }
+
+    public int get(int index) {
+        return cells.get(index);
+    }
+
+    public void set(int index, int value) {
+        cells.set(index, value);
+    }
+
+    public void addAt(int index, int delta) {
+        cells.addAndGet(index, delta);
+    }
+
+    /**
+     * 取出并清零一个计数器
+     */
+    public int drain(int index) {
+        return cells.get(index) == 0 ? 0 : cells.getAndSet(index, 0);
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+
+    /**
+     * 字符串的64位哈希（FNV-1a 后接 MurmurHash3 的 fmix64），供计算 sketch 位置
+     */
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+} 
\ No newline at end of file
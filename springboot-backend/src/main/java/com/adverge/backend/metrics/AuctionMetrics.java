@@ -0,0 +1,156 @@
+package com.adverge.backend.metrics;
+
+import com.adverge.backend.service.AdNetworkService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 竞价链路指标
+ * <p>
+ * 所有指标在启动时按已注册的广告平台和固定的阶段枚举预先创建，标签取值有限；
+ * 请求路径上只做Map查找和计数，不会按调用创建Meter或标签。
+ * <ul>
+ *     <li>ad.network.latency：各平台竞价请求耗时（network）</li>
+ *     <li>ad.network.requests：各平台竞价结果计数（network, outcome=bid|no_bid|timeout|error），
+ *     无填充率、错误率由同一指标按 outcome 求比例得到</li>
+ *     <li>ad.network.bid.price：各平台出价分布（network）</li>
+ *     <li>ad.auction.stage：getAd/bid 各阶段耗时（stage）</li>
+ * </ul>
+ */
+@Component
+public class AuctionMetrics {
+
+    /**
+     * 竞价流程的阶段
+     */
+    public enum Stage {
+        CACHE_LOOKUP("cache_lookup"),
+        AD_UNIT_LOOKUP("ad_unit_lookup"),
+        FAN_OUT("fan_out"),
+        SELECTION("selection"),
+        WIN_NOTIFICATION("win_notification"),
+        EVENT_LOGGING("event_logging");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * 单个平台的一次竞价结果
+     */
+    public enum Outcome {
+        BID("bid"),
+        NO_BID("no_bid"),
+        TIMEOUT("timeout"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    /**
+     * 未注册平台的统一标签值，防止任意名称进入标签
+     */
+    private static final String OTHER_NETWORK = "other";
+
+    private final Map<String, NetworkMeters> networks;
+    private final NetworkMeters otherNetwork;
+    private final Map<Stage, Timer> stages;
+
+    public AuctionMetrics(MeterRegistry registry, List<AdNetworkService> adNetworks) {
+        Map<String, NetworkMeters> meters = new HashMap<>();
+        for (AdNetworkService network : adNetworks) {
+            meters.put(network.getPlatformName(), new NetworkMeters(registry, network.getPlatformName()));
+        }
+        this.networks = Collections.unmodifiableMap(meters);
+        this.otherNetwork = new NetworkMeters(registry, OTHER_NETWORK);
+
+        Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("ad.auction.stage")
+                    .description("竞价流程各阶段耗时")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry));
+        }
+        this.stages = stageTimers;
+    }
+
+    /**
+     * 记录阶段耗时
+     *
+     * @param stage 阶段
+     * @param startNanos 阶段开始时的 System.nanoTime()
+     */
+    public void recordStage(Stage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录单个平台的竞价结果
+     *
+     * @param network 平台名称
+     * @param outcome 结果
+     * @param elapsedNanos 请求耗时
+     * @param price 出价，仅在 outcome 为 BID 时记录
+     */
+    public void recordNetwork(String network, Outcome outcome, long elapsedNanos, Double price) {
+        NetworkMeters meters = network == null ? otherNetwork : networks.getOrDefault(network, otherNetwork);
+        meters.latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meters.outcomes.get(outcome).increment();
+        if (outcome == Outcome.BID && price != null) {
+            meters.price.record(price);
+        }
+    }
+
+    private static final class NetworkMeters {
+        private final Timer latency;
+        private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+        private final DistributionSummary price;
+
+        private NetworkMeters(MeterRegistry registry, String network) {
+            this.latency = Timer.builder("ad.network.latency")
+                    .description("广告平台竞价请求耗时")
+                    .tag("network", network)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, Counter.builder("ad.network.requests")
+                        .description("广告平台竞价结果")
+                        .tag("network", network)
+                        .tag("outcome", outcome.tag)
+                        .register(registry));
+            }
+            this.price = DistributionSummary.builder("ad.network.bid.price")
+                    .description("广告平台出价分布")
+                    .tag("network", network)
+                    .serviceLevelObjectives(0.1, 0.25, 0.5, 1, 2, 3, 5, 10, 20)
+                    .register(registry);
+        }
+    }
+} 
\ No newline at end of file
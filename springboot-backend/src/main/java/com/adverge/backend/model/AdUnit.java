@@ -8,6 +8,9 @@ import javax.persistence.GenerationType;
 import javax.persistence.Column;
 import javax.persistence.JoinColumn;
 import javax.persistence.ForeignKey;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -16,6 +19,8 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
+@Table(indexes = @Index(name = "idx_ad_unit_app_id", columnList = "appId"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_ad_unit_app_name", columnNames = {"appId", "name"}))
 public class AdUnit {
     
     @Id
@@ -2,6 +2,7 @@ package com.adverge.backend.model;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
@@ -9,6 +10,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.ElementCollection;
 import javax.persistence.Column;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,6 +23,7 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_app_platform", columnList = "platform"))
 public class App {
     
     @Id
@@ -55,9 +59,10 @@ public class App {
     private String apiKey;
     
     /**
-     * 应用关联的广告单元列表
+     * 应用关联的广告单元列表，批量加载多个应用时按批查询，避免每个应用一条SQL
      */
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     private List<String> adUnitIds = new ArrayList<>();
     
     /**
@@ -75,6 +80,21 @@ public class App {
      */
     private boolean enabled = true;
     
+    /**
+     * 应用的竞价请求限流（次/秒），为空时使用全局默认值，0表示不限流
+     */
+    private Double rateLimit;
+    
+    /**
+     * 限流桶容量（允许的突发请求数），为空时按速率的2秒计算
+     */
+    private Integer rateLimitBurst;
+    
+    /**
+     * 应用下每个广告位的竞价请求限流（次/秒），为空时使用全局默认值，0表示不限流
+     */
+    private Double adUnitRateLimit;
+    
     /**
      * 生成API密钥
      */
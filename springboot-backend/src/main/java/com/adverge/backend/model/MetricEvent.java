@@ -0,0 +1,69 @@
+package com.adverge.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 事件粒度的指标记录，每个广告事件一行，只追加不更新
+ * <p>
+ * 表按 timestamp 的日期做 RANGE 分区（见 {@link com.adverge.backend.service.MetricPartitionService}），
+ * MySQL 要求分区列包含在每个唯一键中，因此主键为 (id, timestamp)。按广告累计的计数仍在 {@link Metrics} 中。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(MetricEvent.Key.class)
+@Table(name = "metric_events", indexes = {
+    @Index(name = "idx_metric_events_platform_timestamp", columnList = "platform,timestamp"),
+    @Index(name = "idx_metric_events_placement_timestamp", columnList = "placementId,timestamp")
+})
+public class MetricEvent {
+
+    @Id
+    private String id;
+
+    @Id
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date timestamp;
+
+    /**
+     * 事件类型，见 {@link com.adverge.backend.dto.AdEventDto.EventType}
+     */
+    @Column(length = 16)
+    private String eventType;
+
+    private String appId;
+
+    private String placementId;
+
+    private String platform;
+
+    private Double price;
+
+    /**
+     * 复合主键
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String id;
+        private Date timestamp;
+    }
+} 
\ No newline at end of file
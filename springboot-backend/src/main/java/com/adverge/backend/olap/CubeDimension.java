@@ -0,0 +1,51 @@
+package com.adverge.backend.olap;
+
+/**
+ * 事件立方体的维度
+ * <p>
+ * 每个维度的字典编码宽度固定，字典满后新出现的取值归入 other。小时不是列，每个段只保存同一小时的事件。
+ */
+public enum CubeDimension {
+    PLATFORM("platform", 1 << 8),
+    AD_UNIT("adUnit", 1 << 24),
+    APP("app", 1 << 16),
+    COUNTRY("country", 1 << 16),
+    OS("os", 1 << 8),
+    EVENT_TYPE("eventType", 1 << 8),
+    HOUR("hour", 0);
+
+    private final String field;
+    private final int maxCardinality;
+
+    CubeDimension(String field, int maxCardinality) {
+        this.field = field;
+        this.maxCardinality = maxCardinality;
+    }
+
+    /**
+     * 查询与结果中使用的字段名
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * 字典的容量，由列的编码宽度决定
+     */
+    int getMaxCardinality() {
+        return maxCardinality;
+    }
+
+    /**
+     * 按字段名查找维度
+     * @throws IllegalArgumentException 字段名不存在
+     */
+    public static CubeDimension of(String field) {
+        for (CubeDimension dimension : values()) {
+            if (dimension.field.equalsIgnoreCase(field)) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("未知的维度: " + field);
+    }
+} 
\ No newline at end of file
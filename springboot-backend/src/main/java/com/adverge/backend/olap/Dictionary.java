@@ -0,0 +1,77 @@
+package com.adverge.backend.olap;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 维度取值的字典编码
+ * <p>
+ * 只有写入线程调用 {@link #encode}，查询线程可并发读取：新的取值先写入数组再更新 size，
+ * 读到的 size 以内的编码都已可解码。
+ */
+final class Dictionary {
+
+    static final int UNKNOWN = 0;
+    static final int OTHER = 1;
+
+    private final int maxSize;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private volatile int size;
+
+    Dictionary(int maxSize) {
+        this.maxSize = maxSize;
+        values[UNKNOWN] = "unknown";
+        values[OTHER] = "other";
+        size = 2;
+    }
+
+    /**
+     * 取值的编码，新的取值分配编码；空值为 unknown，字典已满时为 other
+     */
+    int encode(String value) {
+        if (value == null || value.isEmpty()) {
+            return UNKNOWN;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int next = size;
+        if (next >= maxSize) {
+            return OTHER;
+        }
+        String[] array = values;
+        if (next >= array.length) {
+            array = Arrays.copyOf(array, Math.min(array.length * 2, maxSize));
+        }
+        array[next] = value;
+        values = array;
+        codes.put(value, next);
+        size = next + 1;
+        return next;
+    }
+
+    /**
+     * 已有取值的编码，不存在时返回-1
+     */
+    int lookup(String value) {
+        if (value == null || value.isEmpty() || "unknown".equals(value)) {
+            return UNKNOWN;
+        }
+        if ("other".equals(value)) {
+            return OTHER;
+        }
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return size;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,473 @@
+package com.adverge.backend.olap;
+
+import com.adverge.backend.dto.CubeQuery;
+import com.adverge.backend.dto.CubeResult;
+import org.springframework.util.CollectionUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 内存中的列式事件立方体
+ * <p>
+ * 事件按小时分段，每段最多 {@link Segment#CAPACITY} 行，各维度以字典编码存放在定宽的基本类型数组中，
+ * 每行 {@value Segment#ROW_BYTES} 字节。查询先按时间范围裁剪段，再把各段分给 fork-join 池并行扫描，
+ * 每个任务把过滤后的行按分组键累加到 {@link GroupAccumulator}，最后合并。
+ * <p>
+ * {@link #append} 与 {@link #evictBefore} 只能由同一个写入线程调用；{@link #query} 可由任意线程并发调用，
+ * 只读取调用时已写完的行。
+ */
+public class EventCube implements AutoCloseable {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final int DEFAULT_LIMIT = 1000;
+    private static final int MAX_LIMIT = 100_000;
+
+    /**
+     * 列维度（不含小时）
+     */
+    private static final CubeDimension[] COLUMNS = {
+            CubeDimension.PLATFORM, CubeDimension.AD_UNIT, CubeDimension.APP,
+            CubeDimension.COUNTRY, CubeDimension.OS, CubeDimension.EVENT_TYPE
+    };
+
+    private final Map<CubeDimension, Dictionary> dictionaries = new EnumMap<>(CubeDimension.class);
+    private final Map<Long, Segment> openSegments = new HashMap<>();
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long maxRows;
+
+    private volatile Segment[] segments = new Segment[0];
+
+    /**
+     * @param parallelism 查询的并行度
+     * @param maxRows 最多保存的行数，超过时丢弃最早一小时的段
+     */
+    public EventCube(int parallelism, long maxRows) {
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRows = Math.max(Segment.CAPACITY, maxRows);
+        for (CubeDimension dimension : COLUMNS) {
+            dictionaries.put(dimension, new Dictionary(dimension.getMaxCardinality()));
+        }
+        this.pool = new ForkJoinPool(this.parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("event-cube-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 追加一个事件，只能由写入线程调用
+     */
+    public void append(long timeMillis, String eventType, String platform, String adUnit, String app,
+                       String country, String os, double price) {
+        long hour = Math.floorDiv(timeMillis, HOUR_MILLIS);
+        Segment segment = openSegments.get(hour);
+        if (segment == null || segment.isFull()) {
+            segment = new Segment(hour);
+            openSegments.put(hour, segment);
+            publish(segment);
+        }
+        segment.append(
+                dictionaries.get(CubeDimension.PLATFORM).encode(platform),
+                dictionaries.get(CubeDimension.AD_UNIT).encode(adUnit),
+                dictionaries.get(CubeDimension.APP).encode(app),
+                dictionaries.get(CubeDimension.COUNTRY).encode(country),
+                dictionaries.get(CubeDimension.OS).encode(os),
+                dictionaries.get(CubeDimension.EVENT_TYPE).encode(eventType),
+                (float) price);
+    }
+
+    /**
+     * 丢弃早于指定时间所在小时的段，只能由写入线程调用
+     * @return 丢弃的段数
+     */
+    public int evictBefore(long timeMillis) {
+        long hour = Math.floorDiv(timeMillis, HOUR_MILLIS);
+        Segment[] current = segments;
+        Segment[] kept = Arrays.stream(current).filter(s -> s.hour >= hour).toArray(Segment[]::new);
+        if (kept.length == current.length) {
+            return 0;
+        }
+        segments = kept;
+        openSegments.keySet().removeIf(h -> h < hour);
+        return current.length - kept.length;
+    }
+
+    private void publish(Segment segment) {
+        Segment[] current = segments;
+        Segment[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = segment;
+        // 按容量计算行数上限，超出时丢弃最早一小时的段
+        while ((long) next.length * Segment.CAPACITY > maxRows && next.length > 1) {
+            long oldest = Arrays.stream(next).mapToLong(s -> s.hour).min().orElse(segment.hour);
+            if (oldest == segment.hour) {
+                break;
+            }
+            next = Arrays.stream(next).filter(s -> s.hour != oldest).toArray(Segment[]::new);
+            openSegments.remove(oldest);
+        }
+        segments = next;
+    }
+
+    public CubeResult query(CubeQuery query) {
+        long start = System.nanoTime();
+        List<CubeDimension> groupBy = new ArrayList<>();
+        if (query.getGroupBy() != null) {
+            for (String field : new LinkedHashSet<>(query.getGroupBy())) {
+                groupBy.add(CubeDimension.of(field));
+            }
+        }
+        long fromHour = query.getFrom() == null ? Long.MIN_VALUE : Math.floorDiv(query.getFrom().getTime(), HOUR_MILLIS);
+        long toHour = query.getTo() == null ? Long.MAX_VALUE : Math.floorDiv(query.getTo().getTime() - 1, HOUR_MILLIS);
+
+        // 先确定各段的行数，再读字典大小，保证扫描到的编码都在字典内
+        List<Segment> selected = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        long minHour = Long.MAX_VALUE;
+        long maxHour = Long.MIN_VALUE;
+        long scannedRows = 0;
+        for (Segment segment : segments) {
+            int size = segment.size();
+            if (segment.hour < fromHour || segment.hour > toHour || size == 0) {
+                continue;
+            }
+            selected.add(segment);
+            sizes.add(size);
+            scannedRows += size;
+            minHour = Math.min(minHour, segment.hour);
+            maxHour = Math.max(maxHour, segment.hour);
+        }
+
+        Scan scan = new Scan();
+        boolean empty = selected.isEmpty();
+        if (!CollectionUtils.isEmpty(query.getFilters())) {
+            for (Map.Entry<String, List<String>> filter : query.getFilters().entrySet()) {
+                CubeDimension dimension = CubeDimension.of(filter.getKey());
+                if (dimension == CubeDimension.HOUR) {
+                    throw new IllegalArgumentException("按小时过滤请使用 from/to");
+                }
+                Dictionary dictionary = dictionaries.get(dimension);
+                long[] drop = new long[dictionary.size()];
+                Arrays.fill(drop, Long.MIN_VALUE);
+                boolean any = false;
+                for (String value : filter.getValue() == null ? List.<String>of() : filter.getValue()) {
+                    int code = dictionary.lookup(value);
+                    if (code >= 0 && code < drop.length) {
+                        drop[code] = 0;
+                        any = true;
+                    }
+                }
+                empty |= !any;
+                scan.filters[dimension.ordinal()] = drop;
+            }
+        }
+
+        long[] cardinalities = new long[CubeDimension.values().length];
+        long keySpace = 1;
+        for (CubeDimension dimension : groupBy) {
+            long cardinality = dimension == CubeDimension.HOUR
+                    ? (empty ? 1 : maxHour - minHour + 1)
+                    : dictionaries.get(dimension).size();
+            cardinalities[dimension.ordinal()] = cardinality;
+            scan.multipliers[dimension.ordinal()] = keySpace;
+            try {
+                keySpace = Math.multiplyExact(keySpace, cardinality);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("分组维度的组合过多: " + query.getGroupBy());
+            }
+        }
+        scan.minHour = minHour;
+        scan.keySpace = keySpace;
+        for (CubeDimension dimension : COLUMNS) {
+            scan.columnsUsed |= scan.filters[dimension.ordinal()] != null || scan.multipliers[dimension.ordinal()] != 0;
+        }
+
+        GroupAccumulator total = empty ? GroupAccumulator.create(1)
+                : pool.invoke(new ScanTask(scan, selected.toArray(new Segment[0]),
+                sizes.stream().mapToInt(Integer::intValue).toArray(), 0, selected.size(),
+                Math.max(1, selected.size() / (parallelism * 4))));
+
+        // 分组结果先收集到基本类型数组，只为返回的前 limit 个分组生成行
+        long[][] keys = {new long[1024]};
+        long[][] counts = {new long[1024]};
+        double[][] sums = {new double[1024]};
+        int[] groups = new int[1];
+        long[] totalEvents = new long[1];
+        double[] totalRevenue = new double[1];
+        total.forEach((key, events, revenue) -> {
+            int index = groups[0]++;
+            if (index == keys[0].length) {
+                keys[0] = Arrays.copyOf(keys[0], index * 2);
+                counts[0] = Arrays.copyOf(counts[0], index * 2);
+                sums[0] = Arrays.copyOf(sums[0], index * 2);
+            }
+            keys[0][index] = key;
+            counts[0][index] = events;
+            sums[0][index] = revenue;
+            totalEvents[0] += events;
+            totalRevenue[0] += revenue;
+        });
+
+        long decodeMinHour = minHour;
+        GroupDecoder decoder = (dimension, key) -> {
+            long code = key / scan.multipliers[dimension.ordinal()] % cardinalities[dimension.ordinal()];
+            return dimension == CubeDimension.HOUR
+                    ? Instant.ofEpochMilli((decodeMinHour + code) * HOUR_MILLIS).toString()
+                    : dictionaries.get(dimension).decode((int) code);
+        };
+        int limit = query.getLimit() == null ? DEFAULT_LIMIT : Math.max(1, Math.min(query.getLimit(), MAX_LIMIT));
+        int[] order = order(query.getOrderBy(), groupBy, decoder, keys[0], counts[0], sums[0], groups[0], limit);
+
+        List<Map<String, Object>> rows = new ArrayList<>(order.length);
+        for (int index : order) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (CubeDimension dimension : groupBy) {
+                row.put(dimension.getField(), decoder.decode(dimension, keys[0][index]));
+            }
+            row.put("events", counts[0][index]);
+            row.put("revenue", sums[0][index]);
+            rows.add(row);
+        }
+
+        List<String> fields = new ArrayList<>(groupBy.size());
+        groupBy.forEach(dimension -> fields.add(dimension.getField()));
+        return CubeResult.builder()
+                .groupBy(fields)
+                .rows(rows)
+                .groups(groups[0])
+                .totalEvents(totalEvents[0])
+                .totalRevenue(totalRevenue[0])
+                .scannedSegments(selected.size())
+                .scannedRows(scannedRows)
+                .tookMillis((System.nanoTime() - start) / 1e6)
+                .build();
+    }
+
+    /**
+     * 返回的分组下标：按事件数或收益排序时用大小为 limit 的堆选出前几个，按维度排序时全部排序
+     */
+    private static int[] order(String orderBy, List<CubeDimension> groupBy, GroupDecoder decoder,
+                               long[] keys, long[] counts, double[] sums, int groups, int limit) {
+        Comparator<Integer> comparator;
+        if ("revenue".equalsIgnoreCase(orderBy)) {
+            comparator = Comparator.comparingDouble(index -> sums[index]);
+        } else if (orderBy == null || "events".equalsIgnoreCase(orderBy)) {
+            comparator = Comparator.comparingLong(index -> counts[index]);
+        } else {
+            CubeDimension dimension = CubeDimension.of(orderBy);
+            if (!groupBy.contains(dimension)) {
+                throw new IllegalArgumentException("排序维度不在分组维度中: " + orderBy);
+            }
+            Integer[] all = new Integer[groups];
+            for (int i = 0; i < groups; i++) {
+                all[i] = i;
+            }
+            Arrays.sort(all, Comparator.comparing(index -> decoder.decode(dimension, keys[index])));
+            return Arrays.stream(all).limit(limit).mapToInt(Integer::intValue).toArray();
+        }
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(groups, limit) + 1, comparator);
+        for (int i = 0; i < groups; i++) {
+            if (top.size() < limit) {
+                top.add(i);
+            } else if (comparator.compare(i, top.peek()) > 0) {
+                top.poll();
+                top.add(i);
+            }
+        }
+        int[] order = new int[top.size()];
+        for (int i = order.length - 1; i >= 0; i--) {
+            order[i] = top.poll();
+        }
+        return order;
+    }
+
+    @FunctionalInterface
+    private interface GroupDecoder {
+        String decode(CubeDimension dimension, long key);
+    }
+
+    /**
+     * 已保存的行数
+     */
+    public long rows() {
+        long rows = 0;
+        for (Segment segment : segments) {
+            rows += segment.size();
+        }
+        return rows;
+    }
+
+    /**
+     * 段数组占用的内存
+     */
+    public long memoryBytes() {
+        return (long) segments.length * Segment.CAPACITY * Segment.ROW_BYTES;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * 一次查询的过滤条件与分组键的各维度乘数，按维度序号存放；过滤条件为每个编码的 drop 值，保留为0，过滤掉为符号位
+     */
+    private static final class Scan {
+        private final long[][] filters = new long[CubeDimension.values().length][];
+        private final long[] multipliers = new long[CubeDimension.values().length];
+        private long minHour;
+        private long keySpace;
+
+        /**
+         * 是否有列参与过滤或分组，没有时每段只需累加收益列
+         */
+        private boolean columnsUsed;
+    }
+
+    private static final class ScanTask extends RecursiveTask<GroupAccumulator> {
+
+        private final Scan scan;
+        private final Segment[] segments;
+        private final int[] sizes;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private long[] rowKeys;
+        private int[] selectedRows;
+
+        private ScanTask(Scan scan, Segment[] segments, int[] sizes, int from, int to, int threshold) {
+            this.scan = scan;
+            this.segments = segments;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected GroupAccumulator compute() {
+            if (to - from <= threshold) {
+                GroupAccumulator accumulator = GroupAccumulator.create(scan.keySpace);
+                for (int i = from; i < to; i++) {
+                    scanSegment(segments[i], sizes[i], accumulator);
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(scan, segments, sizes, from, middle, threshold);
+            ScanTask right = new ScanTask(scan, segments, sizes, middle, to, threshold);
+            left.fork();
+            GroupAccumulator result = right.compute();
+            left.join().mergeInto(result);
+            return result;
+        }
+
+        /**
+         * 逐列处理：每个参与过滤或分组的列单独一趟循环，把编码累加到行的分组键上，被过滤掉的行键置为负数；
+         * 不参与查询的列不读取
+         */
+        private void scanSegment(Segment segment, int size, GroupAccumulator accumulator) {
+            long base = scan.multipliers[CubeDimension.HOUR.ordinal()] * (segment.hour - scan.minHour);
+            float[] price = segment.price;
+            if (!scan.columnsUsed) {
+                double revenue = 0;
+                for (int i = 0; i < size; i++) {
+                    revenue += price[i];
+                }
+                accumulator.add(base, size, revenue);
+                return;
+            }
+            if (rowKeys == null) {
+                rowKeys = new long[Segment.CAPACITY];
+                selectedRows = new int[Segment.CAPACITY];
+            }
+            long[] keys = rowKeys;
+            Arrays.fill(keys, 0, size, base);
+            apply(segment.platform, size, keys, CubeDimension.PLATFORM);
+            apply(segment.os, size, keys, CubeDimension.OS);
+            apply(segment.eventType, size, keys, CubeDimension.EVENT_TYPE);
+            apply(segment.country, size, keys, CubeDimension.COUNTRY);
+            apply(segment.app, size, keys, CubeDimension.APP);
+            apply(segment.adUnit, size, keys, CubeDimension.AD_UNIT);
+            // 先把保留的行号紧凑地收集起来再累加，避免按行判断的分支预测失败
+            int[] rows = selectedRows;
+            int selected = 0;
+            for (int i = 0; i < size; i++) {
+                rows[selected] = i;
+                selected += (int) (~keys[i] >>> 63);
+            }
+            for (int j = 0; j < selected; j++) {
+                int row = rows[j];
+                accumulator.add(keys[row], price[row]);
+            }
+        }
+
+        /**
+         * 把列编码乘以该维度的乘数累加到行键上；过滤掉的编码在 drop 表中为符号位，或上后行键保持为负
+         * （此后累加的编码之和小于 keySpace，不会使其变回非负）
+         */
+        private void apply(byte[] column, int size, long[] keys, CubeDimension dimension) {
+            long[] drop = scan.filters[dimension.ordinal()];
+            long multiplier = scan.multipliers[dimension.ordinal()];
+            if (drop == null) {
+                if (multiplier != 0) {
+                    for (int i = 0; i < size; i++) {
+                        keys[i] += (column[i] & 0xFF) * multiplier;
+                    }
+                }
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                int code = column[i] & 0xFF;
+                keys[i] = (keys[i] + code * multiplier) | drop[code];
+            }
+        }
+
+        private void apply(short[] column, int size, long[] keys, CubeDimension dimension) {
+            long[] drop = scan.filters[dimension.ordinal()];
+            long multiplier = scan.multipliers[dimension.ordinal()];
+            if (drop == null) {
+                if (multiplier != 0) {
+                    for (int i = 0; i < size; i++) {
+                        keys[i] += (column[i] & 0xFFFF) * multiplier;
+                    }
+                }
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                int code = column[i] & 0xFFFF;
+                keys[i] = (keys[i] + code * multiplier) | drop[code];
+            }
+        }
+
+        private void apply(int[] column, int size, long[] keys, CubeDimension dimension) {
+            long[] drop = scan.filters[dimension.ordinal()];
+            long multiplier = scan.multipliers[dimension.ordinal()];
+            if (drop == null) {
+                if (multiplier != 0) {
+                    for (int i = 0; i < size; i++) {
+                        keys[i] += column[i] * multiplier;
+                    }
+                }
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                int code = column[i];
+                keys[i] = (keys[i] + code * multiplier) | drop[code];
+            }
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.adverge.backend.olap;
+
+import java.util.Arrays;
+
+/**
+ * 按分组键累加事件数与收益
+ * <p>
+ * 分组键是各分组维度编码的混合进制组合。键空间不大时用以键为下标的数组，否则用开放寻址的哈希表，
+ * 两种方式都不产生装箱对象。
+ */
+abstract class GroupAccumulator {
+
+    /**
+     * 不超过该键空间时使用数组
+     */
+    static final long DENSE_LIMIT = 1 << 18;
+
+    static GroupAccumulator create(long keySpace) {
+        return keySpace <= DENSE_LIMIT ? new Dense((int) keySpace) : new Hashed();
+    }
+
+    abstract void add(long key, float price);
+
+    abstract void add(long key, long events, double revenue);
+
+    abstract void forEach(GroupConsumer consumer);
+
+    void mergeInto(GroupAccumulator target) {
+        forEach(target::add);
+    }
+
+    @FunctionalInterface
+    interface GroupConsumer {
+        void accept(long key, long events, double revenue);
+    }
+
+    private static final class Dense extends GroupAccumulator {
+        private final long[] events;
+        private final double[] revenue;
+
+        private Dense(int size) {
+            this.events = new long[Math.max(1, size)];
+            this.revenue = new double[Math.max(1, size)];
+        }
+
+        @Override
+        void add(long key, float price) {
+            int index = (int) key;
+            events[index]++;
+            revenue[index] += price;
+        }
+
+        @Override
+        void add(long key, long count, double sum) {
+            int index = (int) key;
+            events[index] += count;
+            revenue[index] += sum;
+        }
+
+        @Override
+        void forEach(GroupConsumer consumer) {
+            for (int i = 0; i < events.length; i++) {
+                if (events[i] != 0) {
+                    consumer.accept(i, events[i], revenue[i]);
+                }
+            }
+        }
+    }
+
+    private static final class Hashed extends GroupAccumulator {
+        private static final long EMPTY = -1L;
+
+        private long[] keys = newKeys(1024);
+        private long[] events = new long[1024];
+        private double[] revenue = new double[1024];
+        private int size;
+
+        @Override
+        void add(long key, float price) {
+            int slot = slot(key);
+            events[slot]++;
+            revenue[slot] += price;
+        }
+
+        @Override
+        void add(long key, long count, double sum) {
+            int slot = slot(key);
+            events[slot] += count;
+            revenue[slot] += sum;
+        }
+
+        @Override
+        void forEach(GroupConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    consumer.accept(keys[i], events[i], revenue[i]);
+                }
+            }
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (true) {
+                long current = keys[slot];
+                if (current == key) {
+                    return slot;
+                }
+                if (current == EMPTY) {
+                    if (size + 1 > keys.length >> 1) {
+                        grow();
+                        return slot(key);
+                    }
+                    keys[slot] = key;
+                    size++;
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldEvents = events;
+            double[] oldRevenue = revenue;
+            keys = newKeys(oldKeys.length * 2);
+            events = new long[oldKeys.length * 2];
+            revenue = new double[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i]);
+                    events[slot] = oldEvents[i];
+                    revenue[slot] = oldRevenue[i];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.adverge.backend.olap;
+
+/**
+ * 同一小时内的一段事件，每个维度一列字典编码，收益一列 float
+ * <p>
+ * 只有写入线程追加，写完一行的各列后再更新 size；查询先读 size，只扫描其中已写完的行。
+ */
+final class Segment {
+
+    static final int CAPACITY = 1 << 16;
+
+    /**
+     * 每行占用的字节数
+     */
+    static final int ROW_BYTES = 1 + 1 + 1 + 2 + 2 + 4 + 4;
+
+    final long hour;
+    final byte[] platform = new byte[CAPACITY];
+    final byte[] os = new byte[CAPACITY];
+    final byte[] eventType = new byte[CAPACITY];
+    final short[] country = new short[CAPACITY];
+    final short[] app = new short[CAPACITY];
+    final int[] adUnit = new int[CAPACITY];
+    final float[] price = new float[CAPACITY];
+
+    private volatile int size;
+
+    Segment(long hour) {
+        this.hour = hour;
+    }
+
+    boolean isFull() {
+        return size >= CAPACITY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void append(int platformCode, int adUnitCode, int appCode, int countryCode, int osCode, int eventTypeCode,
+                float value) {
+        int row = size;
+        platform[row] = (byte) platformCode;
+        adUnit[row] = adUnitCode;
+        app[row] = (short) appCode;
+        country[row] = (short) countryCode;
+        os[row] = (byte) osCode;
+        eventType[row] = (byte) eventTypeCode;
+        price[row] = value;
+        size = row + 1;
+    }
+} 
\ No newline at end of file
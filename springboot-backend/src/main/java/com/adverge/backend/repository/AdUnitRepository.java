@@ -1,9 +1,14 @@
 package com.adverge.backend.repository;
 
+import com.adverge.backend.dto.AdUnitSummary;
 import com.adverge.backend.model.AdUnit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +24,25 @@ public interface AdUnitRepository extends JpaRepository<AdUnit, String> {
     List<AdUnit> findByActive(boolean active);
     
     List<AdUnit> findByAppIdAndActive(String appId, boolean active);
+    
+    /**
+     * 查询指定时间之后更新过的广告位，用于内存目录增量刷新
+     */
+    List<AdUnit> findByUpdatedAtAfter(LocalDateTime updatedAt);
+    
+    /**
+     * 按ID游标分页查询广告位投影，首页 afterId 传空字符串
+     */
+    @Query("select new com.adverge.backend.dto.AdUnitSummary(u.id, u.name, u.appId, u.type, u.active, u.floorPrice, u.updatedAt) "
+            + "from AdUnit u where u.id > :afterId order by u.id")
+    List<AdUnitSummary> findSummariesAfter(@Param("afterId") String afterId, Pageable pageable);
+    
+    /**
+     * 按应用与ID游标分页查询广告位投影，首页 afterId 传空字符串
+     */
+    @Query("select new com.adverge.backend.dto.AdUnitSummary(u.id, u.name, u.appId, u.type, u.active, u.floorPrice, u.updatedAt) "
+            + "from AdUnit u where u.appId = :appId and u.id > :afterId order by u.id")
+    List<AdUnitSummary> findSummariesByAppIdAfter(@Param("appId") String appId,
+                                                  @Param("afterId") String afterId,
+                                                  Pageable pageable);
 } 
\ No newline at end of file
@@ -1,9 +1,17 @@
 package com.adverge.backend.repository;
 
+import com.adverge.backend.dto.AppSummary;
 import com.adverge.backend.model.App;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,4 +67,58 @@ public interface AppRepository extends JpaRepository<App, String> {
      * @return 应用列表
      */
     List<App> findByPlatform(String platform);
+    
+    /**
+     * 查询全部应用，广告单元ID在同一条SQL中连接查询，用于内存目录全量加载
+     *
+     * @return 应用列表
+     */
+    @Query("select distinct a from App a left join fetch a.adUnitIds")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<App> findAllWithAdUnitIds();
+    
+    /**
+     * 查询指定时间之后更新过的应用，广告单元ID在同一条SQL中连接查询，用于内存目录增量刷新
+     *
+     * @param updatedAt 更新时间
+     * @return 应用列表
+     */
+    @Query("select distinct a from App a left join fetch a.adUnitIds where a.updatedAt > :updatedAt")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<App> findWithAdUnitIdsByUpdatedAtAfter(@Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * 按ID游标分页查询应用投影
+     *
+     * @param afterId 上一页最后一条记录的ID，首页传空字符串
+     * @param pageable 只使用其中的条数限制
+     * @return 应用投影列表
+     */
+    @Query("select new com.adverge.backend.dto.AppSummary(a.id, a.name, a.packageName, a.platform, a.enabled, a.updatedAt) "
+            + "from App a where a.id > :afterId order by a.id")
+    List<AppSummary> findSummariesAfter(@Param("afterId") String afterId, Pageable pageable);
+    
+    /**
+     * 按平台与ID游标分页查询应用投影
+     *
+     * @param platform 平台名称
+     * @param afterId 上一页最后一条记录的ID，首页传空字符串
+     * @param pageable 只使用其中的条数限制
+     * @return 应用投影列表
+     */
+    @Query("select new com.adverge.backend.dto.AppSummary(a.id, a.name, a.packageName, a.platform, a.enabled, a.updatedAt) "
+            + "from App a where a.platform = :platform and a.id > :afterId order by a.id")
+    List<AppSummary> findSummariesByPlatformAfter(@Param("platform") String platform,
+                                                  @Param("afterId") String afterId,
+                                                  Pageable pageable);
+    
+    /**
+     * 根据ID批量查询应用投影
+     *
+     * @param ids 应用ID集合
+     * @return 应用投影列表
+     */
+    @Query("select new com.adverge.backend.dto.AppSummary(a.id, a.name, a.packageName, a.platform, a.enabled, a.updatedAt) "
+            + "from App a where a.id in :ids")
+    List<AppSummary> findSummariesByIdIn(@Param("ids") Collection<String> ids);
 } 
\ No newline at end of file
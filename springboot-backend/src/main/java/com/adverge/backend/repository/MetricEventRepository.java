@@ -0,0 +1,21 @@
+package com.adverge.backend.repository;
+
+import com.adverge.backend.model.MetricEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 事件粒度指标仓库，查询都应带 timestamp 范围条件，MySQL 只扫描范围内的日分区
+ */
+@Repository
+public interface MetricEventRepository extends JpaRepository<MetricEvent, MetricEvent.Key>, MetricEventRepositoryCustom {
+
+    List<MetricEvent> findByTimestampBetween(Date start, Date end);
+
+    List<MetricEvent> findByPlatformAndTimestampBetween(String platform, Date start, Date end);
+
+    List<MetricEvent> findByPlacementIdAndTimestampBetween(String placementId, Date start, Date end);
+} 
\ No newline at end of file
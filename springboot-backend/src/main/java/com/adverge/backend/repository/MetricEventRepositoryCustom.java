@@ -0,0 +1,15 @@
+package com.adverge.backend.repository;
+
+import com.adverge.backend.model.MetricEvent;
+
+/**
+ * 事件粒度指标的追加写入
+ */
+public interface MetricEventRepositoryCustom {
+
+    /**
+     * 直接 INSERT 一条事件。主键由调用方分配，save() 会先按主键 SELECT 判断是否存在，事件只追加不更新，不需要这一步
+     * @param event 事件
+     */
+    void append(MetricEvent event);
+} 
\ No newline at end of file
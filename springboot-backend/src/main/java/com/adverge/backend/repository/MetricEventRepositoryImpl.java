@@ -0,0 +1,22 @@
+package com.adverge.backend.repository;
+
+import com.adverge.backend.model.MetricEvent;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * {@link MetricEventRepositoryCustom} 的实现，由 Spring Data 按命名约定合并进 {@link MetricEventRepository}
+ */
+public class MetricEventRepositoryImpl implements MetricEventRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void append(MetricEvent event) {
+        entityManager.persist(event);
+    }
+} 
\ No newline at end of file
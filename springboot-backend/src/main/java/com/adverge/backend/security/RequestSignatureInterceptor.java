@@ -14,6 +14,11 @@ import javax.servlet.http.HttpServletResponse;
 @RequiredArgsConstructor
 public class RequestSignatureInterceptor implements HandlerInterceptor {
     
+    /**
+     * 签名校验通过的请求带有该属性，之后的拦截器据此判断请求中的应用和广告位是否可信
+     */
+    public static final String VERIFIED_ATTRIBUTE = RequestSignatureInterceptor.class.getName() + ".verified";
+    
     private final SecurityService securityService;
     
     @Override
@@ -24,6 +29,7 @@ public class RequestSignatureInterceptor implements HandlerInterceptor {
         // 开发环境可以暂时禁用签名验证
         if (System.getenv("DISABLE_SIGNATURE_CHECK") != null) {
             log.warn("签名验证已禁用");
+            request.setAttribute(VERIFIED_ATTRIBUTE, Boolean.TRUE);
             return true;
         }
         
@@ -56,6 +62,7 @@ public class RequestSignatureInterceptor implements HandlerInterceptor {
             }
             
             // 签名验证通过
+            request.setAttribute(VERIFIED_ATTRIBUTE, Boolean.TRUE);
             return true;
             
         } catch (Exception e) {
@@ -0,0 +1,218 @@
+package com.adverge.backend.security;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Enumeration;
+
+/**
+ * 请求签名引擎
+ * <p>
+ * 签名规则与原实现保持一致：参数按名称字典序排列，拼接为
+ * {@code k1=v1&k2=v2&...&key=secret} 后计算SHA-256并输出小写十六进制。
+ * 其中 {@code path} 为请求URI，{@code timestamp} 为时间戳，二者会覆盖同名请求参数。
+ * <p>
+ * 实现上不再构建 TreeMap 和中间字符串：参数名排序后直接按UTF-8编码写入线程复用的
+ * MessageDigest，摘要结果与签名头在字节级别做常量时间比较。
+ */
+public class RequestSigner {
+
+    private static final String PATH_PARAM = "path";
+    private static final String TIMESTAMP_PARAM = "timestamp";
+    private static final int DIGEST_LENGTH = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final byte[] secretBytes;
+
+    public RequestSigner(String secretKey) {
+        this.secretBytes = ("key=" + secretKey).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 生成请求签名（小写十六进制）
+     */
+    public String sign(HttpServletRequest request, long timestamp) {
+        Scratch scratch = SCRATCH.get();
+        digest(scratch, request, timestamp);
+        char[] hex = scratch.hex;
+        byte[] hash = scratch.hash;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int v = hash[i] & 0xff;
+            hex[i << 1] = HEX[v >>> 4];
+            hex[(i << 1) + 1] = HEX[v & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * 验证请求签名，比较耗时与签名内容无关
+     */
+    public boolean verify(HttpServletRequest request, long timestamp, String signature) {
+        if (signature == null || signature.length() != DIGEST_LENGTH * 2) {
+            return false;
+        }
+        Scratch scratch = SCRATCH.get();
+        digest(scratch, request, timestamp);
+        byte[] hash = scratch.hash;
+        int diff = 0;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int v = hash[i] & 0xff;
+            diff |= signature.charAt(i << 1) ^ HEX[v >>> 4];
+            diff |= signature.charAt((i << 1) + 1) ^ HEX[v & 0x0f];
+        }
+        return diff == 0;
+    }
+
+    private void digest(Scratch scratch, HttpServletRequest request, long timestamp) {
+        MessageDigest md = scratch.digest;
+        md.reset();
+
+        String[] names = scratch.sortedNames(request);
+        int count = scratch.nameCount;
+        for (int i = 0; i < count; i++) {
+            String name = names[i];
+            scratch.update(name);
+            md.update((byte) '=');
+            if (PATH_PARAM.equals(name)) {
+                scratch.update(request.getRequestURI());
+            } else if (TIMESTAMP_PARAM.equals(name)) {
+                scratch.update(timestamp);
+            } else {
+                scratch.update(request.getParameter(name));
+            }
+            md.update((byte) '&');
+        }
+        md.update(secretBytes);
+
+        try {
+            md.digest(scratch.hash, 0, DIGEST_LENGTH);
+        } catch (java.security.DigestException e) {
+            throw new IllegalStateException("无法计算SHA-256哈希", e);
+        }
+    }
+
+    /**
+     * 线程私有的复用缓冲区
+     */
+    private static final class Scratch {
+
+        private final MessageDigest digest;
+        private final byte[] hash = new byte[DIGEST_LENGTH];
+        private final char[] hex = new char[DIGEST_LENGTH * 2];
+        private byte[] buffer = new byte[256];
+        private String[] names = new String[16];
+        private int nameCount;
+
+        private Scratch() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("无法计算SHA-256哈希", e);
+            }
+        }
+
+        /**
+         * 收集参数名（含path与timestamp），排序并去重
+         */
+        private String[] sortedNames(HttpServletRequest request) {
+            int n = 0;
+            Enumeration<String> paramNames = request.getParameterNames();
+            while (paramNames.hasMoreElements()) {
+                n = add(n, paramNames.nextElement());
+            }
+            n = add(n, PATH_PARAM);
+            n = add(n, TIMESTAMP_PARAM);
+            Arrays.sort(names, 0, n);
+
+            int unique = 0;
+            for (int i = 0; i < n; i++) {
+                if (unique == 0 || !names[i].equals(names[unique - 1])) {
+                    names[unique++] = names[i];
+                }
+            }
+            for (int i = unique; i < n; i++) {
+                names[i] = null;
+            }
+            nameCount = unique;
+            return names;
+        }
+
+        private int add(int n, String name) {
+            if (n == names.length) {
+                names = Arrays.copyOf(names, n << 1);
+            }
+            names[n] = name;
+            return n + 1;
+        }
+
+        /**
+         * 按UTF-8编码写入摘要，与 String.valueOf(value).getBytes(UTF_8) 等价
+         */
+        private void update(String value) {
+            if (value == null) {
+                value = "null";
+            }
+            int len = value.length();
+            ensureCapacity(len * 3);
+            byte[] buf = buffer;
+            int pos = 0;
+            for (int i = 0; i < len; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xc0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < len
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buf[pos++] = (byte) (0xf0 | (cp >> 18));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    // 与JDK编码器一致，孤立代理项替换为 '?'
+                    buf[pos++] = (byte) '?';
+                } else {
+                    buf[pos++] = (byte) (0xe0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            digest.update(buf, 0, pos);
+        }
+
+        /**
+         * 写入十进制时间戳
+         */
+        private void update(long value) {
+            ensureCapacity(20);
+            byte[] buf = buffer;
+            if (value == 0) {
+                digest.update((byte) '0');
+                return;
+            }
+            boolean negative = value < 0;
+            int pos = 20;
+            while (value != 0) {
+                int d = (int) (value % 10);
+                buf[--pos] = (byte) ('0' + (negative ? -d : d));
+                value /= 10;
+            }
+            if (negative) {
+                buf[--pos] = '-';
+            }
+            digest.update(buf, pos, 20 - pos);
+        }
+
+        private void ensureCapacity(int size) {
+            if (buffer.length < size) {
+                buffer = new byte[Math.max(size, buffer.length << 1)];
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.adverge.backend.serializer;
+
+/**
+ * 单个缓存类型的二进制编解码器
+ * <p>
+ * 字段只能在末尾追加，不能删除或调整顺序：新增字段时递增 {@link #version()}，
+ * {@link #read(CompactReader, int)} 按数据中的版本号决定读取哪些字段。
+ * 旧版本节点读取新版本数据时，会忽略自己不认识的尾部字段，因此滚动发布期间新旧节点可以共享缓存。
+ */
+public interface CompactCodec<T> {
+
+    /**
+     * 类型ID，写入数据头部，一经分配不可复用
+     */
+    int typeId();
+
+    /**
+     * 当前写入的结构版本
+     */
+    int version();
+
+    /**
+     * 对应的Java类型
+     */
+    Class<T> type();
+
+    /**
+     * 写入对象字段（不含头部）
+     */
+    void write(T value, CompactWriter out);
+
+    /**
+     * 按指定版本读取对象字段
+     */
+    T read(CompactReader in, int version);
+} 
\ No newline at end of file
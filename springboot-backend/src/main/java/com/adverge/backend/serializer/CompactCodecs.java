@@ -0,0 +1,315 @@
+package com.adverge.backend.serializer;
+
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.model.AdUnit;
+import com.adverge.backend.model.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存类型的编解码器定义
+ * <p>
+ * 类型ID：1-Config，2-Config.Platform，3-BidResponse，4-BidResponse.AdData，5-AdUnit。
+ */
+public final class CompactCodecs {
+
+    public static final CompactCodec<Config.Platform> PLATFORM = new PlatformCodec();
+    public static final CompactCodec<Config> CONFIG = new ConfigCodec();
+    public static final CompactCodec<BidResponse.AdData> AD_DATA = new AdDataCodec();
+    public static final CompactCodec<BidResponse> BID_RESPONSE = new BidResponseCodec();
+    public static final CompactCodec<AdUnit> AD_UNIT = new AdUnitCodec();
+
+    private CompactCodecs() {
+    }
+
+    /**
+     * 全部已注册的编解码器
+     */
+    public static List<CompactCodec<?>> all() {
+        return Arrays.asList(CONFIG, PLATFORM, BID_RESPONSE, AD_DATA, AD_UNIT);
+    }
+
+    /**
+     * 写入嵌套对象：是否存在 + 版本 + 长度前缀的字段内容
+     */
+    static <T> void writeNested(CompactCodec<T> codec, T value, CompactWriter out) {
+        out.writeBoolean(value != null);
+        if (value == null) {
+            return;
+        }
+        out.writeVarint(codec.version());
+        int start = out.begin();
+        codec.write(value, out);
+        out.end(start);
+    }
+
+    static <T> T readNested(CompactCodec<T> codec, CompactReader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int version = (int) in.readVarint();
+        int outer = in.enter();
+        T value = codec.read(in, version);
+        in.exit(outer);
+        return value;
+    }
+
+    private static final class PlatformCodec implements CompactCodec<Config.Platform> {
+
+        @Override
+        public int typeId() {
+            return 2;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<Config.Platform> type() {
+            return Config.Platform.class;
+        }
+
+        @Override
+        public void write(Config.Platform value, CompactWriter out) {
+            out.writeNullableLong(value.getId());
+            out.writeString(value.getName());
+            out.writeString(value.getAppId());
+            out.writeString(value.getAppKey());
+            out.writeString(value.getPlacementId());
+            out.writeDouble(value.getBidFloor());
+            out.writeBoolean(value.isEnabled());
+        }
+
+        @Override
+        public Config.Platform read(CompactReader in, int version) {
+            Config.Platform platform = new Config.Platform();
+            platform.setId(in.readNullableLong());
+            platform.setName(in.readString());
+            platform.setAppId(in.readString());
+            platform.setAppKey(in.readString());
+            platform.setPlacementId(in.readString());
+            platform.setBidFloor(in.readDouble());
+            platform.setEnabled(in.readBoolean());
+            return platform;
+        }
+    }
+
+    private static final class ConfigCodec implements CompactCodec<Config> {
+
+        @Override
+        public int typeId() {
+            return 1;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<Config> type() {
+            return Config.class;
+        }
+
+        @Override
+        public void write(Config value, CompactWriter out) {
+            out.writeString(value.getId());
+            out.writeString(value.getAppId());
+            out.writeSignedVarint(value.getBidTimeout());
+            out.writeSignedVarint(value.getCacheExpiry());
+            List<Config.Platform> platforms = value.getPlatforms();
+            if (platforms == null) {
+                out.writeVarint(0);
+            } else {
+                out.writeVarint(platforms.size() + 1L);
+                for (Config.Platform platform : platforms) {
+                    writeNested(PLATFORM, platform, out);
+                }
+            }
+            out.writeDate(value.getCreatedAt());
+            out.writeDate(value.getUpdatedAt());
+        }
+
+        @Override
+        public Config read(CompactReader in, int version) {
+            Config config = new Config();
+            config.setId(in.readString());
+            config.setAppId(in.readString());
+            config.setBidTimeout(in.readInt());
+            config.setCacheExpiry(in.readInt());
+            int size = in.readLength();
+            if (size == 0) {
+                config.setPlatforms(null);
+            } else {
+                List<Config.Platform> platforms = new ArrayList<>(size - 1);
+                for (int i = 1; i < size; i++) {
+                    platforms.add(readNested(PLATFORM, in));
+                }
+                config.setPlatforms(platforms);
+            }
+            config.setCreatedAt(in.readDate());
+            config.setUpdatedAt(in.readDate());
+            return config;
+        }
+    }
+
+    private static final class AdDataCodec implements CompactCodec<BidResponse.AdData> {
+
+        @Override
+        public int typeId() {
+            return 4;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<BidResponse.AdData> type() {
+            return BidResponse.AdData.class;
+        }
+
+        @Override
+        public void write(BidResponse.AdData value, CompactWriter out) {
+            out.writeString(value.getAdId());
+            out.writeString(value.getTitle());
+            out.writeString(value.getDescription());
+            out.writeString(value.getImageUrl());
+            out.writeString(value.getIconUrl());
+            out.writeString(value.getCtaText());
+            out.writeString(value.getLandingUrl());
+            out.writeString(value.getClickUrl());
+            out.writeString(value.getImpressionUrl());
+            out.writeMap(value.getTrackingUrls());
+            out.writeMap(value.getMetadata());
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public BidResponse.AdData read(CompactReader in, int version) {
+            BidResponse.AdData adData = new BidResponse.AdData();
+            adData.setAdId(in.readString());
+            adData.setTitle(in.readString());
+            adData.setDescription(in.readString());
+            adData.setImageUrl(in.readString());
+            adData.setIconUrl(in.readString());
+            adData.setCtaText(in.readString());
+            adData.setLandingUrl(in.readString());
+            adData.setClickUrl(in.readString());
+            adData.setImpressionUrl(in.readString());
+            adData.setTrackingUrls((Map) in.readMap());
+            adData.setMetadata(in.readMap());
+            return adData;
+        }
+    }
+
+    private static final class BidResponseCodec implements CompactCodec<BidResponse> {
+
+        @Override
+        public int typeId() {
+            return 3;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<BidResponse> type() {
+            return BidResponse.class;
+        }
+
+        @Override
+        public void write(BidResponse value, CompactWriter out) {
+            out.writeString(value.getSource());
+            out.writeString(value.getAdId());
+            out.writeString(value.getPlacementId());
+            out.writeString(value.getAdContent());
+            out.writeNullableDouble(value.getPrice());
+            out.writeString(value.getCurrency());
+            out.writeString(value.getBidToken());
+            out.writeMap(value.getPlatformParams());
+            writeNested(AD_DATA, value.getAdData(), out);
+            out.writeString(value.getErrorCode());
+            out.writeString(value.getErrorMessage());
+            out.writeBoolean(value.isSuccess());
+        }
+
+        @Override
+        public BidResponse read(CompactReader in, int version) {
+            BidResponse response = new BidResponse();
+            response.setSource(in.readString());
+            response.setAdId(in.readString());
+            response.setPlacementId(in.readString());
+            response.setAdContent(in.readString());
+            response.setPrice(in.readNullableDouble());
+            response.setCurrency(in.readString());
+            response.setBidToken(in.readString());
+            response.setPlatformParams(in.readMap());
+            response.setAdData(readNested(AD_DATA, in));
+            response.setErrorCode(in.readString());
+            response.setErrorMessage(in.readString());
+            response.setSuccess(in.readBoolean());
+            return response;
+        }
+    }
+
+    private static final class AdUnitCodec implements CompactCodec<AdUnit> {
+
+        @Override
+        public int typeId() {
+            return 5;
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public Class<AdUnit> type() {
+            return AdUnit.class;
+        }
+
+        @Override
+        public void write(AdUnit value, CompactWriter out) {
+            out.writeString(value.getId());
+            out.writeString(value.getName());
+            out.writeString(value.getAppId());
+            out.writeString(value.getType());
+            out.writeString(value.getDescription());
+            out.writeBoolean(value.isActive());
+            out.writeDecimal(value.getFloorPrice());
+            out.writeNullableInt(value.getRefreshInterval());
+            out.writeString(value.getPosition());
+            out.writeString(value.getSize());
+            out.writeDateTime(value.getCreatedAt());
+            out.writeDateTime(value.getUpdatedAt());
+        }
+
+        @Override
+        public AdUnit read(CompactReader in, int version) {
+            AdUnit adUnit = new AdUnit();
+            adUnit.setId(in.readString());
+            adUnit.setName(in.readString());
+            adUnit.setAppId(in.readString());
+            adUnit.setType(in.readString());
+            adUnit.setDescription(in.readString());
+            adUnit.setActive(in.readBoolean());
+            adUnit.setFloorPrice(in.readDecimal());
+            adUnit.setRefreshInterval(in.readNullableInt());
+            adUnit.setPosition(in.readString());
+            adUnit.setSize(in.readString());
+            adUnit.setCreatedAt(in.readDateTime());
+            adUnit.setUpdatedAt(in.readDateTime());
+            return adUnit;
+        }
+    }
+} 
\ No newline at end of file
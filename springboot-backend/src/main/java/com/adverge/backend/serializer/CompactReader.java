@@ -0,0 +1,199 @@
+package com.adverge.backend.serializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑二进制读取器，与 {@link CompactWriter} 的编码一一对应
+ * <p>
+ * 读取越界时抛出 IllegalArgumentException，由序列化器统一转换为 SerializationException。
+ */
+public final class CompactReader {
+
+    private final byte[] buf;
+    private int pos;
+    private int limit;
+
+    public CompactReader(byte[] buf) {
+        this.buf = buf;
+        this.limit = buf.length;
+    }
+
+    public int readByte() {
+        require(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    public long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    public long readSignedVarint() {
+        long raw = readVarint();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public int readInt() {
+        return (int) readSignedVarint();
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) (buf[pos++] & 0xFF) << (i << 3);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        long header = readVarint();
+        if (header == 0) {
+            return null;
+        }
+        int length = (int) (header - 1);
+        require(length);
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    public Double readNullableDouble() {
+        return readBoolean() ? readDouble() : null;
+    }
+
+    public Integer readNullableInt() {
+        return readBoolean() ? readInt() : null;
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readSignedVarint() : null;
+    }
+
+    public BigDecimal readDecimal() {
+        String value = readString();
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    public Date readDate() {
+        return readBoolean() ? new Date(readSignedVarint()) : null;
+    }
+
+    public LocalDateTime readDateTime() {
+        if (!readBoolean()) {
+            return null;
+        }
+        long seconds = readSignedVarint();
+        int nanos = (int) readVarint();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    public Object readValue() {
+        int tag = readByte();
+        switch (tag) {
+            case CompactWriter.TAG_NULL:
+                return null;
+            case CompactWriter.TAG_STRING:
+                return readString();
+            case CompactWriter.TAG_INT:
+                return readInt();
+            case CompactWriter.TAG_LONG:
+                return readSignedVarint();
+            case CompactWriter.TAG_DOUBLE:
+                return readDouble();
+            case CompactWriter.TAG_BOOLEAN:
+                return readBoolean();
+            case CompactWriter.TAG_MAP:
+                return readMap();
+            case CompactWriter.TAG_LIST:
+                int size = readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            case CompactWriter.TAG_DECIMAL:
+                return readDecimal();
+            default:
+                throw new IllegalArgumentException("未知的值类型标记: " + tag);
+        }
+    }
+
+    public Map<String, Object> readMap() {
+        long header = readVarint();
+        if (header == 0) {
+            return null;
+        }
+        int size = checkLength(header - 1);
+        Map<String, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            String key = readString();
+            map.put(key, readValue());
+        }
+        return map;
+    }
+
+    /**
+     * 读取集合长度，长度不可能超过剩余字节数
+     */
+    public int readLength() {
+        return checkLength(readVarint());
+    }
+
+    /**
+     * 进入一段带长度前缀的内容，返回外层的读取边界
+     */
+    public int enter() {
+        int length = readLength();
+        int outer = limit;
+        limit = pos + length;
+        return outer;
+    }
+
+    /**
+     * 离开当前内容，跳过未读取的尾部字段（由更新版本的写入方追加）
+     */
+    public void exit(int outerLimit) {
+        pos = limit;
+        limit = outerLimit;
+    }
+
+    /**
+     * 当前内容中是否还有未读取的字段
+     */
+    public boolean hasRemaining() {
+        return pos < limit;
+    }
+
+    private int checkLength(long length) {
+        if (length < 0 || length > limit - pos) {
+            throw new IllegalArgumentException("长度超出数据范围: " + length);
+        }
+        return (int) length;
+    }
+
+    private void require(int length) {
+        if (length < 0 || pos + length > limit) {
+            throw new IllegalArgumentException("数据不完整");
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.adverge.backend.serializer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 面向缓存类型的紧凑二进制Redis序列化器
+ * <p>
+ * 数据格式：魔数(0xAC) + 类型ID + 结构版本 + 长度前缀的字段内容，不再携带类名。
+ * 未注册的类型以及非二进制格式的旧数据交给回退序列化器（JSON）处理。
+ * 滚动发布时可先关闭二进制写入，待所有节点都能读取后再开启。
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final int MAGIC = 0xAC;
+
+    private final RedisSerializer<Object> fallback;
+    private final boolean writeCompact;
+    private final Map<Class<?>, CompactCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Integer, CompactCodec<?>> codecsById = new HashMap<>();
+
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, boolean writeCompact, Iterable<CompactCodec<?>> codecs) {
+        this.fallback = fallback;
+        this.writeCompact = writeCompact;
+        for (CompactCodec<?> codec : codecs) {
+            if (codecsById.put(codec.typeId(), codec) != null) {
+                throw new IllegalArgumentException("重复的类型ID: " + codec.typeId());
+            }
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        CompactCodec<Object> codec = value == null || !writeCompact
+                ? null : (CompactCodec<Object>) codecsByType.get(value.getClass());
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        try {
+            CompactWriter out = new CompactWriter(128);
+            out.writeByte(MAGIC);
+            out.writeVarint(codec.typeId());
+            out.writeVarint(codec.version());
+            int start = out.begin();
+            codec.write(value, out);
+            out.end(start);
+            return out.toByteArray();
+        } catch (RuntimeException e) {
+            throw new SerializationException("二进制序列化失败: " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            CompactReader in = new CompactReader(bytes);
+            in.readByte();
+            int typeId = (int) in.readVarint();
+            int version = (int) in.readVarint();
+            CompactCodec<?> codec = codecsById.get(typeId);
+            if (codec == null) {
+                // 新版本节点写入的未知类型，按缓存未命中处理
+                log.warn("未知的缓存类型ID: {}，忽略该缓存数据", typeId);
+                return null;
+            }
+            int outer = in.enter();
+            Object value = codec.read(in, version);
+            in.exit(outer);
+            return value;
+        } catch (RuntimeException e) {
+            throw new SerializationException("二进制反序列化失败", e);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.adverge.backend.serializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 紧凑二进制写入器
+ * <p>
+ * 整数使用变长编码（有符号数先做ZigZag），字符串为“长度+1”前缀的UTF-8字节，0表示null。
+ * 嵌套对象通过 {@link #begin()} / {@link #end(int)} 写入长度前缀，读取方可以跳过不认识的尾部字段。
+ */
+public final class CompactWriter {
+
+    static final int TAG_NULL = 0;
+    static final int TAG_STRING = 1;
+    static final int TAG_INT = 2;
+    static final int TAG_LONG = 3;
+    static final int TAG_DOUBLE = 4;
+    static final int TAG_BOOLEAN = 5;
+    static final int TAG_MAP = 6;
+    static final int TAG_LIST = 7;
+    static final int TAG_DECIMAL = 8;
+
+    private byte[] buf;
+    private int pos;
+
+    public CompactWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buf[pos++] = (byte) value;
+    }
+
+    public void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    public void writeSignedVarint(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeDouble(double value) {
+        ensureCapacity(8);
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            buf[pos++] = (byte) (bits >>> (i << 3));
+        }
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1L);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    public void writeNullableDouble(Double value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeDouble(value);
+        }
+    }
+
+    public void writeNullableInt(Integer value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarint(value);
+        }
+    }
+
+    public void writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarint(value);
+        }
+    }
+
+    public void writeDecimal(BigDecimal value) {
+        writeString(value == null ? null : value.toString());
+    }
+
+    public void writeDate(Date value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarint(value.getTime());
+        }
+    }
+
+    public void writeDateTime(LocalDateTime value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarint(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarint(value.getNano());
+        }
+    }
+
+    /**
+     * 写入动态类型的值，用于平台参数等 Map&lt;String, Object&gt; 字段
+     */
+    public void writeValue(Object value) {
+        if (value == null) {
+            writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            writeByte(TAG_STRING);
+            writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeByte(TAG_INT);
+            writeSignedVarint(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            writeByte(TAG_LONG);
+            writeSignedVarint((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            writeByte(TAG_DOUBLE);
+            writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            writeByte(TAG_BOOLEAN);
+            writeBoolean((Boolean) value);
+        } else if (value instanceof Map) {
+            writeByte(TAG_MAP);
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            Collection<?> list = (Collection<?>) value;
+            writeByte(TAG_LIST);
+            writeVarint(list.size());
+            for (Object item : list) {
+                writeValue(item);
+            }
+        } else if (value instanceof BigDecimal) {
+            writeByte(TAG_DECIMAL);
+            writeDecimal((BigDecimal) value);
+        } else {
+            // 其他类型（BigInteger、枚举等）按字符串保存
+            writeByte(TAG_STRING);
+            writeString(value.toString());
+        }
+    }
+
+    /**
+     * 写入Map，null与空Map区分保存
+     */
+    public void writeMap(Map<?, ?> map) {
+        if (map == null) {
+            writeVarint(0);
+            return;
+        }
+        writeVarint(map.size() + 1L);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeString(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue());
+        }
+    }
+
+    /**
+     * 开始一段带长度前缀的内容，返回起始位置
+     */
+    public int begin() {
+        return pos;
+    }
+
+    /**
+     * 结束一段内容，在起始位置补写变长长度前缀
+     */
+    public void end(int start) {
+        int length = pos - start;
+        int prefix = varintSize(length);
+        ensureCapacity(prefix);
+        System.arraycopy(buf, start, buf, start + prefix, length);
+        int end = pos + prefix;
+        pos = start;
+        writeVarint(length);
+        pos = end;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (pos + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + extra));
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.model.AdUnit;
+import com.adverge.backend.model.App;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * 广告位与应用的内存目录，供竞价请求路径查询
+ * <p>
+ * 只收录启用的广告位和应用，查询不访问数据库。
+ */
+public interface AdDirectoryService {
+
+    /**
+     * 根据ID获取启用的广告位
+     *
+     * @param adUnitId 广告位ID
+     * @return 广告位（不存在或已停用时为空）
+     */
+    Optional<AdUnit> getAdUnit(String adUnitId);
+
+    /**
+     * 根据ID获取启用的应用
+     *
+     * @param appId 应用ID
+     * @return 应用（不存在或已停用时为空）
+     */
+    Optional<App> getApp(String appId);
+
+    /**
+     * 根据API密钥获取启用的应用
+     *
+     * @param apiKey API密钥
+     * @return 应用（不存在或已停用时为空）
+     */
+    Optional<App> getAppByApiKey(String apiKey);
+
+    /**
+     * 获取全部启用的广告位
+     *
+     * @return 广告位集合（只读）
+     */
+    Collection<AdUnit> getAdUnits();
+
+    /**
+     * 广告位发生变更（新增、修改、删除），立即刷新本节点并通知其他节点
+     *
+     * @param adUnitId 广告位ID
+     */
+    void adUnitChanged(String adUnitId);
+
+    /**
+     * 应用发生变更（新增、修改、删除），立即刷新本节点并通知其他节点
+     *
+     * @param appId 应用ID
+     */
+    void appChanged(String appId);
+
+    /**
+     * 从数据库全量重新加载目录
+     */
+    void reloadAll();
+} 
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.adverge.backend.service;
 
 import com.adverge.backend.dto.AdRequest;
 import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.trace.NetworkCallListener;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -24,6 +25,32 @@ public interface AdNetworkManager {
      */
     CompletableFuture<List<BidResponse>> bid(AdRequest adRequest);
     
+    /**
+     * 向所有广告平台发送竞价请求，并将各平台的调用情况通知监听器（采样追踪、竞价日志）
+     * @param adRequest 广告请求
+     * @param listener 调用情况监听器，可为null
+     * @return 竞价响应列表的Future
+     */
+    CompletableFuture<List<BidResponse>> bid(AdRequest adRequest, NetworkCallListener listener);
+
+    /**
+     * 后台预热竞价：与 bid 相同地向所有广告平台发送请求，但不计入各平台的竞价指标，
+     * 避免没有真实请求的竞价抬高请求量、填充率等统计
+     * @param adRequest 广告请求
+     * @return 竞价响应列表的Future
+     */
+    CompletableFuture<List<BidResponse>> prewarmBid(AdRequest adRequest);
+
+    /**
+     * 多个广告位共用一次扇出：每个广告平台只收到一次请求（支持多展示位的平台合并为一个请求），
+     * 各广告位的调用情况分别通知对应的监听器
+     * @param adRequests 各广告位的广告请求
+     * @param listeners 与 adRequests 对应的监听器，元素可为null
+     * @return 与 adRequests 顺序一致的各广告位竞价响应列表的Future
+     */
+    CompletableFuture<List<List<BidResponse>>> bidBatch(List<AdRequest> adRequests,
+                                                         List<NetworkCallListener> listeners);
+
     /**
      * 通知广告平台竞价胜出
      * @param network 广告平台名称
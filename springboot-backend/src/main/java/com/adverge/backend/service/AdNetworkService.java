@@ -3,7 +3,10 @@ package com.adverge.backend.service;
 import com.adverge.backend.dto.AdRequest;
 import com.adverge.backend.dto.BidResponse;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 广告平台服务接口
@@ -14,10 +17,43 @@ public interface AdNetworkService {
     /**
      * 发送竞价请求到广告平台
      * @param adRequest 广告请求信息
-     * @return 竞价响应
+     * @return 竞价响应，无填充时为null；请求失败时以异常结束
      */
     CompletableFuture<BidResponse> bid(AdRequest adRequest);
     
+    /**
+     * 一次发送多个广告位的竞价请求
+     * <p>
+     * 默认逐个广告位调用 {@link #bid(AdRequest)} 并发请求；支持多展示位（OpenRTB 多个 imp）的平台
+     * 覆盖此方法，合并为一次请求。
+     * @param adRequests 各广告位的广告请求
+     * @return 与 adRequests 顺序一致的竞价响应，无填充的位置为null；全部请求失败时以异常结束
+     */
+    default CompletableFuture<List<BidResponse>> bidBatch(List<AdRequest> adRequests) {
+        List<CompletableFuture<BidResponse>> futures = new ArrayList<>(adRequests.size());
+        for (AdRequest adRequest : adRequests) {
+            futures.add(bid(adRequest));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .handle((ignored, error) -> {
+                    List<BidResponse> bids = new ArrayList<>(futures.size());
+                    int failed = 0;
+                    for (CompletableFuture<BidResponse> future : futures) {
+                        if (future.isCompletedExceptionally()) {
+                            failed++;
+                            bids.add(null);
+                        } else {
+                            bids.add(future.join());
+                        }
+                    }
+                    if (failed == futures.size() && error != null) {
+                        throw error instanceof CompletionException
+                                ? (CompletionException) error : new CompletionException(error);
+                    }
+                    return bids;
+                });
+    }
+    
     /**
      * 通知广告平台竞价胜出
      * @param bidToken 竞价标识
@@ -36,4 +72,22 @@ public interface AdNetworkService {
      * @return 最低出价
      */
     double getBidFloor();
+    
+    /**
+     * 预先建立到广告平台接口主机的连接（DNS解析、TCP与TLS握手），启动预热时调用
+     * <p>
+     * 默认不做任何事；失败时只记录日志，不抛出异常。
+     */
+    default void preconnect() {
+    }
+    
+    /**
+     * 不发出网络请求，用给定的响应走一遍竞价请求构建与响应解析，启动预热时用于触发JIT编译
+     * @param adRequest 广告请求
+     * @param sampleResponse 按 RestTemplate 方式反序列化的平台响应样例
+     * @return 解析出的竞价响应；不支持模拟竞价的平台返回null
+     */
+    default BidResponse simulateBid(AdRequest adRequest, Object sampleResponse) {
+        return null;
+    }
 } 
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.adverge.backend.dto.BidResponse;
 import com.adverge.backend.dto.TrackRequest;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.List;
 import java.util.Map;
 
 public interface AdService {
@@ -12,7 +13,7 @@ public interface AdService {
     /**
      * 获取广告
      * @param adUnitId 广告单元ID
-     * @param options 选项参数
+     * @param options 选项参数（appId、deviceId、deviceType、os、country 等），deviceId 用于展示频次控制
      * @param request HTTP请求
      * @return 广告信息
      */
@@ -28,12 +29,22 @@ public interface AdService {
     BidResponse bid(String adUnitId, AdRequest adRequest, HttpServletRequest request);
     
     /**
-     * 记录广告展示
+     * 多广告位批量竞价，所有广告位共用一次广告平台扇出，各广告位分别选出胜出者
+     * @param adRequests 各广告位的广告请求
+     * @param request HTTP请求
+     * @return 与 adRequests 顺序一致的竞价结果，无填充的位置为null
+     */
+    List<BidResponse> bidBatch(List<AdRequest> adRequests, HttpServletRequest request);
+    
+    /**
+     * 记录广告展示，同时计入设备在该广告位的展示频次
      * @param adId 广告ID
      * @param platform 平台名称
+     * @param adUnitId 广告位ID，为空时取该广告的指标记录中的广告位
+     * @param deviceId 设备标识，为空时不计入展示频次
      * @param request HTTP请求
      */
-    void trackImpression(String adId, String platform, HttpServletRequest request);
+    void trackImpression(String adId, String platform, String adUnitId, String deviceId, HttpServletRequest request);
     
     /**
      * 记录广告点击
@@ -1,6 +1,8 @@
 package com.adverge.backend.service;
 
 import com.adverge.backend.dto.AdUnitRequest;
+import com.adverge.backend.dto.AdUnitSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.AdUnit;
 
 import java.util.List;
@@ -61,4 +63,13 @@ public interface AdUnitService {
      * 切换广告位状态
      */
     AdUnit toggleAdUnitStatus(String id);
+    
+    /**
+     * 按ID游标分页获取广告位列表（轻量投影）
+     * 
+     * @param appId 应用ID（为空表示全部）
+     * @param afterId 上一页最后一条记录的ID（首页为空）
+     * @param size 每页条数
+     */
+    KeysetPage<AdUnitSummary> listAdUnits(String appId, String afterId, int size);
 } 
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.adverge.backend.service;
 
 import com.adverge.backend.dto.AppRequest;
+import com.adverge.backend.dto.AppSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.App;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -138,4 +141,22 @@ public interface AppService {
      * @return 活跃应用列表
      */
     List<App> getActiveApps();
+    
+    /**
+     * 按ID游标分页获取应用列表（轻量投影，不加载广告位ID集合）
+     * 
+     * @param platform 平台（为空表示全部）
+     * @param afterId 上一页最后一条记录的ID（首页为空）
+     * @param size 每页条数
+     * @return 分页结果
+     */
+    KeysetPage<AppSummary> listApps(String platform, String afterId, int size);
+    
+    /**
+     * 根据ID批量获取应用投影
+     * 
+     * @param ids 应用ID集合
+     * @return 应用投影列表
+     */
+    List<AppSummary> getAppSummaries(Collection<String> ids);
 } 
\ No newline at end of file
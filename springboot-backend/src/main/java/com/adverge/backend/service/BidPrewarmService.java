@@ -0,0 +1,28 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.dto.BidResponse;
+
+/**
+ * 热门广告位竞价预热
+ * <p>
+ * 后台按请求速率选出最热门的广告位，提前竞价并为每个广告位保留一个未过期的胜出竞价池，
+ * 请求路径直接从池中取出，不再等待实时竞价。
+ */
+public interface BidPrewarmService {
+
+    /**
+     * 记录一次广告请求，并从预热池取出一个竞价
+     * <p>
+     * 调用方应在与实时竞价相同的资格检查通过后再调用。取出的竞价只使用一次，尚未通知平台胜出，
+     * 由调用方通知并记录事件；取出后异步补充。
+     *
+     * @param adUnitId 广告位ID
+     * @return 预热的竞价，池为空或该广告位未预热时为null
+     */
+    BidResponse take(String adUnitId);
+
+    /**
+     * 当前预热池中的竞价总数
+     */
+    int getPooledCount();
+} 
\ No newline at end of file
@@ -90,4 +90,16 @@ public interface ConfigService {
      * @return 更新后的配置对象
      */
     Config updateCacheExpiry(int expiry);
+    
+    /**
+     * 获取当前配置快照的版本号
+     * @return 版本号
+     */
+    long getConfigVersion();
+    
+    /**
+     * 通知所有节点配置已变更
+     * 递增版本号并发布失效消息，各节点收到后重新加载一次配置快照
+     */
+    void notifyConfigChanged();
 } 
\ No newline at end of file
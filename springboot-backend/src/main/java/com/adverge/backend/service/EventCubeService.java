@@ -0,0 +1,28 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.dto.AdEventDto;
+import com.adverge.backend.dto.CubeQuery;
+import com.adverge.backend.dto.CubeResult;
+
+/**
+ * 最近事件的多维分析
+ * <p>
+ * 最近若干天的事件保存在本节点内存的列式立方体中，可按 平台×广告位×应用×国家×操作系统×事件类型×小时
+ * 的任意组合分组与过滤。每个节点只包含自己处理的事件。
+ */
+public interface EventCubeService {
+
+    /**
+     * 记录一个事件，事件在下一次批量写入后可查询
+     * @param event 广告事件
+     */
+    void record(AdEventDto event);
+
+    /**
+     * 分组与过滤查询
+     * @param query 查询条件
+     * @return 查询结果
+     * @throws IllegalArgumentException 维度名不存在或分组组合过多
+     */
+    CubeResult query(CubeQuery query);
+} 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.adverge.backend.service;
+
+/**
+ * 按设备和广告位的展示频次控制
+ * <p>
+ * 统计每个设备在每个广告位最近一个时间窗口（默认1小时）内的展示数，达到上限的设备不再发起竞价。
+ * 计数保存在按时间分桶的 count-min sketch 中，内存与设备数无关，只会高估不会低估。
+ */
+public interface FrequencyCapService {
+
+    /**
+     * 判断设备在该广告位是否已达到展示上限
+     *
+     * @param deviceId 设备标识，为空时不限制
+     * @param adUnitId 广告位ID
+     * @return 达到上限时为true
+     */
+    boolean isCapped(String deviceId, String adUnitId);
+
+    /**
+     * 记录一次展示
+     *
+     * @param deviceId 设备标识，为空时忽略
+     * @param adUnitId 广告位ID
+     */
+    void recordImpression(String deviceId, String adUnitId);
+} 
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.dto.BulkImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 应用与广告位的批量导入导出
+ * <p>
+ * 导入时逐行读取输入，在内存中对照预先加载的已有数据校验，通过的行按批写入数据库，唯一性由数据库的唯一约束保证；
+ * 导出的文件可直接再导入。
+ */
+public interface InventoryBulkService {
+
+    /**
+     * 导入导出的对象
+     */
+    enum Entity {
+        APPS,
+        AD_UNITS;
+
+        /**
+         * 按路径中的名称（apps、ad-units）解析
+         */
+        public static Entity of(String name) {
+            return valueOf(name.trim().replace('-', '_').toUpperCase());
+        }
+    }
+
+    /**
+     * 文件格式
+     */
+    enum Format {
+        /**
+         * 首行为列名的CSV，列名不区分大小写，可用 camelCase 或 snake_case
+         */
+        CSV("text/csv", ".csv"),
+        /**
+         * 对象组成的JSON数组，或每行一个对象的NDJSON；导出为NDJSON
+         */
+        JSON("application/x-ndjson", ".ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * 导入，校验失败或写入失败（包括与同时写入的数据冲突）的行记入报告，其余行照常导入
+     * @param entity 导入的对象
+     * @param format 输入格式
+     * @param in 输入流，由调用方关闭
+     * @param dryRun 为true时只校验，不写入
+     * @return 导入报告
+     */
+    BulkImportReport importRows(Entity entity, Format format, InputStream in, boolean dryRun) throws IOException;
+
+    /**
+     * 导出全部应用或广告位，列与导入时相同
+     * @param entity 导出的对象
+     * @param format 导出格式
+     * @param out 输出流，由调用方关闭
+     * @return 导出的行数
+     */
+    long export(Entity entity, Format format, OutputStream out) throws IOException;
+} 
\ No newline at end of file
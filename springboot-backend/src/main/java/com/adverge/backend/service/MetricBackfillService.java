@@ -0,0 +1,26 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.dto.MetricBackfillReport;
+
+/**
+ * 从 Metrics 表向 metric_events 补写历史事件
+ * <p>
+ * 事件粒度的指标改写入 metric_events 之前，事件记录在 Metrics 表中（timestamp 不为空的行）。
+ * 补写把保留期内的这些行按主键分批复制到 metric_events，已存在的行跳过，可重复执行；进度记录在数据库中，
+ * 中断后从上次的位置继续。多个节点中只有取得 MySQL 命名锁的节点执行。
+ */
+public interface MetricBackfillService {
+
+    /**
+     * 执行补写，已完成时直接返回
+     * @param restart 为true时忽略已有进度从头补写，用于滚动发布完成后补上旧节点期间写入 Metrics 的事件
+     * @return 补写结果；其他节点正在补写或补写未启用时返回null
+     */
+    MetricBackfillReport backfill(boolean restart);
+
+    /**
+     * 获取本节点最近一次补写的结果
+     * @return 补写结果，本节点尚未执行过时为null
+     */
+    MetricBackfillReport getLastReport();
+} 
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.adverge.backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * 指标数据导出
+ * <p>
+ * 从数据库游标逐行读取并直接写入输出流，内存占用与导出的日期范围无关。
+ */
+public interface MetricExportService {
+
+    /**
+     * 导出的数据集
+     */
+    enum Dataset {
+        /**
+         * metric_events 的事件明细
+         */
+        EVENTS,
+        /**
+         * 按 日期×平台×事件类型 汇总的事件数与收益
+         */
+        DAILY
+    }
+
+    /**
+     * 导出格式
+     */
+    enum Format {
+        CSV("text/csv", ".csv"),
+        NDJSON("application/x-ndjson", ".ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * 占用一个导出名额，同时进行的导出各占一个数据库连接，超过上限时返回false
+     */
+    boolean tryAcquire();
+
+    /**
+     * 归还 {@link #tryAcquire()} 占用的导出名额
+     */
+    void release();
+
+    /**
+     * 导出日期范围内的数据，输出流写入失败（如客户端断开）时取消数据库查询并抛出异常
+     * @param dataset 数据集
+     * @param format 导出格式
+     * @param startDate 开始日期
+     * @param endDate 结束日期（含）
+     * @param platform 平台，为空时导出全部平台
+     * @param out 输出流，由调用方关闭
+     * @return 导出的行数
+     */
+    long export(Dataset dataset, Format format, LocalDate startDate, LocalDate endDate, String platform,
+                OutputStream out) throws IOException;
+} 
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.dto.MetricPartitionReport;
+
+/**
+ * metric_events 表的分区维护
+ * <p>
+ * 表按 TO_DAYS(timestamp) 做 RANGE 分区，每天一个分区 pYYYYMMDD，最后是兜底的 pmax。
+ * 维护时提前建好未来若干天的分区，超过保留天数的分区整体删除（或先交换到归档表再删除），
+ * 不执行 DELETE。多个节点中只有取得 MySQL 命名锁的节点执行。
+ */
+public interface MetricPartitionService {
+
+    /**
+     * 执行一次分区维护
+     * @return 维护结果；其他节点正在维护或分区维护未启用时返回null
+     */
+    MetricPartitionReport maintain();
+
+    /**
+     * 获取本节点最近一次维护的结果
+     * @return 维护结果，本节点尚未执行过时为null
+     */
+    MetricPartitionReport getLastReport();
+} 
\ No newline at end of file
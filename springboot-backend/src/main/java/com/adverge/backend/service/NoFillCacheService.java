@@ -0,0 +1,40 @@
+package com.adverge.backend.service;
+
+/**
+ * 无填充结果的短期负缓存
+ * <p>
+ * 按广告位和粗粒度人群（国家、操作系统、设备类型）记录连续无填充，退避期内的请求不再发起竞价；
+ * 退避时间随连续无填充次数倍增，期间按小比例放行探测请求以便及时发现恢复填充。
+ */
+public interface NoFillCacheService {
+
+    /**
+     * 判断本次请求是否跳过竞价
+     *
+     * @param adUnitId 广告位ID
+     * @param segment 人群标识，由 {@link #segment(String, String, String)} 生成
+     * @return 处于退避期且不是探测请求时为true
+     */
+    boolean shouldSkip(String adUnitId, String segment);
+
+    /**
+     * 记录一次无填充
+     */
+    void recordNoFill(String adUnitId, String segment);
+
+    /**
+     * 记录一次填充，清除该广告位与人群的退避
+     */
+    void recordFill(String adUnitId, String segment);
+
+    /**
+     * 生成人群标识
+     */
+    static String segment(String country, String os, String deviceType) {
+        return normalize(country) + '|' + normalize(os) + '|' + normalize(deviceType);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.dto.AdEventDto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 广告位/平台的独立设备与用户触达数
+ * <p>
+ * 展示事件的设备ID和用户ID按 广告位 × 平台 × 天 写入Redis HyperLogLog，每个键最多约12KB，
+ * 标准误差约0.81%。各节点写入同一组键，跨天查询时对多个键求并集，因此可以跨节点、跨天合并。
+ */
+public interface ReachService {
+
+    /**
+     * 记录事件的设备与用户，只统计展示事件；写入先进入本地缓冲，定时批量提交
+     * @param event 广告事件
+     */
+    void record(AdEventDto event);
+
+    /**
+     * 统计日期范围内的独立设备数与用户数
+     * @param adUnitId 广告位ID，为空时统计所有广告位
+     * @param platform 广告平台，为空时统计所有平台
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 包含 devices、users 等字段的统计结果
+     */
+    Map<String, Object> getReach(String adUnitId, String platform, LocalDate startDate, LocalDate endDate);
+} 
\ No newline at end of file
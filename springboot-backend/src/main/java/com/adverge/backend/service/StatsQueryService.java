@@ -0,0 +1,50 @@
+package com.adverge.backend.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 收益统计查询
+ * <p>
+ * 统计按天分桶计算后合并，已结束的日期的结果长时间缓存，只有当天的桶频繁重算；
+ * 查询范围按天对齐，开始时间取所在日期的零点，结束时间包含所在日期的全天。
+ */
+public interface StatsQueryService {
+
+    /**
+     * 分组维度
+     */
+    enum Dimension {
+        PLATFORM("platform"),
+        PLACEMENT("placementId"),
+        DAY("date");
+
+        private final String field;
+
+        Dimension(String field) {
+            this.field = field;
+        }
+
+        /**
+         * 结果中分组键的字段名
+         */
+        public String getField() {
+            return field;
+        }
+    }
+
+    /**
+     * 按维度统计时间范围内的收益
+     * @param dimension 分组维度
+     * @param startDate 开始时间
+     * @param endDate 结束时间
+     * @return 每组的 revenue、count、average；按平台和广告位分组时按收益降序，按日期分组时按日期升序
+     */
+    List<Map<String, Object>> query(Dimension dimension, Date startDate, Date endDate);
+
+    /**
+     * 清空缓存的桶，已结束日期的数据被补写后调用
+     */
+    void invalidate();
+} 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.adverge.backend.service;
+
+import com.adverge.backend.dto.StatsRetentionReport;
+
+/**
+ * Redis统计键的保留与压缩
+ * <p>
+ * 事件处理按天写入 stats:{日期}:{类型}:{平台} 计数键；超过保留天数的按天计数合并进
+ * stats:monthly:{年-月} 哈希（字段为 {类型}:{平台}）并删除原键。多个节点中只有取得租约的节点执行。
+ */
+public interface StatsRetentionService {
+
+    /**
+     * 执行一次压缩
+     * @return 压缩结果；其他节点持有租约时返回null
+     */
+    StatsRetentionReport compact();
+
+    /**
+     * 获取本节点最近一次压缩的结果
+     * @return 压缩结果，本节点尚未执行过时为null
+     */
+    StatsRetentionReport getLastReport();
+} 
\ No newline at end of file
@@ -4,12 +4,17 @@ import com.adverge.backend.dto.AdRequest;
 import com.adverge.backend.dto.BidResponse;
 import com.adverge.backend.service.AdNetworkService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -36,6 +41,58 @@ public abstract class AbstractAdNetworkService implements AdNetworkService {
         return bidFloor;
     }
 
+    /**
+     * 按配置覆盖平台接口地址，压测时指向本地广告平台模拟器
+     * <p>
+     * 优先使用 ad.network.endpoints.&lt;平台名&gt;；否则配置了 ad.network.simulator-url 时，
+     * 使用 &lt;simulator-url&gt;/&lt;平台名&gt;。两者都未配置时保持平台默认地址。
+     * @param environment Spring环境
+     */
+    @Autowired
+    public void applyEndpointOverride(Environment environment) {
+        String endpoint = environment.getProperty("ad.network.endpoints." + getPlatformName());
+        if (!StringUtils.hasText(endpoint)) {
+            String simulatorUrl = environment.getProperty("ad.network.simulator-url");
+            if (StringUtils.hasText(simulatorUrl)) {
+                endpoint = trimTrailingSlash(simulatorUrl) + "/" + getPlatformName();
+            }
+        }
+        if (StringUtils.hasText(endpoint)) {
+            this.apiUrl = trimTrailingSlash(endpoint);
+            log.warn("{}平台接口地址已覆盖为: {}", getPlatformName(), apiUrl);
+        }
+    }
+
+    /**
+     * 对接口地址所在主机发送一次HEAD请求，连接保留在HTTP keep-alive缓存中供首批竞价复用
+     */
+    @Override
+    public void preconnect() {
+        if (!StringUtils.hasText(apiUrl)) {
+            return;
+        }
+        try {
+            URI uri = URI.create(apiUrl);
+            restTemplate.headForHeaders(uri.getScheme() + "://" + uri.getRawAuthority() + "/");
+        } catch (RestClientResponseException e) {
+            // 主机返回了HTTP响应即说明连接已建立，状态码无关紧要
+            log.debug("{}平台预连接返回: {}", getPlatformName(), e.getRawStatusCode());
+        } catch (Exception e) {
+            log.warn("{}平台预连接失败: {}", getPlatformName(), e.getMessage());
+        }
+    }
+
+    @Override
+    public BidResponse simulateBid(AdRequest adRequest, Object sampleResponse) {
+        buildBidRequest(adRequest);
+        return parseBidResponse(sampleResponse);
+    }
+
+    private static String trimTrailingSlash(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
     /**
      * 构建HTTP请求头
      * @return HTTP请求头
@@ -60,6 +117,20 @@ public abstract class AbstractAdNetworkService implements AdNetworkService {
      */
     protected abstract BidResponse parseBidResponse(Object response);
 
+    /**
+     * 将响应中的数组字段转换为Object数组
+     * <p>
+     * RestTemplate 反序列化为 Map 时JSON数组是 List，这里同时兼容 List 与数组。
+     * @param value 字段值
+     * @return 数组，字段为空时返回null
+     */
+    protected static Object[] asArray(Object value) {
+        if (value instanceof List) {
+            return ((List<?>) value).toArray();
+        }
+        return (Object[]) value;
+    }
+
     /**
      * 生成唯一竞价ID
      * @return 竞价ID
@@ -0,0 +1,261 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.model.AdUnit;
+import com.adverge.backend.model.App;
+import com.adverge.backend.repository.AdUnitRepository;
+import com.adverge.backend.repository.AppRepository;
+import com.adverge.backend.service.AdDirectoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 广告位与应用内存目录实现
+ * <p>
+ * 启动时全量加载，之后按 updatedAt 增量刷新；管理端变更时立即刷新对应条目，
+ * 并通过Redis频道通知其他节点。请求路径上的查询只读取ConcurrentHashMap。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdDirectoryServiceImpl implements AdDirectoryService {
+
+    private final AdUnitRepository adUnitRepository;
+    private final AppRepository appRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String DIRECTORY_CHANNEL = "directory:invalidate";
+    private static final String AD_UNIT_PREFIX = "adunit:";
+    private static final String APP_PREFIX = "app:";
+
+    /**
+     * 增量刷新时回看的时间窗口（秒），容忍各节点之间的时钟偏差
+     */
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final Map<String, AdUnit> adUnitsById = new ConcurrentHashMap<>();
+    private final Map<String, App> appsById = new ConcurrentHashMap<>();
+    private final Map<String, App> appsByApiKey = new ConcurrentHashMap<>();
+
+    /**
+     * 已加载数据中最新的更新时间，作为增量刷新的起点
+     */
+    private volatile LocalDateTime adUnitWatermark;
+    private volatile LocalDateTime appWatermark;
+
+    /**
+     * 是否已成功完成过一次全量加载
+     */
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidate(message), new ChannelTopic(DIRECTORY_CHANNEL));
+        try {
+            reloadAll();
+        } catch (Exception e) {
+            log.error("加载广告位目录失败，将在下次刷新时重试", e);
+        }
+    }
+
+    @Override
+    public Optional<AdUnit> getAdUnit(String adUnitId) {
+        return adUnitId == null ? Optional.empty() : Optional.ofNullable(adUnitsById.get(adUnitId));
+    }
+
+    @Override
+    public Optional<App> getApp(String appId) {
+        return appId == null ? Optional.empty() : Optional.ofNullable(appsById.get(appId));
+    }
+
+    @Override
+    public Optional<App> getAppByApiKey(String apiKey) {
+        return apiKey == null ? Optional.empty() : Optional.ofNullable(appsByApiKey.get(apiKey));
+    }
+
+    @Override
+    public Collection<AdUnit> getAdUnits() {
+        return Collections.unmodifiableCollection(adUnitsById.values());
+    }
+
+    @Override
+    public void adUnitChanged(String adUnitId) {
+        reloadAdUnit(adUnitId);
+        publish(AD_UNIT_PREFIX + adUnitId);
+    }
+
+    @Override
+    public void appChanged(String appId) {
+        reloadApp(appId);
+        publish(APP_PREFIX + appId);
+    }
+
+    @Override
+    public synchronized void reloadAll() {
+        List<AdUnit> adUnits = adUnitRepository.findAll();
+        List<App> apps = appRepository.findAllWithAdUnitIds();
+
+        Set<String> adUnitIds = new HashSet<>();
+        LocalDateTime adUnitMax = null;
+        for (AdUnit adUnit : adUnits) {
+            putAdUnit(adUnit);
+            adUnitIds.add(adUnit.getId());
+            adUnitMax = max(adUnitMax, adUnit.getUpdatedAt());
+        }
+        adUnitsById.keySet().retainAll(adUnitIds);
+
+        Set<String> appIds = new HashSet<>();
+        LocalDateTime appMax = null;
+        for (App app : apps) {
+            putApp(app);
+            appIds.add(app.getId());
+            appMax = max(appMax, app.getUpdatedAt());
+        }
+        for (String appId : new ArrayList<>(appsById.keySet())) {
+            if (!appIds.contains(appId)) {
+                removeApp(appId);
+            }
+        }
+
+        // 没有更新时间的旧数据以加载时刻为起点
+        LocalDateTime now = LocalDateTime.now();
+        adUnitWatermark = adUnitMax != null ? adUnitMax : now;
+        appWatermark = appMax != null ? appMax : now;
+        loaded = true;
+        log.info("广告位目录加载完成: adUnits={}, apps={}", adUnitsById.size(), appsById.size());
+    }
+
+    /**
+     * 按更新时间增量刷新，兜底处理丢失的失效消息
+     */
+    @Scheduled(fixedDelayString = "${ad.directory.refresh-interval:30000}")
+    public synchronized void refreshChanged() {
+        try {
+            if (!loaded) {
+                reloadAll();
+                return;
+            }
+
+            for (AdUnit adUnit : adUnitRepository.findByUpdatedAtAfter(adUnitWatermark.minusSeconds(REFRESH_OVERLAP_SECONDS))) {
+                putAdUnit(adUnit);
+                adUnitWatermark = max(adUnitWatermark, adUnit.getUpdatedAt());
+            }
+
+            for (App app : appRepository.findWithAdUnitIdsByUpdatedAtAfter(appWatermark.minusSeconds(REFRESH_OVERLAP_SECONDS))) {
+                putApp(app);
+                appWatermark = max(appWatermark, app.getUpdatedAt());
+            }
+        } catch (Exception e) {
+            log.error("增量刷新广告位目录失败", e);
+        }
+    }
+
+    /**
+     * 定期全量重新加载，清理删除操作遗留的条目
+     */
+    @Scheduled(initialDelayString = "${ad.directory.full-reload-interval:600000}",
+            fixedDelayString = "${ad.directory.full-reload-interval:600000}")
+    public void scheduledReloadAll() {
+        try {
+            reloadAll();
+        } catch (Exception e) {
+            log.error("全量刷新广告位目录失败", e);
+        }
+    }
+
+    private void onInvalidate(Message message) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            if (body.startsWith(AD_UNIT_PREFIX)) {
+                reloadAdUnit(body.substring(AD_UNIT_PREFIX.length()));
+            } else if (body.startsWith(APP_PREFIX)) {
+                reloadApp(body.substring(APP_PREFIX.length()));
+            }
+        } catch (Exception e) {
+            log.error("处理目录失效消息失败: {}", body, e);
+        }
+    }
+
+    private void publish(String body) {
+        try {
+            redisTemplate.convertAndSend(DIRECTORY_CHANNEL, body);
+        } catch (Exception e) {
+            log.warn("发布目录失效消息失败，其他节点将在增量刷新时更新: {}", body, e);
+        }
+    }
+
+    private synchronized void reloadAdUnit(String adUnitId) {
+        Optional<AdUnit> adUnit = adUnitRepository.findById(adUnitId);
+        if (adUnit.isPresent()) {
+            putAdUnit(adUnit.get());
+        } else {
+            adUnitsById.remove(adUnitId);
+        }
+    }
+
+    private synchronized void reloadApp(String appId) {
+        Optional<App> app = appRepository.findById(appId);
+        if (app.isPresent()) {
+            putApp(app.get());
+        } else {
+            removeApp(appId);
+        }
+    }
+
+    private void putAdUnit(AdUnit adUnit) {
+        if (adUnit.isActive()) {
+            adUnitsById.put(adUnit.getId(), adUnit);
+        } else {
+            adUnitsById.remove(adUnit.getId());
+        }
+    }
+
+    private void putApp(App app) {
+        if (!app.isEnabled()) {
+            removeApp(app.getId());
+            return;
+        }
+        App previous = appsById.put(app.getId(), app);
+        if (app.getApiKey() != null) {
+            appsByApiKey.put(app.getApiKey(), app);
+        }
+        // API密钥可能已重新生成，移除旧密钥的索引
+        if (previous != null && previous.getApiKey() != null && !previous.getApiKey().equals(app.getApiKey())) {
+            appsByApiKey.remove(previous.getApiKey(), previous);
+        }
+    }
+
+    private void removeApp(String appId) {
+        App previous = appsById.remove(appId);
+        if (previous != null && previous.getApiKey() != null) {
+            appsByApiKey.remove(previous.getApiKey(), previous);
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+} 
\ No newline at end of file
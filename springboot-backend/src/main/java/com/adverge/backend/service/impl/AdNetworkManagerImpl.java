@@ -2,19 +2,24 @@ package com.adverge.backend.service.impl;
 
 import com.adverge.backend.dto.AdRequest;
 import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.metrics.AuctionMetrics;
 import com.adverge.backend.service.AdNetworkManager;
 import com.adverge.backend.service.AdNetworkService;
+import com.adverge.backend.trace.NetworkCallListener;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -27,6 +32,7 @@ import java.util.stream.Collectors;
 public class AdNetworkManagerImpl implements AdNetworkManager {
     
     private final List<AdNetworkService> adNetworks;
+    private final AuctionMetrics auctionMetrics;
     
     @Value("${ad.bid.timeout:5000}")
     private int bidTimeout;
@@ -40,14 +46,39 @@ public class AdNetworkManagerImpl implements AdNetworkManager {
     
     @Override
     public CompletableFuture<List<BidResponse>> bid(AdRequest adRequest) {
+        return bid(adRequest, null);
+    }
+    
+    @Override
+    public CompletableFuture<List<BidResponse>> bid(AdRequest adRequest, NetworkCallListener listener) {
         log.debug("向所有广告平台发送竞价请求");
+        return fanOut(Collections.singletonList(adRequest), Collections.singletonList(listener), true)
+                .thenApply(slots -> slots.get(0));
+    }
+    
+    @Override
+    public CompletableFuture<List<BidResponse>> prewarmBid(AdRequest adRequest) {
+        log.debug("向所有广告平台发送预热竞价请求");
+        return fanOut(Collections.singletonList(adRequest), Collections.singletonList(null), false)
+                .thenApply(slots -> slots.get(0));
+    }
         
+    @Override
+    public CompletableFuture<List<List<BidResponse>>> bidBatch(List<AdRequest> adRequests,
+                                                                List<NetworkCallListener> listeners) {
+        log.debug("向所有广告平台发送批量竞价请求: {}个广告位", adRequests.size());
+        return fanOut(adRequests, listeners, true);
+    }
+    
+    private CompletableFuture<List<List<BidResponse>>> fanOut(List<AdRequest> adRequests,
+                                                               List<NetworkCallListener> listeners,
+                                                               boolean recordMetrics) {
         // 初始化网络映射
         initNetworkMap();
         
         // 并行向所有广告平台发送竞价请求
-        List<CompletableFuture<BidResponse>> bidFutures = adNetworks.stream()
-                .map(network -> network.bid(adRequest))
+        List<CompletableFuture<List<BidResponse>>> bidFutures = adNetworks.stream()
+                .map(network -> instrumentedBid(network, adRequests, listeners, recordMetrics))
                 .collect(Collectors.toList());
         
         // 等待所有响应或超时
@@ -61,20 +92,90 @@ public class AdNetworkManagerImpl implements AdNetworkManager {
             log.warn("部分广告平台竞价请求超时", e);
         }
         
-        // 收集所有完成的响应
-        return CompletableFuture.supplyAsync(() -> 
-            bidFutures.stream()
-                    .map(future -> {
-                        try {
-                            return future.isDone() ? future.get() : null;
-                        } catch (Exception e) {
-                            log.error("获取竞价响应失败", e);
-                            return null;
-                        }
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList())
-        );
+        // 收集所有完成的响应，按广告位分组
+        return CompletableFuture.supplyAsync(() -> {
+            List<List<BidResponse>> slots = new ArrayList<>(adRequests.size());
+            for (int i = 0; i < adRequests.size(); i++) {
+                slots.add(new ArrayList<>());
+            }
+            for (CompletableFuture<List<BidResponse>> future : bidFutures) {
+                List<BidResponse> bids;
+                try {
+                    bids = future.isDone() ? future.get() : null;
+                } catch (Exception e) {
+                    log.error("获取竞价响应失败", e);
+                    bids = null;
+                }
+                if (bids == null) {
+                    continue;
+                }
+                for (int i = 0; i < slots.size(); i++) {
+                    if (bids.get(i) != null) {
+                        slots.get(i).add(bids.get(i));
+                    }
+                }
+            }
+            return slots;
+        });
+    }
+    
+    /**
+     * 发送单个平台的竞价请求并记录耗时与结果
+     * <p>
+     * 只有一个广告位时调用平台的 bid，多个广告位时调用 bidBatch，平台只收到一次请求。
+     * 平台请求失败时以异常结束，这里记录为错误后转换为null，与无填充一样不参与竞价；
+     * 超过竞价超时仍未返回的请求在超时时刻以超时结束并记录，不等待平台响应。指标和监听器按广告位分别记录，
+     * 预热竞价不记录指标。
+     */
+    private CompletableFuture<List<BidResponse>> instrumentedBid(AdNetworkService network, List<AdRequest> adRequests,
+                                                                 List<NetworkCallListener> listeners,
+                                                                 boolean recordMetrics) {
+        String platformName = network.getPlatformName();
+        for (NetworkCallListener listener : listeners) {
+            if (listener != null) {
+                listener.networkCalled(platformName);
+            }
+        }
+        long start = System.nanoTime();
+        CompletableFuture<List<BidResponse>> future;
+        try {
+            future = adRequests.size() == 1
+                    ? network.bid(adRequests.get(0)).thenApply(Collections::singletonList)
+                    : network.bidBatch(adRequests);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.orTimeout(bidTimeout, TimeUnit.MILLISECONDS).handle((bids, error) -> {
+            long elapsed = System.nanoTime() - start;
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            // 只按超时异常判断，截止时刻之后、超时触发之前返回的响应仍参与竞价，按实际结果记录
+            boolean timedOut = cause instanceof TimeoutException;
+            for (int i = 0; i < adRequests.size(); i++) {
+                BidResponse bid = error == null && bids != null && i < bids.size() ? bids.get(i) : null;
+                AuctionMetrics.Outcome outcome;
+                if (timedOut) {
+                    outcome = AuctionMetrics.Outcome.TIMEOUT;
+                } else if (error != null) {
+                    outcome = AuctionMetrics.Outcome.ERROR;
+                } else if (bid == null || bid.getPrice() == null) {
+                    outcome = AuctionMetrics.Outcome.NO_BID;
+                } else {
+                    outcome = AuctionMetrics.Outcome.BID;
+                }
+                Double price = bid == null ? null : bid.getPrice();
+                if (recordMetrics) {
+                    auctionMetrics.recordNetwork(platformName, outcome, elapsed, price);
+                }
+                NetworkCallListener listener = listeners.get(i);
+                if (listener != null) {
+                    listener.networkCompleted(platformName, outcome, elapsed, price);
+                }
+            }
+            if (error != null || bids == null) {
+                return null;
+            }
+            return bids.size() == adRequests.size() ? bids : null;
+        });
     }
     
     @Override
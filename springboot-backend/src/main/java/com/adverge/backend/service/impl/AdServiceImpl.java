@@ -1,18 +1,28 @@
 package com.adverge.backend.service.impl;
 
+import com.adverge.backend.auctionlog.AuctionLog;
+import com.adverge.backend.auctionlog.AuctionLogEntry;
 import com.adverge.backend.dto.AdRequest;
 import com.adverge.backend.dto.BidResponse;
 import com.adverge.backend.dto.TrackRequest;
+import com.adverge.backend.metrics.AuctionMetrics;
+import com.adverge.backend.metrics.AuctionMetrics.Stage;
 import com.adverge.backend.model.AdUnit;
 import com.adverge.backend.model.Config;
 import com.adverge.backend.model.Metrics;
 import com.adverge.backend.model.Platform;
-import com.adverge.backend.repository.AdUnitRepository;
 import com.adverge.backend.repository.ConfigRepository;
 import com.adverge.backend.repository.MetricsRepository;
+import com.adverge.backend.service.AdDirectoryService;
 import com.adverge.backend.service.AdNetworkManager;
 import com.adverge.backend.service.AdService;
+import com.adverge.backend.service.BidPrewarmService;
 import com.adverge.backend.service.EventService;
+import com.adverge.backend.service.FrequencyCapService;
+import com.adverge.backend.service.NoFillCacheService;
+import com.adverge.backend.trace.AuctionTraceRecorder;
+import com.adverge.backend.trace.AuctionTracer;
+import com.adverge.backend.trace.NetworkCallListener;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,7 +36,6 @@ import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -35,18 +44,27 @@ public class AdServiceImpl implements AdService {
 
     private final ConfigRepository configRepository;
     private final MetricsRepository metricsRepository;
-    private final AdUnitRepository adUnitRepository;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final AdDirectoryService adDirectoryService;
+    private final RedisTemplate<String, Object> redisTemplate;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
     private final AdNetworkManager adNetworkManager;
     private final EventService eventService;
+    private final AuctionMetrics auctionMetrics;
+    private final AuctionTracer auctionTracer;
+    private final AuctionLog auctionLog;
+    private final BidPrewarmService bidPrewarmService;
+    private final NoFillCacheService noFillCacheService;
+    private final FrequencyCapService frequencyCapService;
     
     @Value("${ad.bid.timeout:5000}")
     private int bidTimeout;
     
     @Value("${ad.bid.cache-expiry:300}")
     private int cacheExpiry;
+    
+    @Value("${ad.bid.batch.max-slots:10}")
+    private int batchMaxSlots;
 
     @Override
     public BidResponse getAd(String adUnitId, Map<String, String> options, HttpServletRequest request) {
@@ -55,37 +73,24 @@ public class AdServiceImpl implements AdService {
         // 记录请求事件
         eventService.logRequestEvent(options.getOrDefault("appId", "unknown"), adUnitId, null);
         
-        // 从Redis缓存获取广告数据
-        String cachedBidKey = "bid:" + adUnitId;
-        String cachedBid = redisTemplate.opsForValue().get(cachedBidKey);
-        
-        if (cachedBid != null) {
-            try {
-                BidResponse response = objectMapper.readValue(cachedBid, BidResponse.class);
-                // 记录缓存命中事件
-                if (response != null && response.getSource() != null) {
-                    eventService.logBidEvent(
-                            options.getOrDefault("appId", "unknown"),
-                            adUnitId,
-                            response.getSource(),
-                            response.getPrice()
-                    );
-                }
-                return response;
-            } catch (Exception e) {
-                log.error("解析缓存广告数据失败", e);
-            }
-        }
-        
-        // 如果没有缓存或缓存已过期，调用竞价方法获取新的广告
         try {
-            // 查找AdUnit获取类型信息
-            AdUnit adUnit = adUnitRepository.findById(adUnitId).orElse(null);
+            // 从内存目录查找AdUnit获取类型信息
+            long stageStart = System.nanoTime();
+            AdUnit adUnit = adDirectoryService.getAdUnit(adUnitId).orElse(null);
+            auctionMetrics.recordStage(Stage.AD_UNIT_LOOKUP, stageStart);
             if (adUnit == null) {
                 log.warn("广告位不存在: {}", adUnitId);
                 return null;
             }
             
+            // 同一广告位与人群近期连续无填充时，退避期内不再发起竞价
+            String segment = NoFillCacheService.segment(options.get("country"), options.get("os"),
+                    options.get("deviceType"));
+            if (noFillCacheService.shouldSkip(adUnitId, segment)) {
+                log.debug("无填充退避中，跳过竞价: adUnitId={}, segment={}", adUnitId, segment);
+                return null;
+            }
+            
             // 创建广告请求
             AdRequest adRequest = new AdRequest();
             adRequest.setAdUnitId(adUnitId);
@@ -93,22 +98,64 @@ public class AdServiceImpl implements AdService {
             adRequest.setFloorPrice(adUnit.getFloorPrice());
             adRequest.setAppId(adUnit.getAppId());
             
-            // 添加设备信息
-            if (options.containsKey("deviceType") || options.containsKey("os")) {
+            // 添加设备信息，deviceId 用于展示频次控制
+            if (options.containsKey("deviceType") || options.containsKey("os") || options.containsKey("deviceId")) {
                 AdRequest.DeviceInfo deviceInfo = new AdRequest.DeviceInfo();
+                deviceInfo.setDeviceId(options.get("deviceId"));
                 deviceInfo.setType(options.getOrDefault("deviceType", "unknown"));
                 deviceInfo.setOs(options.getOrDefault("os", "unknown"));
                 adRequest.setDeviceInfo(deviceInfo);
             }
             
-            // 调用竞价方法获取广告
+            // 预热池和缓存中的竞价与实时竞价一样，只在上面的检查和频次上限检查通过后才返回
+            if (isFrequencyCapped(adUnitId, adRequest)) {
+                return null;
+            }
+            
+            // 热门广告位优先使用后台预热的竞价，取出即视为胜出
+            BidResponse pooledBid = bidPrewarmService.take(adUnitId);
+            if (pooledBid != null) {
+                adNetworkManager.notifyWin(pooledBid.getSource(), pooledBid.getBidToken());
+                eventService.logWinEvent(adRequest.getAppId(), adUnitId, pooledBid.getSource(), pooledBid.getPrice());
+                saveMetrics(adUnitId, pooledBid);
+                return pooledBid;
+            }
+            
+            // 从Redis缓存获取广告数据
+            String cachedBidKey = "bid:" + adUnitId;
+            BidResponse cachedBid = null;
+            stageStart = System.nanoTime();
+            try {
+                Object cached = redisTemplate.opsForValue().get(cachedBidKey);
+                if (cached instanceof BidResponse) {
+                    cachedBid = (BidResponse) cached;
+                }
+            } catch (Exception e) {
+                // 旧格式或损坏的缓存数据按未命中处理
+                log.error("解析缓存广告数据失败", e);
+            }
+            auctionMetrics.recordStage(Stage.CACHE_LOOKUP, stageStart);
+            
+            if (cachedBid != null) {
+                // 记录缓存命中事件
+                if (cachedBid.getSource() != null) {
+                    eventService.logBidEvent(adRequest.getAppId(), adUnitId, cachedBid.getSource(),
+                            cachedBid.getPrice());
+                }
+                return cachedBid;
+            }
+            
+            // 如果没有缓存或缓存已过期，调用竞价方法获取新的广告
             BidResponse bidResponse = bid(adUnitId, adRequest, request);
             
-            if (bidResponse != null) {
+            if (bidResponse == null) {
+                noFillCacheService.recordNoFill(adUnitId, segment);
+            } else {
+                noFillCacheService.recordFill(adUnitId, segment);
+                
                 // 缓存竞价结果
                 try {
-                    String bidJson = objectMapper.writeValueAsString(bidResponse);
-                    redisTemplate.opsForValue().set(cachedBidKey, bidJson, cacheExpiry, TimeUnit.SECONDS);
+                    redisTemplate.opsForValue().set(cachedBidKey, bidResponse, cacheExpiry, TimeUnit.SECONDS);
                 } catch (Exception e) {
                     log.error("缓存广告数据失败", e);
                 }
@@ -128,74 +175,190 @@ public class AdServiceImpl implements AdService {
         // 记录竞价请求事件
         eventService.logRequestEvent(adRequest.getAppId(), adUnitId, "bid");
         
-        // 查找AdUnit获取类型信息（如果请求中没有提供）
-        if (adRequest.getType() == null) {
-            AdUnit adUnit = adUnitRepository.findById(adUnitId).orElse(null);
-            if (adUnit == null) {
-                log.warn("广告位不存在: {}", adUnitId);
-                return null;
-            }
-            adRequest.setType(adUnit.getType());
-            adRequest.setFloorPrice(adUnit.getFloorPrice());
-            adRequest.setAppId(adUnit.getAppId());
+        if (!resolveAdUnit(adUnitId, adRequest) || isFrequencyCapped(adUnitId, adRequest)) {
+            return null;
         }
         
+        // 按采样率记录本次竞价的追踪，未采样时为null
+        AuctionTraceRecorder trace = auctionTracer.start(adUnitId, adRequest);
+        // 竞价日志记录每一次竞价，未开启时为null
+        AuctionLogEntry logEntry = auctionLog.start(adUnitId, adRequest,
+                adNetworkManager.getAvailableNetworks().size());
         try {
             // 向所有广告平台发送竞价请求
-            CompletableFuture<List<BidResponse>> bidsFuture = adNetworkManager.bid(adRequest);
+            long stageStart = System.nanoTime();
+            CompletableFuture<List<BidResponse>> bidsFuture = adNetworkManager.bid(adRequest,
+                    NetworkCallListener.both(trace, logEntry));
             
             // 等待广告平台响应，设置超时
             List<BidResponse> bids = bidsFuture.get(bidTimeout, TimeUnit.MILLISECONDS);
+            auctionMetrics.recordStage(Stage.FAN_OUT, stageStart);
             
-            // 过滤出有效响应
-            List<BidResponse> validBids = bids.stream()
-                    .filter(Objects::nonNull)
-                    .filter(bid -> {
-                        if (adRequest.getFloorPrice() == null) {
-                            return true;
-                        }
-                        if (bid.getPrice() == null) {
-                            return false;
-                        }
-                        return bid.getPrice() >= adRequest.getFloorPrice().doubleValue();
-                    })
-                    .collect(Collectors.toList());
-            
-            // 记录竞价事件
-            validBids.forEach(bid -> {
-                eventService.logBidEvent(adRequest.getAppId(), adUnitId, bid.getSource(), bid.getPrice());
-            });
-            
-            // 选择价格最高的广告
-            Optional<BidResponse> winner = validBids.stream()
-                    .max(Comparator.comparingDouble(BidResponse::getPrice));
-            
-            if (winner.isPresent()) {
-                BidResponse winnerBid = winner.get();
-                
-                // 通知胜出平台
-                adNetworkManager.notifyWin(winnerBid.getSource(), winnerBid.getBidToken());
-                
-                // 记录胜出事件
-                eventService.logWinEvent(adRequest.getAppId(), adUnitId, winnerBid.getSource(), winnerBid.getPrice());
-                
-                // 记录指标
-                saveMetrics(adUnitId, winnerBid);
-                
-                return winnerBid;
-            } else {
-                log.info("无有效竞价: adUnitId={}", adUnitId);
-                return null;
-            }
+            return settle(adUnitId, adRequest, bids, trace, logEntry);
         } catch (Exception e) {
             log.error("竞价请求失败", e);
             return null;
+        } finally {
+            auctionTracer.record(trace);
+            auctionLog.append(logEntry);
         }
     }
+    
+    @Override
+    public List<BidResponse> bidBatch(List<AdRequest> adRequests, HttpServletRequest request) {
+        log.debug("批量竞价请求: {}个广告位", adRequests.size());
+        if (adRequests.size() > batchMaxSlots) {
+            throw new IllegalArgumentException("批量竞价最多" + batchMaxSlots + "个广告位");
+        }
+        
+        // 不存在或设备已达到频次上限的广告位不参与扇出，结果为null
+        List<BidResponse> results = new ArrayList<>(Collections.nCopies(adRequests.size(), null));
+        List<Integer> slots = new ArrayList<>(adRequests.size());
+        List<AdRequest> slotRequests = new ArrayList<>(adRequests.size());
+        for (int i = 0; i < adRequests.size(); i++) {
+            AdRequest adRequest = adRequests.get(i);
+            eventService.logRequestEvent(adRequest.getAppId(), adRequest.getAdUnitId(), "bid");
+            if (resolveAdUnit(adRequest.getAdUnitId(), adRequest)
+                    && !isFrequencyCapped(adRequest.getAdUnitId(), adRequest)) {
+                slots.add(i);
+                slotRequests.add(adRequest);
+            }
+        }
+        if (slotRequests.isEmpty()) {
+            return results;
+        }
+        
+        int networkCount = adNetworkManager.getAvailableNetworks().size();
+        AuctionTraceRecorder[] traces = new AuctionTraceRecorder[slotRequests.size()];
+        AuctionLogEntry[] logEntries = new AuctionLogEntry[slotRequests.size()];
+        List<NetworkCallListener> listeners = new ArrayList<>(slotRequests.size());
+        for (int i = 0; i < slotRequests.size(); i++) {
+            AdRequest adRequest = slotRequests.get(i);
+            traces[i] = auctionTracer.start(adRequest.getAdUnitId(), adRequest);
+            logEntries[i] = auctionLog.start(adRequest.getAdUnitId(), adRequest, networkCount);
+            listeners.add(NetworkCallListener.both(traces[i], logEntries[i]));
+        }
+        try {
+            // 所有广告位共用一次扇出
+            long stageStart = System.nanoTime();
+            List<List<BidResponse>> slotBids = adNetworkManager.bidBatch(slotRequests, listeners)
+                    .get(bidTimeout, TimeUnit.MILLISECONDS);
+            auctionMetrics.recordStage(Stage.FAN_OUT, stageStart);
+            
+            // 各广告位分别选出胜出者
+            for (int i = 0; i < slotRequests.size(); i++) {
+                AdRequest adRequest = slotRequests.get(i);
+                try {
+                    results.set(slots.get(i), settle(adRequest.getAdUnitId(), adRequest, slotBids.get(i),
+                            traces[i], logEntries[i]));
+                } catch (Exception e) {
+                    log.error("竞价结算失败: adUnitId={}", adRequest.getAdUnitId(), e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量竞价请求失败", e);
+        } finally {
+            for (int i = 0; i < slotRequests.size(); i++) {
+                auctionTracer.record(traces[i]);
+                auctionLog.append(logEntries[i]);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * 请求中没有广告类型时从广告位补全类型、底价和应用ID
+     *
+     * @return 广告位是否可用
+     */
+    private boolean resolveAdUnit(String adUnitId, AdRequest adRequest) {
+        if (adRequest.getType() != null) {
+            return true;
+        }
+        long lookupStart = System.nanoTime();
+        AdUnit adUnit = adDirectoryService.getAdUnit(adUnitId).orElse(null);
+        auctionMetrics.recordStage(Stage.AD_UNIT_LOOKUP, lookupStart);
+        if (adUnit == null) {
+            log.warn("广告位不存在: {}", adUnitId);
+            return false;
+        }
+        adRequest.setType(adUnit.getType());
+        adRequest.setFloorPrice(adUnit.getFloorPrice());
+        adRequest.setAppId(adUnit.getAppId());
+        return true;
+    }
+        
+    /**
+     * 设备在该广告位达到展示频次上限时不发起竞价
+     */
+    private boolean isFrequencyCapped(String adUnitId, AdRequest adRequest) {
+        String deviceId = adRequest.getDeviceInfo() == null ? null : adRequest.getDeviceInfo().getDeviceId();
+        if (!frequencyCapService.isCapped(deviceId, adUnitId)) {
+            return false;
+        }
+        log.debug("设备已达到展示频次上限，跳过竞价: adUnitId={}, deviceId={}", adUnitId, deviceId);
+        return true;
+    }
+    
+    /**
+     * 对单个广告位的出价按底价过滤、选出胜出者，通知胜出平台并记录事件和指标
+     *
+     * @return 胜出的竞价，无有效竞价时为null
+     */
+    private BidResponse settle(String adUnitId, AdRequest adRequest, List<BidResponse> bids,
+                               AuctionTraceRecorder trace, AuctionLogEntry logEntry) {
+        // 过滤出有效响应，选择价格最高的广告
+        long stageStart = System.nanoTime();
+        List<BidResponse> validBids = BidSelector.filterValid(bids, adRequest.getFloorPrice());
+        BidResponse winnerBid = BidSelector.selectWinner(validBids);
+        auctionMetrics.recordStage(Stage.SELECTION, stageStart);
+        if (trace != null || logEntry != null) {
+            for (BidResponse bid : bids) {
+                if (bid != null && !validBids.contains(bid)) {
+                    if (trace != null) {
+                        trace.floorFiltered(bid.getSource());
+                    }
+                    if (logEntry != null) {
+                        logEntry.floorFiltered(bid.getSource());
+                    }
+                }
+            }
+            if (trace != null) {
+                trace.winner(winnerBid);
+            }
+            if (logEntry != null) {
+                logEntry.winner(winnerBid);
+            }
+        }
+            
+        // 通知胜出平台
+        if (winnerBid != null) {
+            stageStart = System.nanoTime();
+            adNetworkManager.notifyWin(winnerBid.getSource(), winnerBid.getBidToken());
+            auctionMetrics.recordStage(Stage.WIN_NOTIFICATION, stageStart);
+        }
+        
+        // 记录竞价、胜出事件和指标
+        stageStart = System.nanoTime();
+        validBids.forEach(bid -> {
+            eventService.logBidEvent(adRequest.getAppId(), adUnitId, bid.getSource(), bid.getPrice());
+        });
+        if (winnerBid != null) {
+            eventService.logWinEvent(adRequest.getAppId(), adUnitId, winnerBid.getSource(), winnerBid.getPrice());
+            saveMetrics(adUnitId, winnerBid);
+        }
+        auctionMetrics.recordStage(Stage.EVENT_LOGGING, stageStart);
+            
+        if (winnerBid == null) {
+            log.info("无有效竞价: adUnitId={}", adUnitId);
+        }
+        return winnerBid;
+    }
 
     @Override
-    public void trackImpression(String adId, String platform, HttpServletRequest request) {
-        log.debug("记录广告展示: adId={}, platform={}", adId, platform);
+    public void trackImpression(String adId, String platform, String adUnitId, String deviceId,
+                                HttpServletRequest request) {
+        log.debug("记录广告展示: adId={}, platform={}, adUnitId={}", adId, platform, adUnitId);
         
         try {
             // 更新指标
@@ -205,6 +368,14 @@ public class AdServiceImpl implements AdService {
                 metrics.setImpressions(metrics.getImpressions() + 1);
                 metrics.setLastImpressionTime(new Date());
                 metricsRepository.save(metrics);
+                if (adUnitId == null) {
+                    adUnitId = metrics.getAdUnitId();
+                }
+            }
+            
+            // 计入展示频次
+            if (adUnitId != null) {
+                frequencyCapService.recordImpression(deviceId, adUnitId);
             }
             
             // 发送Kafka事件
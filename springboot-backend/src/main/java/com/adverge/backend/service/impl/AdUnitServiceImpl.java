@@ -1,14 +1,19 @@
 package com.adverge.backend.service.impl;
 
 import com.adverge.backend.dto.AdUnitRequest;
+import com.adverge.backend.dto.AdUnitSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.AdUnit;
 import com.adverge.backend.model.App;
 import com.adverge.backend.repository.AdUnitRepository;
+import com.adverge.backend.service.AdDirectoryService;
 import com.adverge.backend.service.AdUnitService;
 import com.adverge.backend.service.AppService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
@@ -23,6 +28,7 @@ public class AdUnitServiceImpl implements AdUnitService {
 
     private final AdUnitRepository adUnitRepository;
     private final AppService appService;
+    private final AdDirectoryService adDirectoryService;
 
     @Override
     public List<AdUnit> getAllAdUnits() {
@@ -65,6 +71,7 @@ public class AdUnitServiceImpl implements AdUnitService {
      
         // 更新应用的广告位ID列表
         appService.addAdUnitId(app.getId(), savedAdUnit.getId());
+        adDirectoryService.adUnitChanged(savedAdUnit.getId());
         
         return savedAdUnit;
     }
@@ -104,7 +111,9 @@ public class AdUnitServiceImpl implements AdUnitService {
         adUnit.setSize(adUnitRequest.getSize());
         adUnit.setUpdatedAt(LocalDateTime.now());
         
-        return adUnitRepository.save(adUnit);
+        AdUnit savedAdUnit = adUnitRepository.save(adUnit);
+        adDirectoryService.adUnitChanged(id);
+        return savedAdUnit;
     }
 
     @Override
@@ -115,6 +124,7 @@ public class AdUnitServiceImpl implements AdUnitService {
         appService.removeAdUnitId(adUnit.getAppId(), id);
         
         adUnitRepository.delete(adUnit);
+        adDirectoryService.adUnitChanged(id);
         log.info("广告位已删除: {}", id);
     }
 
@@ -156,6 +166,22 @@ public class AdUnitServiceImpl implements AdUnitService {
     public AdUnit toggleAdUnitStatus(String id) {
         AdUnit adUnit = getAdUnitById(id);
         adUnit.setActive(!adUnit.isActive());
-        return adUnitRepository.save(adUnit);
+        adUnit.setUpdatedAt(LocalDateTime.now());
+        AdUnit savedAdUnit = adUnitRepository.save(adUnit);
+        adDirectoryService.adUnitChanged(id);
+        return savedAdUnit;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<AdUnitSummary> listAdUnits(String appId, String afterId, int size) {
+        int pageSize = KeysetPage.normalizeSize(size);
+        String cursor = KeysetPage.normalizeCursor(afterId);
+        // 多查一条用于判断是否有下一页
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<AdUnitSummary> rows = appId == null || appId.isEmpty()
+                ? adUnitRepository.findSummariesAfter(cursor, limit)
+                : adUnitRepository.findSummariesByAppIdAfter(appId, cursor, limit);
+        return KeysetPage.of(rows, pageSize, AdUnitSummary::getId);
     }
 } 
\ No newline at end of file
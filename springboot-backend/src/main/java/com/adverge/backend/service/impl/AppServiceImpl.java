@@ -1,14 +1,21 @@
 package com.adverge.backend.service.impl;
 
+import com.adverge.backend.dto.AppSummary;
+import com.adverge.backend.dto.KeysetPage;
 import com.adverge.backend.model.App;
 import com.adverge.backend.repository.AppRepository;
+import com.adverge.backend.service.AdDirectoryService;
 import com.adverge.backend.service.AppService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,9 +31,12 @@ public class AppServiceImpl implements AppService {
     
     private final AppRepository appRepository;
     
+    private final AdDirectoryService adDirectoryService;
+    
     @Autowired
-    public AppServiceImpl(AppRepository appRepository) {
+    public AppServiceImpl(AppRepository appRepository, AdDirectoryService adDirectoryService) {
         this.appRepository = appRepository;
+        this.adDirectoryService = adDirectoryService;
     }
     
     @Override
@@ -80,13 +90,16 @@ public class AppServiceImpl implements AppService {
         }
         
         app.setUpdatedAt(now);
-        return appRepository.save(app);
+        App savedApp = appRepository.save(app);
+        adDirectoryService.appChanged(savedApp.getId());
+        return savedApp;
     }
     
     @Override
     public void deleteApp(String id) {
         logger.debug("删除应用: {}", id);
         appRepository.deleteById(id);
+        adDirectoryService.appChanged(id);
     }
     
     @Override
@@ -96,7 +109,9 @@ public class AppServiceImpl implements AppService {
         return getAppById(id).map(app -> {
             app.setEnabled(enabled);
             app.setUpdatedAt(LocalDateTime.now());
-            return appRepository.save(app);
+            App savedApp = appRepository.save(app);
+            adDirectoryService.appChanged(id);
+            return savedApp;
         });
     }
     
@@ -107,7 +122,9 @@ public class AppServiceImpl implements AppService {
         return getAppById(id).map(app -> {
             app.addAdUnitId(adUnitId);
             app.setUpdatedAt(LocalDateTime.now());
-            return appRepository.save(app);
+            App savedApp = appRepository.save(app);
+            adDirectoryService.appChanged(id);
+            return savedApp;
         });
     }
     
@@ -118,7 +135,9 @@ public class AppServiceImpl implements AppService {
         return getAppById(id).map(app -> {
             app.removeAdUnitId(adUnitId);
             app.setUpdatedAt(LocalDateTime.now());
-            return appRepository.save(app);
+            App savedApp = appRepository.save(app);
+            adDirectoryService.appChanged(id);
+            return savedApp;
         });
     }
     
@@ -135,7 +154,9 @@ public class AppServiceImpl implements AppService {
         return getAppById(id).map(app -> {
             app.generateApiKey();
             app.setUpdatedAt(LocalDateTime.now());
-            return appRepository.save(app);
+            App savedApp = appRepository.save(app);
+            adDirectoryService.appChanged(id);
+            return savedApp;
         });
     }
     
@@ -162,13 +183,18 @@ public class AppServiceImpl implements AppService {
         app.setPlatform(appRequest.getPlatform());
         app.setDescription(appRequest.getDescription());
         app.setEnabled(appRequest.isActive());
+        app.setRateLimit(appRequest.getRateLimit());
+        app.setRateLimitBurst(appRequest.getRateLimitBurst());
+        app.setAdUnitRateLimit(appRequest.getAdUnitRateLimit());
         app.setCreatedAt(LocalDateTime.now());
         app.setUpdatedAt(LocalDateTime.now());
         
         // 生成API密钥
         app.generateApiKey();
         
-        return appRepository.save(app);
+        App savedApp = appRepository.save(app);
+        adDirectoryService.appChanged(savedApp.getId());
+        return savedApp;
     }
     
     @Override
@@ -180,6 +206,9 @@ public class AppServiceImpl implements AppService {
             app.setPackageName(appRequest.getPackageName());
             app.setDescription(appRequest.getDescription());
             app.setPlatform(appRequest.getPlatform());
+            app.setRateLimit(appRequest.getRateLimit());
+            app.setRateLimitBurst(appRequest.getRateLimitBurst());
+            app.setAdUnitRateLimit(appRequest.getAdUnitRateLimit());
             
             return saveApp(app);
         }).orElseThrow(() -> new IllegalArgumentException("未找到ID为 " + id + " 的应用"));
@@ -188,11 +217,7 @@ public class AppServiceImpl implements AppService {
     @Override
     public List<App> getAppsByPlatform(String platform) {
         logger.debug("获取平台 {} 的应用", platform);
-        // 使用现有方法查询平台相关应用
-        List<App> allApps = getAllApps();
-        return allApps.stream()
-                .filter(app -> platform.equals(app.getPlatform()))
-                .collect(java.util.stream.Collectors.toList());
+        return appRepository.findByPlatform(platform);
     }
     
     @Override
@@ -206,4 +231,28 @@ public class AppServiceImpl implements AppService {
         
         return enabledApps;
     }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<AppSummary> listApps(String platform, String afterId, int size) {
+        logger.debug("分页获取应用: platform={}, afterId={}, size={}", platform, afterId, size);
+        
+        int pageSize = KeysetPage.normalizeSize(size);
+        String cursor = KeysetPage.normalizeCursor(afterId);
+        // 多查一条用于判断是否有下一页
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<AppSummary> rows = platform == null || platform.isEmpty()
+                ? appRepository.findSummariesAfter(cursor, limit)
+                : appRepository.findSummariesByPlatformAfter(platform, cursor, limit);
+        return KeysetPage.of(rows, pageSize, AppSummary::getId);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<AppSummary> getAppSummaries(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return appRepository.findSummariesByIdIn(ids);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,300 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.AdRequest;
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.model.AdUnit;
+import com.adverge.backend.service.AdDirectoryService;
+import com.adverge.backend.service.AdNetworkManager;
+import com.adverge.backend.service.AdNetworkService;
+import com.adverge.backend.service.BidPrewarmService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热门广告位竞价预热实现
+ * <p>
+ * 请求路径上 take 只做一次计数和一次队列出队。定时任务按上一周期的请求速率（指数加权平均）选出前N个广告位，
+ * 池的目标大小为速率乘以补充周期，在最小值与最大值之间取整；跌出前N的广告位清空池。
+ * 补充竞价在独立线程池上运行，同时进行的竞价数有上限，不会排队堆积。
+ * <p>
+ * 池中的竞价按来源平台的有效期过期（ad.prewarm.bid-ttl.&lt;平台名&gt;，未配置时使用默认值），
+ * 过期竞价在出队或定时任务中丢弃。预热竞价按广告位竞价，不带设备信息，不计入各平台的竞价指标；
+ * 取出的竞价由调用方在与实时竞价相同的资格检查（广告位、无填充退避、频次上限）通过后才使用。默认关闭。
+ */
+@Slf4j
+@Service
+public class BidPrewarmServiceImpl implements BidPrewarmService {
+
+    /**
+     * 请求速率的指数加权系数
+     */
+    private static final double RATE_ALPHA = 0.3;
+
+    private final AdNetworkManager adNetworkManager;
+    private final AdDirectoryService adDirectoryService;
+
+    private final boolean enabled;
+    private final int topN;
+    private final double minRate;
+    private final double horizonSeconds;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final int maxTrackedUnits;
+    private final long defaultTtlMillis;
+    private final Map<String, Long> networkTtlMillis = new HashMap<>();
+
+    @Value("${ad.bid.timeout:5000}")
+    private int bidTimeout;
+
+    private final Map<String, Demand> demand = new ConcurrentHashMap<>();
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService refillExecutor;
+    private final Semaphore refillPermits;
+    private long lastRebalanceNanos = System.nanoTime();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expired;
+
+    public BidPrewarmServiceImpl(AdNetworkManager adNetworkManager,
+                                 AdDirectoryService adDirectoryService,
+                                 Environment environment,
+                                 MeterRegistry registry,
+                                 @Value("${ad.prewarm.enabled:false}") boolean enabled,
+                                 @Value("${ad.prewarm.top-n:20}") int topN,
+                                 @Value("${ad.prewarm.min-rate:1.0}") double minRate,
+                                 @Value("${ad.prewarm.horizon:5000}") long horizonMillis,
+                                 @Value("${ad.prewarm.min-pool-size:1}") int minPoolSize,
+                                 @Value("${ad.prewarm.max-pool-size:50}") int maxPoolSize,
+                                 @Value("${ad.prewarm.max-tracked-units:10000}") int maxTrackedUnits,
+                                 @Value("${ad.prewarm.concurrency:8}") int concurrency,
+                                 @Value("${ad.prewarm.default-bid-ttl:30000}") long defaultTtlMillis) {
+        this.adNetworkManager = adNetworkManager;
+        this.adDirectoryService = adDirectoryService;
+        this.enabled = enabled;
+        this.topN = topN;
+        this.minRate = minRate;
+        this.horizonSeconds = horizonMillis / 1000.0;
+        this.minPoolSize = Math.max(1, minPoolSize);
+        this.maxPoolSize = Math.max(this.minPoolSize, maxPoolSize);
+        this.maxTrackedUnits = maxTrackedUnits;
+        this.defaultTtlMillis = defaultTtlMillis;
+        for (AdNetworkService network : adNetworkManager.getAvailableNetworks()) {
+            Long ttl = environment.getProperty("ad.prewarm.bid-ttl." + network.getPlatformName(), Long.class);
+            if (ttl != null) {
+                networkTtlMillis.put(network.getPlatformName(), ttl);
+            }
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.refillExecutor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "bid-prewarm-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refillPermits = new Semaphore(Math.max(1, concurrency));
+
+        this.hits = Counter.builder("ad.prewarm.takes").tag("result", "hit")
+                .description("从预热池取竞价的次数").register(registry);
+        this.misses = Counter.builder("ad.prewarm.takes").tag("result", "miss")
+                .description("从预热池取竞价的次数").register(registry);
+        this.expired = Counter.builder("ad.prewarm.expired")
+                .description("过期丢弃的预热竞价数").register(registry);
+        Gauge.builder("ad.prewarm.pooled", this, BidPrewarmServiceImpl::getPooledCount)
+                .description("预热池中的竞价数").register(registry);
+        Gauge.builder("ad.prewarm.units", pools, Map::size)
+                .description("已预热的广告位数").register(registry);
+    }
+
+    @Override
+    public BidResponse take(String adUnitId) {
+        if (!enabled || adUnitId == null) {
+            return null;
+        }
+        Demand unitDemand = demand.get(adUnitId);
+        if (unitDemand == null && demand.size() < maxTrackedUnits) {
+            unitDemand = demand.computeIfAbsent(adUnitId, id -> new Demand());
+        }
+        if (unitDemand != null) {
+            unitDemand.requests.increment();
+        }
+
+        Pool pool = pools.get(adUnitId);
+        if (pool == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        PooledBid pooled;
+        while ((pooled = pool.bids.poll()) != null) {
+            pool.size.decrementAndGet();
+            if (pooled.expiresAt > now) {
+                hits.increment();
+                refill(adUnitId, pool);
+                return pooled.bid;
+            }
+            expired.increment();
+        }
+        misses.increment();
+        refill(adUnitId, pool);
+        return null;
+    }
+
+    @Override
+    public int getPooledCount() {
+        int count = 0;
+        for (Pool pool : pools.values()) {
+            count += pool.size.get();
+        }
+        return count;
+    }
+
+    /**
+     * 按请求速率重新选出热门广告位并调整池大小
+     */
+    @Scheduled(fixedDelayString = "${ad.prewarm.interval:1000}")
+    public void rebalance() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        double elapsedSeconds = Math.max(0.001, (now - lastRebalanceNanos) / 1e9);
+        lastRebalanceNanos = now;
+
+        List<Map.Entry<String, Demand>> candidates = new ArrayList<>();
+        demand.entrySet().removeIf(entry -> {
+            Demand unitDemand = entry.getValue();
+            double current = unitDemand.requests.sumThenReset() / elapsedSeconds;
+            unitDemand.rate = RATE_ALPHA * current + (1 - RATE_ALPHA) * unitDemand.rate;
+            if (unitDemand.rate >= minRate) {
+                candidates.add(entry);
+            }
+            // 长时间没有请求的广告位不再跟踪
+            return unitDemand.rate < 0.01 && !pools.containsKey(entry.getKey());
+        });
+        candidates.sort((a, b) -> Double.compare(b.getValue().rate, a.getValue().rate));
+
+        Set<String> hot = new HashSet<>();
+        for (int i = 0; i < Math.min(topN, candidates.size()); i++) {
+            hot.add(candidates.get(i).getKey());
+        }
+        pools.keySet().removeIf(adUnitId -> !hot.contains(adUnitId));
+
+        long nowMillis = System.currentTimeMillis();
+        for (String adUnitId : hot) {
+            double rate = demand.get(adUnitId).rate;
+            Pool pool = pools.computeIfAbsent(adUnitId, id -> new Pool());
+            pool.target = (int) Math.max(minPoolSize, Math.min(maxPoolSize, Math.ceil(rate * horizonSeconds)));
+            for (PooledBid pooled : pool.bids) {
+                if (pooled.expiresAt <= nowMillis && pool.bids.remove(pooled)) {
+                    pool.size.decrementAndGet();
+                    expired.increment();
+                }
+            }
+            refill(adUnitId, pool);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+    }
+
+    /**
+     * 池大小（含进行中的竞价）低于目标时提交补充竞价，没有空闲的竞价名额时放弃，等下一次触发
+     */
+    private void refill(String adUnitId, Pool pool) {
+        while (pool.size.get() + pool.inFlight.get() < pool.target) {
+            if (!refillPermits.tryAcquire()) {
+                return;
+            }
+            pool.inFlight.incrementAndGet();
+            try {
+                refillExecutor.execute(() -> {
+                    try {
+                        runAuction(adUnitId, pool);
+                    } finally {
+                        pool.inFlight.decrementAndGet();
+                        refillPermits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                pool.inFlight.decrementAndGet();
+                refillPermits.release();
+                return;
+            }
+        }
+    }
+
+    private void runAuction(String adUnitId, Pool pool) {
+        if (pools.get(adUnitId) != pool) {
+            return;
+        }
+        AdUnit adUnit = adDirectoryService.getAdUnit(adUnitId).orElse(null);
+        if (adUnit == null) {
+            pools.remove(adUnitId, pool);
+            return;
+        }
+        AdRequest adRequest = new AdRequest();
+        adRequest.setAdUnitId(adUnitId);
+        adRequest.setAppId(adUnit.getAppId());
+        adRequest.setType(adUnit.getType());
+        adRequest.setFloorPrice(adUnit.getFloorPrice());
+        adRequest.setRequestId(UUID.randomUUID().toString());
+        try {
+            List<BidResponse> bids = adNetworkManager.prewarmBid(adRequest).get(bidTimeout, TimeUnit.MILLISECONDS);
+            BidResponse winner = BidSelector.selectWinner(BidSelector.filterValid(bids, adUnit.getFloorPrice()));
+            if (winner != null) {
+                long ttl = networkTtlMillis.getOrDefault(winner.getSource(), defaultTtlMillis);
+                pool.bids.offer(new PooledBid(winner, System.currentTimeMillis() + ttl));
+                pool.size.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.warn("预热竞价失败: adUnitId={}", adUnitId, e);
+        }
+    }
+
+    private static final class Demand {
+        private final LongAdder requests = new LongAdder();
+        private volatile double rate;
+    }
+
+    private static final class Pool {
+        private final ConcurrentLinkedQueue<PooledBid> bids = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile int target;
+    }
+
+    private static final class PooledBid {
+        private final BidResponse bid;
+        private final long expiresAt;
+
+        private PooledBid(BidResponse bid, long expiresAt) {
+            this.bid = bid;
+            this.expiresAt = expiresAt;
+        }
+    }
+} 
\ No newline at end of file
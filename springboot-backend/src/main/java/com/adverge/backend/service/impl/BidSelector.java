@@ -0,0 +1,62 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.BidResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 竞价结果筛选与胜出者选择
+ */
+public final class BidSelector {
+
+    private BidSelector() {
+    }
+
+    /**
+     * 过滤出有效竞价：非空且价格不低于底价，未设置底价时全部保留
+     *
+     * @param bids 各平台返回的竞价（可能包含null）
+     * @param floorPrice 底价，可为空
+     * @return 有效竞价列表
+     */
+    public static List<BidResponse> filterValid(List<BidResponse> bids, BigDecimal floorPrice) {
+        List<BidResponse> validBids = new ArrayList<>(bids.size());
+        double floor = floorPrice == null ? 0 : floorPrice.doubleValue();
+        for (int i = 0, n = bids.size(); i < n; i++) {
+            BidResponse bid = bids.get(i);
+            if (bid == null) {
+                continue;
+            }
+            if (floorPrice != null && (bid.getPrice() == null || bid.getPrice() < floor)) {
+                continue;
+            }
+            validBids.add(bid);
+        }
+        return validBids;
+    }
+
+    /**
+     * 选出价格最高的竞价，价格为空的竞价不参与，价格相同时保留先出现的
+     *
+     * @param bids 有效竞价列表
+     * @return 胜出竞价，没有时为null
+     */
+    public static BidResponse selectWinner(List<BidResponse> bids) {
+        BidResponse winner = null;
+        double best = 0;
+        for (int i = 0, n = bids.size(); i < n; i++) {
+            BidResponse bid = bids.get(i);
+            Double price = bid.getPrice();
+            if (price == null) {
+                continue;
+            }
+            if (winner == null || price > best) {
+                winner = bid;
+                best = price;
+            }
+        }
+        return winner;
+    }
+} 
\ No newline at end of file
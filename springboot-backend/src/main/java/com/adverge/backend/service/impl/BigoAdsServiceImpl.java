@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * BigoAds广告平台服务实现
@@ -88,7 +89,7 @@ public class BigoAdsServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("BigoAds竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
             }
         });
     }
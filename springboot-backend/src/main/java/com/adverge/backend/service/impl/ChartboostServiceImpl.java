@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Chartboost广告平台服务实现
@@ -90,7 +91,7 @@ public class ChartboostServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("Chartboost竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
             }
         });
     }
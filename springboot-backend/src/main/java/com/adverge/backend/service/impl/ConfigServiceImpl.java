@@ -1,25 +1,35 @@
 package com.adverge.backend.service.impl;
 
-import com.adverge.backend.model.App;
 import com.adverge.backend.model.Config;
 import com.adverge.backend.repository.ConfigRepository;
 import com.adverge.backend.service.AppService;
 import com.adverge.backend.service.ConfigService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityNotFoundException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * 配置服务实现类
+ * <p>
+ * 读取走进程内的不可变配置快照（一次volatile读），写入落库后递增Redis中的版本号，
+ * 并通过Redis频道广播失效消息，各节点收到后从数据库重新加载一次快照。
  */
 @Slf4j
 @Service
@@ -27,41 +37,45 @@ import java.util.stream.Collectors;
 public class ConfigServiceImpl implements ConfigService {
 
     private final ConfigRepository configRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
     private final AppService appService;
     
-    private static final String CONFIG_CACHE_KEY = "config";
-    private static final long CONFIG_CACHE_TTL = 3600; // 1小时缓存
+    private static final String CONFIG_VERSION_KEY = "config:version";
+    private static final String CONFIG_CHANNEL = "config:invalidate";
+    
+    /**
+     * 当前配置快照，为空表示尚未加载
+     */
+    private volatile ConfigSnapshot snapshot;
+    
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidate(message), new ChannelTopic(CONFIG_CHANNEL));
+    }
 
     @Override
     public Config getConfigById(String id) {
-        return configRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("配置不存在: " + id));
+        Config config = currentSnapshot().byId.get(id);
+        if (config == null) {
+            throw new EntityNotFoundException("配置不存在: " + id);
+        }
+        return config;
     }
     
     @Override
     public Config getConfigByAppId(String appId) {
-        // 尝试从缓存获取
-        String cacheKey = CONFIG_CACHE_KEY + ":" + appId;
-        Object cachedConfig = redisTemplate.opsForValue().get(cacheKey);
-        
-        if (cachedConfig != null) {
-            return (Config) cachedConfig;
+        Config config = currentSnapshot().byAppId.get(appId);
+        if (config == null) {
+            throw new EntityNotFoundException("应用配置不存在: " + appId);
         }
-        
-        // 从数据库获取
-        Config config = configRepository.findByAppId(appId)
-                .orElseThrow(() -> new EntityNotFoundException("应用配置不存在: " + appId));
-        
-        // 存入缓存
-        redisTemplate.opsForValue().set(cacheKey, config, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
-        
         return config;
     }
     
     @Override
     public List<Config> getAllConfigs() {
-        return configRepository.findAll();
+        return currentSnapshot().configs;
     }
 
     @Override
@@ -73,20 +87,17 @@ public class ConfigServiceImpl implements ConfigService {
         config.setUpdatedAt(new Date());
         
         Config savedConfig = configRepository.save(config);
-        
-        // 更新缓存
-        String cacheKey = CONFIG_CACHE_KEY + ":" + savedConfig.getAppId();
-        redisTemplate.opsForValue().set(cacheKey, savedConfig, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
+        notifyConfigChanged();
         
         return savedConfig;
     }
 
     @Override
     public List<Config.Platform> getPlatforms() {
-        Config config = getConfig();
-        return config.getPlatforms() != null ? 
-                new ArrayList<>(config.getPlatforms()) : 
-                new ArrayList<>();
+        // 返回副本，调用方修改不会影响快照
+        return currentSnapshot().defaultConfig.getPlatforms().stream()
+                .map(ConfigServiceImpl::copyOf)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -95,15 +106,12 @@ public class ConfigServiceImpl implements ConfigService {
             return null;
         }
         
-        try {
-            // 使用安全地JPQL查询来获取平台数据，而不是访问懒加载集合
-            // 使用EntityManager直接查询可以避免LazyInitializationException
-            List<Config.Platform> platforms = configRepository.findPlatformByName(name);
-            return platforms.isEmpty() ? null : platforms.get(0);
-        } catch (Exception e) {
-            log.error("获取平台配置失败: {}", name, e);
-            return null;
+        for (Config.Platform platform : currentSnapshot().platforms) {
+            if (name.equalsIgnoreCase(platform.getName())) {
+                return copyOf(platform);
+            }
         }
+        return null;
     }
 
     @Override
@@ -112,7 +120,7 @@ public class ConfigServiceImpl implements ConfigService {
             throw new IllegalArgumentException("平台名称不能为空");
         }
         
-        Config config = getConfig();
+        Config config = loadDefaultConfig();
         List<Config.Platform> platforms = config.getPlatforms();
         
         // 移除同名平台
@@ -127,9 +135,7 @@ public class ConfigServiceImpl implements ConfigService {
         
         // 保存配置
         configRepository.save(config);
-        
-        // 更新缓存
-        redisTemplate.opsForValue().set(CONFIG_CACHE_KEY, config, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
+        notifyConfigChanged();
         
         return platform;
     }
@@ -140,7 +146,7 @@ public class ConfigServiceImpl implements ConfigService {
             return false;
         }
         
-        Config config = getConfig();
+        Config config = loadDefaultConfig();
         List<Config.Platform> platforms = config.getPlatforms();
         
         int sizeBefore = platforms.size();
@@ -160,9 +166,7 @@ public class ConfigServiceImpl implements ConfigService {
         
         // 保存配置
         configRepository.save(config);
-        
-        // 更新缓存
-        redisTemplate.opsForValue().set(CONFIG_CACHE_KEY, config, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
+        notifyConfigChanged();
         
         return true;
     }
@@ -173,7 +177,7 @@ public class ConfigServiceImpl implements ConfigService {
             throw new IllegalArgumentException("平台名称不能为空");
         }
         
-        Config config = getConfig();
+        Config config = loadDefaultConfig();
         
         // 查找平台
         Config.Platform platform = config.getPlatforms()
@@ -192,9 +196,7 @@ public class ConfigServiceImpl implements ConfigService {
         
         // 保存配置
         configRepository.save(config);
-        
-        // 更新缓存
-        redisTemplate.opsForValue().set(CONFIG_CACHE_KEY, config, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
+        notifyConfigChanged();
         
         return platform;
     }
@@ -205,15 +207,13 @@ public class ConfigServiceImpl implements ConfigService {
             throw new IllegalArgumentException("超时时间必须在1000-30000毫秒之间");
         }
         
-        Config config = getConfig();
+        Config config = loadDefaultConfig();
         config.setBidTimeout(timeout);
         config.updateTimestamp();
         
         // 保存配置
         Config savedConfig = configRepository.save(config);
-        
-        // 更新缓存
-        redisTemplate.opsForValue().set(CONFIG_CACHE_KEY, savedConfig, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
+        notifyConfigChanged();
         
         return savedConfig;
     }
@@ -224,56 +224,211 @@ public class ConfigServiceImpl implements ConfigService {
             throw new IllegalArgumentException("缓存过期时间必须在60-3600秒之间");
         }
         
-        Config config = getConfig();
+        Config config = loadDefaultConfig();
         config.setCacheExpiry(expiry);
         config.updateTimestamp();
         
         // 保存配置
         Config savedConfig = configRepository.save(config);
-        
-        // 更新缓存
-        redisTemplate.opsForValue().set(CONFIG_CACHE_KEY, savedConfig, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
+        notifyConfigChanged();
         
         return savedConfig;
     }
 
     /**
      * 获取默认配置
+     * 返回的对象属于共享快照，调用方不应修改
      * @return 配置对象
      */
     @Override
     public Config getConfig() {
-        // 尝试从缓存获取
-        Object cachedConfig = redisTemplate.opsForValue().get(CONFIG_CACHE_KEY);
+        return currentSnapshot().defaultConfig;
+    }
         
-        if (cachedConfig != null) {
-            return (Config) cachedConfig;
+    @Override
+    public long getConfigVersion() {
+        return currentSnapshot().version;
+    }
+    
+    @Override
+    public void notifyConfigChanged() {
+        long version;
+        try {
+            Long next = redisTemplate.opsForValue().increment(CONFIG_VERSION_KEY);
+            version = next != null ? next : localNextVersion();
+        } catch (Exception e) {
+            log.warn("递增配置版本号失败，仅刷新本节点: {}", e.getMessage());
+            reload(localNextVersion());
+            return;
+        }
+        
+        // 本节点立即生效，其他节点通过消息重新加载
+        reload(version);
+        try {
+            redisTemplate.convertAndSend(CONFIG_CHANNEL, String.valueOf(version));
+        } catch (Exception e) {
+            log.warn("发布配置失效消息失败: version={}, {}", version, e.getMessage());
+        }
+    }
+    
+    /**
+     * 定期核对版本号，兜底处理丢失的失效消息
+     */
+    @Scheduled(fixedDelayString = "${ad.config.version-check-interval:30000}")
+    public void checkVersion() {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            long version = readRemoteVersion();
+            if (version > current.version) {
+                log.info("检测到配置版本落后: local={}, remote={}", current.version, version);
+                reload(version);
+            }
+        } catch (Exception e) {
+            log.debug("核对配置版本失败: {}", e.getMessage());
+        }
+    }
+    
+    private void onInvalidate(Message message) {
+        try {
+            long version = Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8));
+            // 任何变更消息都触发重新加载，Redis版本号被重置时也能正确同步
+            reload(version);
+        } catch (NumberFormatException e) {
+            log.warn("无效的配置失效消息: {}", message);
+        }
+    }
+    
+    private ConfigSnapshot currentSnapshot() {
+        ConfigSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long version;
+        try {
+            version = readRemoteVersion();
+        } catch (Exception e) {
+            log.warn("读取配置版本号失败，使用本地版本: {}", e.getMessage());
+            version = 0;
+        }
+        return reload(version);
+    }
+    
+    /**
+     * 从数据库重新加载快照
+     * 同一版本的失效消息（包括本节点自己发布的）只加载一次
+     */
+    private synchronized ConfigSnapshot reload(long version) {
+        ConfigSnapshot current = snapshot;
+        if (current != null && current.version == version) {
+            return current;
         }
         
-        // 从数据库获取所有配置
         List<Config> configs = configRepository.findAll();
+        if (configs.isEmpty()) {
+            configs = Collections.singletonList(configRepository.save(createDefaultConfig()));
+        }
         
-        Config config;
+        ConfigSnapshot loaded = new ConfigSnapshot(version, configs);
+        snapshot = loaded;
+        log.info("配置快照已加载: version={}, configs={}, platforms={}",
+                version, configs.size(), loaded.platforms.size());
+        return loaded;
+    }
+    
+    private long readRemoteVersion() {
+        String value = redisTemplate.opsForValue().get(CONFIG_VERSION_KEY);
+        return value != null ? Long.parseLong(value) : 0;
+    }
+    
+    private long localNextVersion() {
+        ConfigSnapshot current = snapshot;
+        return current != null ? current.version + 1 : 1;
+    }
+    
+    /**
+     * 从数据库读取可修改的默认配置，写操作不能修改共享快照
+     */
+    private Config loadDefaultConfig() {
+        List<Config> configs = configRepository.findAll();
         if (configs.isEmpty()) {
-            // 如果没有配置，创建默认配置
-            config = new Config();
-            config.setId(UUID.randomUUID().toString());
-            config.setBidTimeout(5000);
-            config.setCacheExpiry(300);
-            config.setPlatforms(new ArrayList<>());
-            config.setCreatedAt(new Date());
-            config.setUpdatedAt(new Date());
-            
-            // 保存到数据库
-            config = configRepository.save(config);
-        } else {
-            // 获取第一个配置
-            config = configs.get(0);
+            return configRepository.save(createDefaultConfig());
         }
+        return configs.get(0);
+    }
+    
+    private Config createDefaultConfig() {
+        Config config = new Config();
+        config.setId(UUID.randomUUID().toString());
+        config.setBidTimeout(5000);
+        config.setCacheExpiry(300);
+        config.setPlatforms(new ArrayList<>());
+        config.setCreatedAt(new Date());
+        config.setUpdatedAt(new Date());
+        return config;
+    }
         
-        // 存入缓存
-        redisTemplate.opsForValue().set(CONFIG_CACHE_KEY, config, CONFIG_CACHE_TTL, TimeUnit.SECONDS);
+    private static Config.Platform copyOf(Config.Platform source) {
+        Config.Platform platform = new Config.Platform();
+        platform.setId(source.getId());
+        platform.setName(source.getName());
+        platform.setAppId(source.getAppId());
+        platform.setAppKey(source.getAppKey());
+        platform.setPlacementId(source.getPlacementId());
+        platform.setBidFloor(source.getBidFloor());
+        platform.setEnabled(source.isEnabled());
+        return platform;
+    }
         
-        return config;
+    /**
+     * 不可变配置快照
+     */
+    private static final class ConfigSnapshot {
+        
+        private final long version;
+        private final Config defaultConfig;
+        private final List<Config> configs;
+        private final List<Config.Platform> platforms;
+        private final Map<String, Config> byId;
+        private final Map<String, Config> byAppId;
+        
+        private ConfigSnapshot(long version, List<Config> loaded) {
+            this.version = version;
+            
+            List<Config> copies = new ArrayList<>(loaded.size());
+            Map<String, Config> ids = new HashMap<>();
+            Map<String, Config> appIds = new HashMap<>();
+            for (Config source : loaded) {
+                Config config = freeze(source);
+                copies.add(config);
+                ids.put(config.getId(), config);
+                if (config.getAppId() != null) {
+                    appIds.put(config.getAppId(), config);
+                }
+            }
+            
+            this.configs = Collections.unmodifiableList(copies);
+            this.defaultConfig = copies.get(0);
+            this.platforms = defaultConfig.getPlatforms();
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byAppId = Collections.unmodifiableMap(appIds);
+        }
+        
+        private static Config freeze(Config source) {
+            Config config = new Config();
+            config.setId(source.getId());
+            config.setAppId(source.getAppId());
+            config.setBidTimeout(source.getBidTimeout());
+            config.setCacheExpiry(source.getCacheExpiry());
+            config.setCreatedAt(source.getCreatedAt());
+            config.setUpdatedAt(source.getUpdatedAt());
+            List<Config.Platform> platforms = source.getPlatforms() == null
+                    ? Collections.emptyList()
+                    : source.getPlatforms().stream().map(ConfigServiceImpl::copyOf).collect(Collectors.toList());
+            config.setPlatforms(Collections.unmodifiableList(platforms));
+            return config;
+        }
     }
 } 
\ No newline at end of file
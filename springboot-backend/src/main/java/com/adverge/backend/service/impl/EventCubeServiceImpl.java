@@ -0,0 +1,112 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.AdEventDto;
+import com.adverge.backend.dto.CubeQuery;
+import com.adverge.backend.dto.CubeResult;
+import com.adverge.backend.olap.EventCube;
+import com.adverge.backend.service.EventCubeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 事件多维分析实现
+ * <p>
+ * 事件路径只把事件放入本地队列，定时任务单线程取出后追加到 {@link EventCube}，并丢弃超过保留天数的段。
+ * 队列有上限，写入跟不上时丢弃超出的事件，丢弃数见 ad.cube.dropped。
+ */
+@Slf4j
+@Service
+public class EventCubeServiceImpl implements EventCubeService {
+
+    private final boolean enabled;
+    private final long retentionMillis;
+    private final int maxPending;
+    private final EventCube cube;
+
+    private final Queue<AdEventDto> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Counter dropped;
+
+    public EventCubeServiceImpl(MeterRegistry registry,
+                                @Value("${ad.cube.enabled:true}") boolean enabled,
+                                @Value("${ad.cube.retention-days:7}") int retentionDays,
+                                @Value("${ad.cube.max-rows:100000000}") long maxRows,
+                                @Value("${ad.cube.parallelism:0}") int parallelism,
+                                @Value("${ad.cube.max-pending:200000}") int maxPending) {
+        this.enabled = enabled;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(Math.max(1, retentionDays));
+        this.maxPending = maxPending;
+        this.cube = new EventCube(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), maxRows);
+        this.dropped = Counter.builder("ad.cube.dropped")
+                .description("缓冲区已满被丢弃的立方体事件")
+                .register(registry);
+        Gauge.builder("ad.cube.pending", pendingCount, AtomicInteger::get)
+                .description("等待写入立方体的事件")
+                .register(registry);
+        Gauge.builder("ad.cube.rows", cube, EventCube::rows)
+                .description("立方体中的事件数")
+                .register(registry);
+        Gauge.builder("ad.cube.memory", cube, EventCube::memoryBytes)
+                .description("立方体的列数组占用的内存")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public void record(AdEventDto event) {
+        if (!enabled || event.getEventType() == null) {
+            return;
+        }
+        if (pendingCount.get() >= maxPending) {
+            dropped.increment();
+            return;
+        }
+        pendingCount.incrementAndGet();
+        pending.offer(event);
+    }
+
+    /**
+     * 把缓冲的事件追加到立方体
+     */
+    @Scheduled(fixedDelayString = "${ad.cube.flush-interval:500}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - retentionMillis;
+        AdEventDto event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            long time = event.getEventTime() == null ? now : event.getEventTime().getTime();
+            if (time < cutoff) {
+                continue;
+            }
+            cube.append(time, event.getEventType().name(), event.getPlatform(), event.getAdUnitId(), event.getAppId(),
+                    event.getCountry(), event.getDeviceInfo() == null ? null : event.getDeviceInfo().getOs(),
+                    event.getPrice());
+        }
+        int evicted = cube.evictBefore(cutoff);
+        if (evicted > 0) {
+            log.debug("立方体丢弃{}个过期的段", evicted);
+        }
+    }
+
+    @Override
+    public CubeResult query(CubeQuery query) {
+        return cube.query(query);
+    }
+
+    @PreDestroy
+    public void close() {
+        cube.close();
+    }
+} 
\ No newline at end of file
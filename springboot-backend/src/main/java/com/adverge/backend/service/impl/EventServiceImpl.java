@@ -2,17 +2,23 @@ package com.adverge.backend.service.impl;
 
 import com.adverge.backend.dto.AdEventDto;
 import com.adverge.backend.dto.AdRequest;
-import com.adverge.backend.model.Metrics;
-import com.adverge.backend.repository.MetricsRepository;
+import com.adverge.backend.model.MetricEvent;
+import com.adverge.backend.repository.MetricEventRepository;
+import com.adverge.backend.service.EventCubeService;
 import com.adverge.backend.service.EventService;
+import com.adverge.backend.service.FrequencyCapService;
+import com.adverge.backend.service.ReachService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 事件服务实现类
@@ -22,10 +28,19 @@ import java.util.Date;
 @RequiredArgsConstructor
 public class EventServiceImpl implements EventService {
 
-    private final MetricsRepository metricsRepository;
+    private final MetricEventRepository metricEventRepository;
     private final RedisTemplate<String, String> redisTemplate;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final ReachService reachService;
+    private final FrequencyCapService frequencyCapService;
+    private final EventCubeService eventCubeService;
+    
+    /**
+     * 按天统计键的过期天数，兜底防止压缩任务未运行时键无限增长；正常情况下压缩任务会更早合并并删除这些键
+     */
+    @Value("${ad.stats.retention.raw-ttl-days:30}")
+    private int rawTtlDays;
 
     @Override
     public void processEvent(AdEventDto event) {
@@ -39,19 +54,31 @@ public class EventServiceImpl implements EventService {
             String eventJson = objectMapper.writeValueAsString(event);
             kafkaTemplate.send("ad-events", eventJson);
             
-            // 创建指标记录
-            Metrics metrics = new Metrics();
-            metrics.setPlacementId(event.getAdUnitId());
-            metrics.setPlatform(event.getPlatform());
-            metrics.setPrice(event.getPrice());
-            metrics.setTimestamp(event.getEventTime());
-            
-            // 保存到数据库
-            metricsRepository.save(metrics);
+            // 追加事件粒度的指标记录，按事件时间落入当天的分区
+            metricEventRepository.append(MetricEvent.builder()
+                    .id(UUID.randomUUID().toString())
+                    .timestamp(event.getEventTime())
+                    .eventType(event.getEventType() != null ? event.getEventType().name() : null)
+                    .appId(event.getAppId())
+                    .placementId(event.getAdUnitId())
+                    .platform(event.getPlatform())
+                    .price(event.getPrice())
+                    .build());
             
             // 根据事件类型更新Redis统计数据
             updateRedisStats(event);
             
+            // 记录独立设备与用户触达
+            reachService.record(event);
+            
+            // 写入最近事件的多维分析立方体
+            eventCubeService.record(event);
+            
+            // 展示计入设备的频次控制
+            if (event.getEventType() == AdEventDto.EventType.IMPRESSION) {
+                frequencyCapService.recordImpression(event.resolveDeviceId(), event.getAdUnitId());
+            }
+            
         } catch (Exception e) {
             log.error("处理广告事件失败", e);
         }
@@ -155,28 +182,38 @@ public class EventServiceImpl implements EventService {
         
         switch (event.getEventType()) {
             case REQUEST:
-                redisTemplate.opsForValue().increment("stats:" + date + ":request:" + platform);
+                incrementStat("stats:" + date + ":request:" + platform, 1);
                 break;
             case BID:
-                redisTemplate.opsForValue().increment("stats:" + date + ":bid:" + platform);
+                incrementStat("stats:" + date + ":bid:" + platform, 1);
                 if (event.getPrice() > 0) {
                     // 记录出价总额和次数，用于计算平均出价
-                    redisTemplate.opsForValue().increment("stats:" + date + ":bid_price:" + platform, 
+                    incrementStat("stats:" + date + ":bid_price:" + platform, 
                             (long) (event.getPrice() * 1000)); // 乘以1000避免浮点数精度问题
-                    redisTemplate.opsForValue().increment("stats:" + date + ":bid_count:" + platform);
+                    incrementStat("stats:" + date + ":bid_count:" + platform, 1);
                 }
                 break;
             case IMPRESSION:
-                redisTemplate.opsForValue().increment("stats:" + date + ":impression:" + platform);
+                incrementStat("stats:" + date + ":impression:" + platform, 1);
                 break;
             case CLICK:
-                redisTemplate.opsForValue().increment("stats:" + date + ":click:" + platform);
+                incrementStat("stats:" + date + ":click:" + platform, 1);
                 break;
             case ERROR:
-                redisTemplate.opsForValue().increment("stats:" + date + ":error:" + platform);
+                incrementStat("stats:" + date + ":error:" + platform, 1);
                 break;
             default:
                 break;
         }
     }
+    
+    /**
+     * 累加按天统计计数，键首次创建时设置过期时间
+     */
+    private void incrementStat(String key, long delta) {
+        Long value = redisTemplate.opsForValue().increment(key, delta);
+        if (rawTtlDays > 0 && value != null && value == delta) {
+            redisTemplate.expire(key, rawTtlDays, TimeUnit.DAYS);
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,237 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.frequency.CountMinSketch;
+import com.adverge.backend.service.FrequencyCapService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldIncrBy;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldSubCommand;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldType;
+import org.springframework.data.redis.connection.BitFieldSubCommands.Offset;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 频次控制实现
+ * <p>
+ * 时间窗口分为 buckets 个时间桶，每个桶一个 count-min sketch，窗口内的展示数为最近 buckets 个桶的估计之和，
+ * 窗口随时间按桶滑动。sketch 的行数由错误率 δ 决定（depth = ⌈ln(1/δ)⌉），
+ * 列数由内存预算平均分给各桶与各行得到，启动时输出对应的误差上限。展示按保守更新累加（见
+ * {@link CountMinSketch#addConservative}），每桶活跃的设备×广告位数不超过列数时误判很少。
+ * <p>
+ * 集群模式下每个桶另有一个本节点的增量 sketch，定时把非零的增量以 BITFIELD INCRBY 累加到Redis的
+ * fcap:{桶序号}（每个计数器一个u32），同一管道中 GET 回全局计数，本地计数替换为全局计数加上尚未同步的增量。
+ * 只同步当前桶和上一个桶；其他节点的展示最多延迟一个同步周期才计入。
+ */
+@Slf4j
+@Service
+public class FrequencyCapServiceImpl implements FrequencyCapService {
+
+    private static final String KEY_PREFIX = "fcap:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final int maxImpressions;
+    private final long bucketMillis;
+    private final int depth;
+    private final int width;
+    private final boolean clusterMode;
+    private final long windowMillis;
+
+    private final AtomicReferenceArray<Bucket> ring;
+    private final Counter capped;
+
+    public FrequencyCapServiceImpl(RedisTemplate<String, String> redisTemplate,
+                                   MeterRegistry registry,
+                                   @Value("${ad.frequency-cap.enabled:true}") boolean enabled,
+                                   @Value("${ad.frequency-cap.max-impressions:20}") int maxImpressions,
+                                   @Value("${ad.frequency-cap.window:3600000}") long windowMillis,
+                                   @Value("${ad.frequency-cap.buckets:6}") int buckets,
+                                   @Value("${ad.frequency-cap.memory-budget:16777216}") long memoryBudget,
+                                   @Value("${ad.frequency-cap.error-rate:0.01}") double errorRate,
+                                   @Value("${ad.frequency-cap.cluster-mode:false}") boolean clusterMode) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.maxImpressions = maxImpressions;
+        this.clusterMode = clusterMode;
+        int bucketCount = Math.max(1, buckets);
+        this.windowMillis = Math.max(bucketCount, windowMillis);
+        this.bucketMillis = this.windowMillis / bucketCount;
+        this.depth = Math.max(1, (int) Math.ceil(Math.log(1 / Math.min(Math.max(errorRate, 1e-9), 0.5))));
+        // 集群模式下每个桶另有同样大小的增量 sketch
+        long cellsPerBucket = memoryBudget / (4L * bucketCount * (clusterMode ? 2 : 1));
+        this.width = (int) Math.max(64, Math.min(cellsPerBucket / depth, Integer.MAX_VALUE / depth));
+        this.ring = new AtomicReferenceArray<>(bucketCount);
+        this.capped = Counter.builder("ad.frequency.capped")
+                .description("达到频次上限而跳过竞价的请求")
+                .register(registry);
+        Gauge.builder("ad.frequency.memory", this, FrequencyCapServiceImpl::memoryBytes)
+                .description("频次控制 sketch 占用的内存")
+                .baseUnit("bytes")
+                .register(registry);
+        if (enabled) {
+            log.info("频次控制: 每{}分钟最多{}次展示, {}个时间桶, sketch {}行×{}列（每桶{}KB），"
+                            + "单桶估计以{}的概率高估不超过该桶展示总数的{}；每桶活跃的设备×广告位超过列数后误判明显增加",
+                    this.windowMillis / 60000, maxImpressions, bucketCount, depth, width,
+                    4L * depth * width / 1024, String.format("%.4f", 1 - Math.exp(-depth)),
+                    String.format("%.6f", Math.E / width));
+        }
+    }
+
+    @Override
+    public boolean isCapped(String deviceId, String adUnitId) {
+        if (!enabled || maxImpressions <= 0 || !StringUtils.hasText(deviceId)) {
+            return false;
+        }
+        long hash = CountMinSketch.hash(key(deviceId, adUnitId));
+        long current = System.currentTimeMillis() / bucketMillis;
+        List<CountMinSketch> window = new ArrayList<>(ring.length());
+        for (long epoch = current - ring.length() + 1; epoch <= current; epoch++) {
+            Bucket bucket = bucket(epoch, false);
+            if (bucket != null) {
+                window.add(bucket.counts);
+            }
+        }
+        if (CountMinSketch.estimate(window, hash) < maxImpressions) {
+            return false;
+        }
+        capped.increment();
+        return true;
+    }
+
+    @Override
+    public void recordImpression(String deviceId, String adUnitId) {
+        if (!enabled || !StringUtils.hasText(deviceId)) {
+            return;
+        }
+        Bucket bucket = bucket(System.currentTimeMillis() / bucketMillis, true);
+        if (bucket == null) {
+            return;
+        }
+        long hash = CountMinSketch.hash(key(deviceId, adUnitId));
+        bucket.counts.addConservative(hash, 1);
+        if (bucket.pending != null) {
+            bucket.pending.addConservative(hash, 1);
+        }
+    }
+
+    /**
+     * 集群模式下同步当前桶和上一个桶的计数
+     */
+    @Scheduled(fixedDelayString = "${ad.frequency-cap.sync-interval:2000}")
+    public void sync() {
+        if (!enabled || !clusterMode) {
+            return;
+        }
+        long current = System.currentTimeMillis() / bucketMillis;
+        for (long epoch = current - 1; epoch <= current; epoch++) {
+            Bucket bucket = bucket(epoch, epoch == current);
+            if (bucket == null) {
+                continue;
+            }
+            try {
+                sync(bucket);
+            } catch (Exception e) {
+                log.warn("同步频次计数失败，本周期只按本节点计数: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void sync(Bucket bucket) {
+        List<Integer> indexes = new ArrayList<>();
+        List<BitFieldSubCommand> increments = new ArrayList<>();
+        for (int i = 0; i < bucket.pending.size(); i++) {
+            int delta = bucket.pending.drain(i);
+            if (delta != 0) {
+                indexes.add(i);
+                increments.add(BitFieldIncrBy.create(BitFieldType.UINT_32,
+                        Offset.offset(i).multipliedByTypeLength(), delta, BitFieldIncrBy.Overflow.SAT));
+            }
+        }
+        byte[] rawKey = (KEY_PREFIX + bucket.epoch).getBytes(StandardCharsets.UTF_8);
+        long ttlMillis = windowMillis + bucketMillis * 2;
+        List<Object> results;
+        try {
+            // 结果不经过模板的值序列化器，GET 返回原始字节
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                if (!increments.isEmpty()) {
+                    connection.stringCommands().bitField(rawKey,
+                            BitFieldSubCommands.create(increments.toArray(new BitFieldSubCommand[0])));
+                    connection.keyCommands().pExpire(rawKey, ttlMillis);
+                }
+                connection.stringCommands().get(rawKey);
+                return null;
+            }, null);
+        } catch (RuntimeException e) {
+            // 增量放回，下个周期重试
+            for (int i = 0; i < indexes.size(); i++) {
+                bucket.pending.addAt(indexes.get(i), (int) ((BitFieldIncrBy) increments.get(i)).getValue());
+            }
+            throw e;
+        }
+        Object global = results.get(results.size() - 1);
+        if (!(global instanceof byte[])) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap((byte[]) global);
+        for (int i = 0; i < bucket.counts.size(); i++) {
+            // BITFIELD 的 u32 按大端存放；键比 sketch 短时剩余的计数器在Redis中为0
+            int value = buffer.remaining() >= 4 ? buffer.getInt() : 0;
+            bucket.counts.set(i, value + bucket.pending.get(i));
+        }
+    }
+
+    /**
+     * 取时间桶，桶已被更新的时间段占用时返回null
+     */
+    private Bucket bucket(long epoch, boolean create) {
+        int slot = (int) Math.floorMod(epoch, (long) ring.length());
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.epoch == epoch) {
+                return bucket;
+            }
+            if (!create || (bucket != null && bucket.epoch > epoch)) {
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private double memoryBytes() {
+        return 4.0 * depth * width * ring.length() * (clusterMode ? 2 : 1);
+    }
+
+    private static String key(String deviceId, String adUnitId) {
+        return adUnitId + '\u0000' + deviceId;
+    }
+
+    private final class Bucket {
+        private final long epoch;
+        private final CountMinSketch counts;
+        private final CountMinSketch pending;
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+            this.counts = new CountMinSketch(depth, width);
+            this.pending = clusterMode ? new CountMinSketch(depth, width) : null;
+        }
+    }
+} 
\ No newline at end of file
@@ -11,10 +11,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * InMobi广告平台服务实现
@@ -87,7 +92,49 @@ public class InMobiServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("InMobi竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
+            }
+        });
+    }
+    
+    /**
+     * InMobi 支持 OpenRTB 多展示位：所有广告位合并为一次请求，imp.id 为广告位下标+1，
+     * 按出价的 impid 分配回各广告位
+     */
+    @Override
+    public CompletableFuture<List<BidResponse>> bidBatch(List<AdRequest> adRequests) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                log.debug("向InMobi发送多展示位竞价请求: {}个广告位", adRequests.size());
+                
+                if (appId == null || appKey == null) {
+                    log.warn("InMobi平台配置不完整，跳过竞价");
+                    return Arrays.asList(new BidResponse[adRequests.size()]);
+                }
+                
+                HttpHeaders headers = new HttpHeaders();
+                headers.set("Content-Type", "application/json");
+                headers.set("X-App-Id", appId);
+                headers.set("X-Api-Key", appKey);
+                
+                Object bidRequest = buildBidRequest(adRequests);
+                HttpEntity<Object> request = new HttpEntity<>(bidRequest, headers);
+                
+                ResponseEntity<Map> response = restTemplate.exchange(
+                        apiUrl + "/ads/bid", 
+                        HttpMethod.POST, 
+                        request, 
+                        Map.class
+                );
+                
+                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                    return parseBatchBidResponse(response.getBody(), adRequests.size());
+                }
+                
+                return Arrays.asList(new BidResponse[adRequests.size()]);
+            } catch (Exception e) {
+                log.error("InMobi竞价请求失败", e);
+                throw new CompletionException(e);
             }
         });
     }
@@ -132,6 +179,14 @@ public class InMobiServiceImpl extends AbstractAdNetworkService {
 
     @Override
     protected Object buildBidRequest(AdRequest adRequest) {
+        return buildBidRequest(Collections.singletonList(adRequest));
+    }
+    
+    /**
+     * 构建包含多个展示位的竞价请求，应用、设备、用户信息取第一个广告位的请求
+     */
+    private Map<String, Object> buildBidRequest(List<AdRequest> adRequests) {
+        AdRequest adRequest = adRequests.get(0);
         Map<String, Object> bidRequest = new HashMap<>();
         
         bidRequest.put("id", generateBidId());
@@ -162,24 +217,29 @@ public class InMobiServiceImpl extends AbstractAdNetworkService {
         }
         bidRequest.put("user", user);
         
-        // Impression info
-        Map<String, Object> imp = new HashMap<>();
-        imp.put("id", "1");
-        imp.put("instl", 0); // 0 = not interstitial
+        // Impression info, one per ad unit
+        Object[] imps = new Object[adRequests.size()];
+        for (int i = 0; i < imps.length; i++) {
+            Map<String, Object> imp = new HashMap<>();
+            imp.put("id", String.valueOf(i + 1));
+            imp.put("tagid", adRequests.get(i).getAdUnitId());
+            imp.put("instl", 0); // 0 = not interstitial
         
-        // Banner info
-        Map<String, Object> banner = new HashMap<>();
-        banner.put("w", 320);
-        banner.put("h", 50);
-        imp.put("banner", banner);
+            // Banner info
+            Map<String, Object> banner = new HashMap<>();
+            banner.put("w", 320);
+            banner.put("h", 50);
+            imp.put("banner", banner);
         
-        // Floor price
-        Map<String, Object> bidfloor = new HashMap<>();
-        bidfloor.put("currency", "USD");
-        bidfloor.put("bidfloor", this.bidFloor);
-        imp.put("bidfloor", bidfloor);
+            // Floor price
+            Map<String, Object> bidfloor = new HashMap<>();
+            bidfloor.put("currency", "USD");
+            bidfloor.put("bidfloor", this.bidFloor);
+            imp.put("bidfloor", bidfloor);
         
-        bidRequest.put("imp", new Object[] { imp });
+            imps[i] = imp;
+        }
+        bidRequest.put("imp", imps);
         
         return bidRequest;
     }
@@ -193,7 +253,7 @@ public class InMobiServiceImpl extends AbstractAdNetworkService {
                 return null;
             }
             
-            Object[] seatbids = (Object[]) response.get("seatbid");
+            Object[] seatbids = asArray(response.get("seatbid"));
             if (seatbids == null || seatbids.length == 0) {
                 return null;
             }
@@ -203,12 +263,62 @@ public class InMobiServiceImpl extends AbstractAdNetworkService {
                 return null;
             }
             
-            Object[] bids = (Object[]) seatbid.get("bid");
+            Object[] bids = asArray(seatbid.get("bid"));
             if (bids == null || bids.length == 0) {
                 return null;
             }
             
-            Map<String, Object> bid = (Map<String, Object>) bids[0];
+            return parseBid((Map<String, Object>) bids[0]);
+        } catch (Exception e) {
+            log.error("解析InMobi竞价响应失败", e);
+            return null;
+        }
+    }
+    
+    /**
+     * 解析多展示位竞价响应，没有 impid 的出价归入第一个广告位，同一广告位有多个出价时取最高价
+     */
+    private List<BidResponse> parseBatchBidResponse(Map<String, Object> response, int slotCount) {
+        List<BidResponse> result = new ArrayList<>(Collections.nCopies(slotCount, null));
+        Object[] seatbids = asArray(response.get("seatbid"));
+        if (seatbids == null) {
+            return result;
+        }
+        for (Object seatbidObj : seatbids) {
+            Map<String, Object> seatbid = (Map<String, Object>) seatbidObj;
+            Object[] bids = seatbid == null ? null : asArray(seatbid.get("bid"));
+            if (bids == null) {
+                continue;
+            }
+            for (Object bidObj : bids) {
+                Map<String, Object> bid = (Map<String, Object>) bidObj;
+                if (bid == null) {
+                    continue;
+                }
+                int slot = 0;
+                if (bid.get("impid") != null) {
+                    try {
+                        slot = Integer.parseInt(bid.get("impid").toString()) - 1;
+                    } catch (NumberFormatException e) {
+                        log.warn("InMobi出价的impid无效: {}", bid.get("impid"));
+                        continue;
+                    }
+                }
+                if (slot < 0 || slot >= slotCount) {
+                    continue;
+                }
+                BidResponse parsed = parseBid(bid);
+                BidResponse current = result.get(slot);
+                if (parsed != null && (current == null || parsed.getPrice() > current.getPrice())) {
+                    result.set(slot, parsed);
+                }
+            }
+        }
+        return result;
+    }
+    
+    private BidResponse parseBid(Map<String, Object> bid) {
+        try {
             if (bid == null) {
                 return null;
             }
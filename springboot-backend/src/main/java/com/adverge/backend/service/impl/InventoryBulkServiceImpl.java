@@ -0,0 +1,872 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.BulkImportReport;
+import com.adverge.backend.service.AdDirectoryService;
+import com.adverge.backend.service.InventoryBulkService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 应用与广告位批量导入导出实现
+ * <p>
+ * 导入开始时一次性加载已有的ID、包名与 应用×广告位名称，每行在内存中预先校验（包括与文件中前面的行是否重复），
+ * 不逐行查询数据库。通过的行每 batch-size 行在一个事务中以JDBC批量写入：广告位连同 app_ad_unit_ids 关联行一起
+ * 插入，并更新所属应用的 updatedAt，不逐个重新保存 App。连接串需带 rewriteBatchedStatements=true，
+ * 驱动才会把一批合并为多行INSERT。
+ * <p>
+ * 内存中的校验只看到导入开始时的数据，唯一性最终由数据库的唯一约束保证（应用ID、包名、广告位ID、
+ * 应用×广告位名称），其他节点的导入或单条创建同时写入相同的键时由数据库拒绝。一批写入失败时逐行重试该批，
+ * 违反唯一约束的行按冲突的字段记为失败，其余行照常写入。导入完成后重新加载本节点的广告目录，其他节点按
+ * updatedAt 增量刷新。
+ */
+@Slf4j
+@Service
+public class InventoryBulkServiceImpl implements InventoryBulkService {
+
+    private static final String[] APP_COLUMNS = {"id", "name", "packageName", "platform", "description", "enabled",
+            "rateLimit", "rateLimitBurst", "adUnitRateLimit"};
+    private static final String[] AD_UNIT_COLUMNS = {"id", "appId", "packageName", "name", "type", "description",
+            "active", "floorPrice", "refreshInterval", "position", "size"};
+
+    private static final String INSERT_APP = "INSERT INTO app (id, name, package_name, platform, description, enabled, "
+            + "rate_limit, rate_limit_burst, ad_unit_rate_limit, api_key, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_APP_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.BOOLEAN, Types.DOUBLE, Types.INTEGER, Types.DOUBLE, Types.VARCHAR, Types.TIMESTAMP,
+            Types.TIMESTAMP};
+
+    private static final String INSERT_AD_UNIT = "INSERT INTO ad_unit (id, name, app_id, type, description, active, "
+            + "floor_price, refresh_interval, position, size, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_AD_UNIT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.BOOLEAN, Types.DECIMAL, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP,
+            Types.TIMESTAMP};
+
+    private static final String INSERT_APP_AD_UNIT = "INSERT INTO app_ad_unit_ids (app_id, ad_unit_ids) VALUES (?, ?)";
+    private static final String TOUCH_APP = "UPDATE app SET updated_at = ? WHERE id = ?";
+
+    private static final String EXPORT_APPS = "SELECT id, name, package_name, platform, description, enabled, "
+            + "rate_limit, rate_limit_burst, ad_unit_rate_limit FROM app ORDER BY id";
+    private static final String EXPORT_AD_UNITS = "SELECT u.id, u.app_id, a.package_name, u.name, u.type, "
+            + "u.description, u.active, u.floor_price, u.refresh_interval, u.position, u.size "
+            + "FROM ad_unit u LEFT JOIN app a ON a.id = u.app_id ORDER BY u.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final AdDirectoryService adDirectoryService;
+    private final MeterRegistry registry;
+    private final int batchSize;
+    private final int maxRows;
+    private final int maxErrors;
+
+    public InventoryBulkServiceImpl(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    AdDirectoryService adDirectoryService,
+                                    MeterRegistry registry,
+                                    @Value("${ad.bulk.batch-size:1000}") int batchSize,
+                                    @Value("${ad.bulk.max-rows:200000}") int maxRows,
+                                    @Value("${ad.bulk.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.adDirectoryService = adDirectoryService;
+        this.registry = registry;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRows = Math.max(1, maxRows);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    @Override
+    public BulkImportReport importRows(Entity entity, Format format, InputStream in, boolean dryRun)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        Errors errors = new Errors(maxErrors);
+        Importer importer = entity == Entity.APPS ? new AppImporter(errors, dryRun) : new AdUnitImporter(errors, dryRun);
+        RowReader reader = format == Format.CSV ? new CsvRowReader(in) : new JsonRowReader(in, objectMapper);
+        int rows = 0;
+        boolean aborted = false;
+        try {
+            Map<String, String> row;
+            while ((row = reader.next()) != null) {
+                if (++rows > maxRows) {
+                    rows--;
+                    errors.note(rows + 1, "超过单次导入的行数上限" + maxRows);
+                    aborted = true;
+                    break;
+                }
+                importer.accept(rows, row);
+            }
+        } catch (IllegalArgumentException e) {
+            errors.note(rows + 1, e.getMessage());
+            aborted = true;
+        }
+        importer.flush();
+
+        if (!dryRun && importer.imported > 0) {
+            adDirectoryService.reloadAll();
+        }
+        String name = entity.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        if (!dryRun) {
+            Counter.builder("ad.bulk.rows").description("批量导入的行数")
+                    .tag("entity", name).tag("result", "imported")
+                    .register(registry).increment(importer.imported);
+            Counter.builder("ad.bulk.rows").description("批量导入的行数")
+                    .tag("entity", name).tag("result", "failed")
+                    .register(registry).increment(errors.failedRows.size());
+        }
+        BulkImportReport report = BulkImportReport.builder()
+                .entity(name)
+                .dryRun(dryRun)
+                .durationMillis(System.currentTimeMillis() - start)
+                .rows(rows)
+                .imported(importer.imported)
+                .failed(errors.failedRows.size())
+                .aborted(aborted)
+                .errors(errors.list)
+                .errorsTruncated(errors.truncated)
+                .build();
+        log.info("批量导入{}{}: {}行, 成功{}行, 失败{}行{}, 耗时{}ms", name, dryRun ? "（仅校验）" : "",
+                report.getRows(), report.getImported(), report.getFailed(), aborted ? "（输入中止）" : "",
+                report.getDurationMillis());
+        return report;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(Entity entity, Format format, OutputStream out) throws IOException {
+        String[] columns = entity == Entity.APPS ? APP_COLUMNS : AD_UNIT_COLUMNS;
+        String sql = entity == Entity.APPS ? EXPORT_APPS : EXPORT_AD_UNITS;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536);
+        JsonGenerator generator = format == Format.JSON ? objectMapper.getFactory().createGenerator(writer) : null;
+        if (generator != null) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+        Long count;
+        try {
+            count = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    // MySQL 驱动的流式读取
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    long rows = 0;
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            try {
+                                if (generator != null) {
+                                    writeJson(generator, columns, rs);
+                                } else {
+                                    writeCsv(writer, columns, rs);
+                                }
+                            } catch (IOException e) {
+                                statement.cancel();
+                                throw new UncheckedIOException(e);
+                            }
+                            rows++;
+                        }
+                    }
+                    return rows;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.info("导出{}被客户端取消: {}", entity, e.getCause().getMessage());
+            throw e.getCause();
+        }
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+        return count == null ? 0 : count;
+    }
+
+    private static void writeCsv(Writer writer, String[] columns, ResultSet rs) throws IOException, SQLException {
+        StringBuilder line = new StringBuilder(256);
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = rs.getObject(i + 1);
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        line.append('\n');
+        writer.append(line);
+    }
+
+    private static void writeJson(JsonGenerator generator, String[] columns, ResultSet rs)
+            throws IOException, SQLException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            Object value = rs.getObject(i + 1);
+            if (value == null) {
+                continue;
+            }
+            generator.writeFieldName(columns[i]);
+            if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else if (value instanceof BigDecimal) {
+                generator.writeNumber((BigDecimal) value);
+            } else if (value instanceof Number) {
+                generator.writeNumber(value.toString());
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * 失败行的明细，超过上限后只计数
+     */
+    private static final class Errors {
+        private final int limit;
+        private final List<BulkImportReport.RowError> list = new ArrayList<>();
+        private final Set<Integer> failedRows = new HashSet<>();
+        private boolean truncated;
+
+        private Errors(int limit) {
+            this.limit = limit;
+        }
+
+        private void add(int row, String field, String message) {
+            failedRows.add(row);
+            note(row, field, message);
+        }
+
+        /**
+         * 记录输入中止的原因，不计入失败行
+         */
+        private void note(int row, String message) {
+            note(row, null, message);
+        }
+
+        private void note(int row, String field, String message) {
+            if (list.size() < limit) {
+                list.add(new BulkImportReport.RowError(row, field, message));
+            } else {
+                truncated = true;
+            }
+        }
+    }
+
+    /**
+     * 一行的校验与按批写入；子类在 accept 中校验并登记写入的参数，校验失败的行不进入批次
+     */
+    private abstract class Importer {
+        protected final Errors errors;
+        protected final boolean dryRun;
+        protected final LocalDateTime now = LocalDateTime.now();
+        protected final List<Integer> pendingRows = new ArrayList<>();
+        protected int imported;
+        private int rowErrors;
+        private int row;
+
+        private Importer(Errors errors, boolean dryRun) {
+            this.errors = errors;
+            this.dryRun = dryRun;
+        }
+
+        final void accept(int row, Map<String, String> values) {
+            this.row = row;
+            this.rowErrors = 0;
+            validate(values);
+            if (rowErrors > 0) {
+                return;
+            }
+            pendingRows.add(row);
+            if (pendingRows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        final void flush() {
+            if (pendingRows.isEmpty()) {
+                return;
+            }
+            if (dryRun) {
+                imported += pendingRows.size();
+            } else {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(0, pendingRows.size()));
+                    imported += pendingRows.size();
+                } catch (DataAccessException e) {
+                    log.info("批量导入第{}~{}行写入失败，逐行重试: {}", pendingRows.get(0),
+                            pendingRows.get(pendingRows.size() - 1), e.getMostSpecificCause().getMessage());
+                    writeEach();
+                }
+            }
+            pendingRows.clear();
+            clear();
+        }
+
+        /**
+         * 逐行在各自的事务中写入当前批次，只有失败的行记入报告
+         */
+        private void writeEach() {
+            for (int i = 0; i < pendingRows.size(); i++) {
+                int index = i;
+                int failed = pendingRows.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(index, index + 1));
+                    imported++;
+                } catch (DuplicateKeyException e) {
+                    duplicate(failed, index, e);
+                    forget(index);
+                } catch (DataAccessException e) {
+                    errors.add(failed, null, "写入失败: " + e.getMostSpecificCause().getMessage());
+                    forget(index);
+                }
+            }
+        }
+
+        /**
+         * 一行违反唯一约束，查询冲突的字段记入报告；子类无法判断时记为整行失败
+         */
+        protected void duplicate(int row, int index, DuplicateKeyException e) {
+            errors.add(row, null, "写入失败: " + e.getMostSpecificCause().getMessage());
+        }
+
+        protected final boolean exists(String sql, Object... args) {
+            Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+            return count != null && count > 0;
+        }
+
+        /**
+         * 校验一行，通过时登记写入的参数，失败时调用 {@link #reject}
+         */
+        protected abstract void validate(Map<String, String> values);
+
+        /**
+         * 在事务中写入当前批次的 [from, to) 行
+         */
+        protected abstract void write(int from, int to);
+
+        /**
+         * 当前批次的一行写入失败，撤销校验时登记的ID与名称
+         */
+        protected abstract void forget(int index);
+
+        /**
+         * 清空当前批次的参数
+         */
+        protected abstract void clear();
+
+        protected final boolean isRejected() {
+            return rowErrors > 0;
+        }
+
+        protected final void reject(String field, String message) {
+            rowErrors++;
+            errors.add(row, field, message);
+        }
+
+        protected final String text(Map<String, String> values, String field, int maxLength, boolean required,
+                                    String label) {
+            String value = values.get(key(field));
+            if (value == null) {
+                if (required) {
+                    reject(field, label + "不能为空");
+                }
+                return null;
+            }
+            if (value.length() > maxLength) {
+                reject(field, label + "不能超过" + maxLength + "个字符");
+            }
+            return value;
+        }
+
+        protected final Boolean bool(Map<String, String> values, String field, boolean defaultValue) {
+            String value = values.get(key(field));
+            if (value == null) {
+                return defaultValue;
+            }
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "true":
+                case "1":
+                case "yes":
+                    return true;
+                case "false":
+                case "0":
+                case "no":
+                    return false;
+                default:
+                    reject(field, "不是有效的布尔值: " + value);
+                    return null;
+            }
+        }
+
+        protected final BigDecimal decimal(Map<String, String> values, String field) {
+            String value = values.get(key(field));
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                reject(field, "不是有效的数字: " + value);
+                return null;
+            }
+        }
+
+        protected final Integer integer(Map<String, String> values, String field) {
+            String value = values.get(key(field));
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                reject(field, "不是有效的整数: " + value);
+                return null;
+            }
+        }
+    }
+
+    private final class AppImporter extends Importer {
+        private final Set<String> ids = new HashSet<>();
+        private final Set<String> packageNames = new HashSet<>();
+        private final List<Object[]> apps = new ArrayList<>();
+
+        private AppImporter(Errors errors, boolean dryRun) {
+            super(errors, dryRun);
+            jdbcTemplate.query("SELECT id, package_name FROM app", rs -> {
+                ids.add(rs.getString(1));
+                String packageName = rs.getString(2);
+                if (packageName != null) {
+                    packageNames.add(packageName);
+                }
+            });
+        }
+
+        @Override
+        protected void validate(Map<String, String> values) {
+            String id = text(values, "id", 255, false, "应用ID");
+            String name = text(values, "name", 255, true, "应用名称");
+            String packageName = text(values, "packageName", 255, true, "包名");
+            String platform = text(values, "platform", 255, false, "平台");
+            String description = text(values, "description", 1000, false, "描述");
+            Boolean enabled = bool(values, "enabled", true);
+            BigDecimal rateLimit = decimal(values, "rateLimit");
+            Integer rateLimitBurst = integer(values, "rateLimitBurst");
+            BigDecimal adUnitRateLimit = decimal(values, "adUnitRateLimit");
+            if (rateLimit != null && rateLimit.signum() < 0) {
+                reject("rateLimit", "限流速率不能为负数");
+            }
+            if (rateLimitBurst != null && rateLimitBurst <= 0) {
+                reject("rateLimitBurst", "限流桶容量必须大于0");
+            }
+            if (adUnitRateLimit != null && adUnitRateLimit.signum() < 0) {
+                reject("adUnitRateLimit", "限流速率不能为负数");
+            }
+            if (id != null && ids.contains(id)) {
+                reject("id", "应用ID已存在: " + id);
+            }
+            if (packageName != null && packageNames.contains(packageName)) {
+                reject("packageName", "包名已存在: " + packageName);
+            }
+            if (isRejected()) {
+                return;
+            }
+            String appId = id != null ? id : UUID.randomUUID().toString();
+            ids.add(appId);
+            packageNames.add(packageName);
+            Timestamp timestamp = Timestamp.valueOf(now);
+            apps.add(new Object[]{appId, name, packageName, platform, description, enabled,
+                    rateLimit == null ? null : rateLimit.doubleValue(), rateLimitBurst,
+                    adUnitRateLimit == null ? null : adUnitRateLimit.doubleValue(),
+                    UUID.randomUUID().toString().replace("-", ""), timestamp, timestamp});
+        }
+
+        @Override
+        protected void write(int from, int to) {
+            jdbcTemplate.batchUpdate(INSERT_APP, apps.subList(from, to), INSERT_APP_TYPES);
+        }
+
+        @Override
+        protected void duplicate(int row, int index, DuplicateKeyException e) {
+            Object[] app = apps.get(index);
+            if (exists("SELECT COUNT(*) FROM app WHERE id = ?", app[0])) {
+                errors.add(row, "id", "应用ID已存在: " + app[0]);
+            } else if (exists("SELECT COUNT(*) FROM app WHERE package_name = ?", app[2])) {
+                errors.add(row, "packageName", "包名已存在: " + app[2]);
+            } else {
+                super.duplicate(row, index, e);
+            }
+        }
+
+        @Override
+        protected void forget(int index) {
+            Object[] app = apps.get(index);
+            ids.remove((String) app[0]);
+            packageNames.remove((String) app[2]);
+        }
+
+        @Override
+        protected void clear() {
+            apps.clear();
+        }
+    }
+
+    private final class AdUnitImporter extends Importer {
+        private final Set<String> appIds = new HashSet<>();
+        private final Map<String, String> appIdsByPackage = new HashMap<>();
+        private final Set<String> ids = new HashSet<>();
+        private final Set<String> names = new HashSet<>();
+        private final List<Object[]> adUnits = new ArrayList<>();
+        private final List<Object[]> links = new ArrayList<>();
+
+        private AdUnitImporter(Errors errors, boolean dryRun) {
+            super(errors, dryRun);
+            jdbcTemplate.query("SELECT id, package_name FROM app", rs -> {
+                appIds.add(rs.getString(1));
+                String packageName = rs.getString(2);
+                if (packageName != null) {
+                    appIdsByPackage.put(packageName, rs.getString(1));
+                }
+            });
+            jdbcTemplate.query("SELECT id, app_id, name FROM ad_unit", rs -> {
+                ids.add(rs.getString(1));
+                names.add(nameKey(rs.getString(2), rs.getString(3)));
+            });
+        }
+
+        @Override
+        protected void validate(Map<String, String> values) {
+            String id = text(values, "id", 255, false, "广告位ID");
+            String appId = text(values, "appId", 255, false, "应用ID");
+            String packageName = text(values, "packageName", 255, false, "包名");
+            String name = text(values, "name", 100, true, "广告位名称");
+            String type = text(values, "type", 255, true, "广告位类型");
+            String description = text(values, "description", 500, false, "描述");
+            Boolean active = bool(values, "active", true);
+            BigDecimal floorPrice = decimal(values, "floorPrice");
+            Integer refreshInterval = integer(values, "refreshInterval");
+            String position = text(values, "position", 100, false, "位置描述");
+            String size = text(values, "size", 50, false, "尺寸描述");
+
+            if (appId != null) {
+                if (!appIds.contains(appId)) {
+                    reject("appId", "应用不存在: " + appId);
+                    appId = null;
+                }
+            } else if (packageName != null) {
+                appId = appIdsByPackage.get(packageName);
+                if (appId == null) {
+                    reject("packageName", "应用不存在: " + packageName);
+                }
+            } else {
+                reject("appId", "应用ID与包名不能同时为空");
+            }
+            if (floorPrice == null && values.get(key("floorPrice")) == null) {
+                reject("floorPrice", "底价不能为空");
+            } else if (floorPrice != null && floorPrice.signum() <= 0) {
+                reject("floorPrice", "底价必须大于0");
+            }
+            if (refreshInterval != null && refreshInterval < 0) {
+                reject("refreshInterval", "刷新间隔不能为负数");
+            }
+            if (id != null && ids.contains(id)) {
+                reject("id", "广告位ID已存在: " + id);
+            }
+            if (appId != null && name != null && names.contains(nameKey(appId, name))) {
+                reject("name", "该应用下已存在同名广告位: " + name);
+            }
+            if (isRejected()) {
+                return;
+            }
+            String adUnitId = id != null ? id : UUID.randomUUID().toString();
+            ids.add(adUnitId);
+            names.add(nameKey(appId, name));
+            Timestamp timestamp = Timestamp.valueOf(now);
+            adUnits.add(new Object[]{adUnitId, name, appId, type, description, active, floorPrice, refreshInterval,
+                    position, size, timestamp, timestamp});
+            links.add(new Object[]{appId, adUnitId});
+        }
+
+        @Override
+        protected void write(int from, int to) {
+            List<Object[]> batchLinks = links.subList(from, to);
+            jdbcTemplate.batchUpdate(INSERT_AD_UNIT, adUnits.subList(from, to), INSERT_AD_UNIT_TYPES);
+            jdbcTemplate.batchUpdate(INSERT_APP_AD_UNIT, batchLinks, new int[]{Types.VARCHAR, Types.VARCHAR});
+            // 更新所属应用的 updatedAt，各节点的目录增量刷新时重新加载应用的广告位列表
+            Set<String> touched = new LinkedHashSet<>();
+            for (Object[] link : batchLinks) {
+                touched.add((String) link[0]);
+            }
+            List<Object[]> touches = new ArrayList<>(touched.size());
+            Timestamp timestamp = Timestamp.valueOf(LocalDateTime.now());
+            for (String appId : touched) {
+                touches.add(new Object[]{timestamp, appId});
+            }
+            jdbcTemplate.batchUpdate(TOUCH_APP, touches, new int[]{Types.TIMESTAMP, Types.VARCHAR});
+        }
+
+        @Override
+        protected void duplicate(int row, int index, DuplicateKeyException e) {
+            Object[] adUnit = adUnits.get(index);
+            if (exists("SELECT COUNT(*) FROM ad_unit WHERE id = ?", adUnit[0])) {
+                errors.add(row, "id", "广告位ID已存在: " + adUnit[0]);
+            } else if (exists("SELECT COUNT(*) FROM ad_unit WHERE app_id = ? AND name = ?", adUnit[2], adUnit[1])) {
+                errors.add(row, "name", "该应用下已存在同名广告位: " + adUnit[1]);
+            } else {
+                super.duplicate(row, index, e);
+            }
+        }
+
+        @Override
+        protected void forget(int index) {
+            Object[] adUnit = adUnits.get(index);
+            ids.remove((String) adUnit[0]);
+            names.remove(nameKey((String) adUnit[2], (String) adUnit[1]));
+        }
+
+        @Override
+        protected void clear() {
+            adUnits.clear();
+            links.clear();
+        }
+
+        private String nameKey(String appId, String name) {
+            return appId + '\u0000' + name;
+        }
+    }
+
+    /**
+     * 列名统一为小写并去掉下划线、连字符，appId、app_id、AppID 视为同一列
+     */
+    private static String key(String column) {
+        StringBuilder key = new StringBuilder(column.length());
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c != '_' && c != '-' && c != ' ') {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * 逐行读取输入，每行为 列名 → 去掉首尾空白的值，空值不放入；格式错误时抛出 IllegalArgumentException
+     */
+    private interface RowReader {
+
+        /**
+         * @return 下一行，没有更多行时为 null
+         */
+        Map<String, String> next() throws IOException;
+    }
+
+    private static final class CsvRowReader implements RowReader {
+
+        private final Reader reader;
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private String[] header;
+        private int pushback = -2;
+
+        private CsvRowReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 65536);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                if (!readRecord()) {
+                    return null;
+                }
+                header = new String[fields.size()];
+                for (int i = 0; i < header.length; i++) {
+                    String name = fields.get(i);
+                    // Excel 导出的UTF-8文件带BOM
+                    if (i == 0 && !name.isEmpty() && name.charAt(0) == '\uFEFF') {
+                        name = name.substring(1);
+                    }
+                    header[i] = key(name.trim());
+                }
+            }
+            while (readRecord()) {
+                if (fields.size() == 1 && fields.get(0).trim().isEmpty()) {
+                    // 跳过空行
+                    continue;
+                }
+                if (fields.size() > header.length) {
+                    throw new IllegalArgumentException("列数" + fields.size() + "多于列名行的" + header.length + "列");
+                }
+                Map<String, String> row = new HashMap<>(header.length * 2);
+                for (int i = 0; i < fields.size(); i++) {
+                    String value = fields.get(i).trim();
+                    if (!value.isEmpty()) {
+                        row.put(header[i], value);
+                    }
+                }
+                return row;
+            }
+            return null;
+        }
+
+        /**
+         * 读取一条记录到 fields，引号内可以包含逗号、换行和成对的引号
+         * @return 是否读到记录
+         */
+        private boolean readRecord() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            int c = read();
+            if (c < 0) {
+                return false;
+            }
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IllegalArgumentException("引号未闭合");
+                    }
+                    if (c == '"') {
+                        int nextChar = read();
+                        if (nextChar == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = nextChar;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c < 0 || c == '\n') {
+                    fields.add(field.toString());
+                    return true;
+                } else if (c == '\r') {
+                    int nextChar = read();
+                    if (nextChar != '\n') {
+                        pushback = nextChar;
+                    }
+                    fields.add(field.toString());
+                    return true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushback != -2) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+
+    private static final class JsonRowReader implements RowReader {
+
+        private final JsonParser parser;
+        private boolean array;
+        private boolean started;
+
+        private JsonRowReader(InputStream in, ObjectMapper objectMapper) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            try {
+                JsonToken token = parser.nextToken();
+                if (!started) {
+                    started = true;
+                    if (token == JsonToken.START_ARRAY) {
+                        array = true;
+                        token = parser.nextToken();
+                    }
+                }
+                if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                    return null;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("每行应为JSON对象");
+                }
+                JsonNode node = parser.readValueAsTree();
+                Map<String, String> row = new HashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+                while (entries.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = entries.next();
+                    JsonNode value = entry.getValue();
+                    if (value == null || value.isNull()) {
+                        continue;
+                    }
+                    String text = (value.isValueNode() ? value.asText() : value.toString()).trim();
+                    if (!text.isEmpty()) {
+                        row.put(key(entry.getKey()), text);
+                    }
+                }
+                return row;
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("JSON格式错误: " + e.getOriginalMessage());
+            }
+        }
+    }
+} 
\ No newline at end of file
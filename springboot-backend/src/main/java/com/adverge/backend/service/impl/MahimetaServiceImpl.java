@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Mahimeta广告平台服务实现
@@ -100,7 +101,7 @@ public class MahimetaServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("Mahimeta竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
             }
         });
     }
@@ -0,0 +1,246 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.MetricBackfillReport;
+import com.adverge.backend.service.MetricBackfillService;
+import com.adverge.backend.service.StatsQueryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Metrics 历史事件补写实现
+ * <p>
+ * 与分区维护一样在同一个连接上先 GET_LOCK 取得命名锁。每批先按主键找出下一批的上界，再用一条
+ * INSERT IGNORE ... SELECT 复制 (上次位置, 上界] 之间、timestamp 在保留期内的行，行的ID沿用 Metrics 的ID，
+ * 重复执行不会产生重复事件。每批提交后把位置写入 metric_events_backfill，全部完成后记录完成时间。
+ * <p>
+ * Metrics 中没有事件类型与应用ID，补写的行这两列为空。补写完成后清空本节点的统计结果缓存，
+ * 其他节点已缓存的已结束日期在 closed-ttl 内过期。
+ */
+@Slf4j
+@Service
+public class MetricBackfillServiceImpl implements MetricBackfillService {
+
+    private static final String LOCK_NAME = "adverge.metric_events.backfill";
+    private static final String PROGRESS_TABLE = "metric_events_backfill";
+
+    private static final String CREATE_PROGRESS = "CREATE TABLE IF NOT EXISTS " + PROGRESS_TABLE
+            + " (id TINYINT PRIMARY KEY, last_id VARCHAR(255) NOT NULL, copied BIGINT NOT NULL, "
+            + "completed_at DATETIME NULL)";
+    private static final String SAVE_PROGRESS = "INSERT INTO " + PROGRESS_TABLE
+            + " (id, last_id, copied, completed_at) VALUES (1, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE last_id = VALUES(last_id), copied = VALUES(copied), "
+            + "completed_at = VALUES(completed_at)";
+    private static final String NEXT_UPPER = "SELECT id FROM metrics WHERE id > ? ORDER BY id LIMIT 1 OFFSET ?";
+    private static final String COPY = "INSERT IGNORE INTO metric_events "
+            + "(id, `timestamp`, event_type, app_id, placement_id, platform, price) "
+            + "SELECT id, `timestamp`, NULL, NULL, placement_id, platform, price FROM metrics "
+            + "WHERE id > ? AND `timestamp` >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatsQueryService statsQueryService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int retentionDays;
+    private final ZoneId zone;
+    private final Counter copiedCounter;
+
+    private volatile MetricBackfillReport lastReport;
+
+    public MetricBackfillServiceImpl(JdbcTemplate jdbcTemplate,
+                                     StatsQueryService statsQueryService,
+                                     MeterRegistry registry,
+                                     @Value("${ad.metrics.backfill.enabled:true}") boolean enabled,
+                                     @Value("${ad.metrics.backfill.batch-size:5000}") int batchSize,
+                                     @Value("${ad.metrics.partition.retention-days:90}") int retentionDays,
+                                     @Value("${ad.metrics.partition.zone:UTC}") String zone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsQueryService = statsQueryService;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.retentionDays = Math.max(1, retentionDays);
+        this.zone = ZoneId.of(zone);
+        this.copiedCounter = Counter.builder("ad.metrics.backfill.rows")
+                .description("从 Metrics 补写到 metric_events 的事件数")
+                .register(registry);
+    }
+
+    /**
+     * 启动后在后台线程补写，不阻塞服务就绪；已完成时只读取一次进度
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                backfill(false);
+            } catch (Exception e) {
+                log.error("补写 metric_events 历史事件失败，下次启动时从中断处继续", e);
+            }
+        }, "metric-events-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public MetricBackfillReport backfill(boolean restart) {
+        if (!enabled) {
+            return null;
+        }
+        MetricBackfillReport report = jdbcTemplate.execute((ConnectionCallback<MetricBackfillReport>) connection -> {
+            if (!acquireLock(connection)) {
+                log.info("metric_events 历史事件补写由其他节点执行");
+                return null;
+            }
+            try {
+                return doBackfill(connection, restart);
+            } finally {
+                releaseLock(connection);
+            }
+        });
+        if (report != null) {
+            lastReport = report;
+        }
+        return report;
+    }
+
+    @Override
+    public MetricBackfillReport getLastReport() {
+        return lastReport;
+    }
+
+    private MetricBackfillReport doBackfill(Connection connection, boolean restart) throws SQLException {
+        long start = System.currentTimeMillis();
+        String since = LocalDate.now(zone).minusDays(retentionDays).toString();
+        if (!tableExists(connection, "metrics") || !tableExists(connection, "metric_events")) {
+            log.info("metrics 或 metric_events 表不存在，跳过历史事件补写");
+            return null;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_PROGRESS);
+            if (restart) {
+                statement.execute("DELETE FROM " + PROGRESS_TABLE);
+            }
+        }
+
+        String lastId = "";
+        long totalCopied = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT last_id, copied, completed_at FROM " + PROGRESS_TABLE + " WHERE id = 1")) {
+            if (rs.next()) {
+                if (rs.getTimestamp(3) != null) {
+                    return report(start, since, 0, 0, rs.getLong(2));
+                }
+                lastId = rs.getString(1);
+                totalCopied = rs.getLong(2);
+            }
+        }
+        log.info("开始补写 metric_events 历史事件: since={}, 从ID '{}' 之后继续", since, lastId);
+
+        int batches = 0;
+        long copied = 0;
+        boolean completed = false;
+        try (PreparedStatement nextUpper = connection.prepareStatement(NEXT_UPPER);
+             PreparedStatement copyLast = connection.prepareStatement(COPY);
+             PreparedStatement copyRange = connection.prepareStatement(COPY + " AND id <= ?");
+             PreparedStatement saveProgress = connection.prepareStatement(SAVE_PROGRESS)) {
+            while (!completed) {
+                nextUpper.setString(1, lastId);
+                nextUpper.setInt(2, batchSize - 1);
+                String upper;
+                try (ResultSet rs = nextUpper.executeQuery()) {
+                    upper = rs.next() ? rs.getString(1) : null;
+                }
+
+                // 最后一批不设上界，包含补写期间新增的行
+                PreparedStatement copy = upper == null ? copyLast : copyRange;
+                copy.setString(1, lastId);
+                copy.setString(2, since);
+                if (upper != null) {
+                    copy.setString(3, upper);
+                }
+                int inserted = copy.executeUpdate();
+                batches++;
+                copied += inserted;
+                totalCopied += inserted;
+                copiedCounter.increment(inserted);
+                completed = upper == null;
+                if (upper != null) {
+                    lastId = upper;
+                }
+
+                saveProgress.setString(1, lastId);
+                saveProgress.setLong(2, totalCopied);
+                saveProgress.setTimestamp(3, completed ? new Timestamp(System.currentTimeMillis()) : null);
+                saveProgress.executeUpdate();
+                if (batches % 100 == 0) {
+                    log.info("metric_events 历史事件补写中: 已执行{}批, 写入{}行", batches, copied);
+                }
+            }
+        }
+
+        statsQueryService.invalidate();
+        MetricBackfillReport report = report(start, since, batches, copied, totalCopied);
+        log.info("metric_events 历史事件补写完成: {}批, 本次写入{}行, 累计{}行, 耗时{}ms",
+                batches, copied, totalCopied, report.getDurationMillis());
+        return report;
+    }
+
+    private static MetricBackfillReport report(long start, String since, int batches, long copied, long totalCopied) {
+        return MetricBackfillReport.builder()
+                .startedAt(new Date(start))
+                .durationMillis(System.currentTimeMillis() - start)
+                .since(since)
+                .batches(batches)
+                .copied(copied)
+                .totalCopied(totalCopied)
+                .build();
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.execute();
+        } catch (SQLException e) {
+            log.warn("释放补写锁失败: {}", e.getMessage());
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,298 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.MetricPartitionReport;
+import com.adverge.backend.service.MetricPartitionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * metric_events 分区维护实现
+ * <p>
+ * 所有语句在同一个连接上执行：先 GET_LOCK 取得命名锁（锁随连接释放，节点宕机不会残留），随后读取
+ * information_schema.PARTITIONS：
+ * <ul>
+ *     <li>表未分区时（Hibernate 刚建表）转换为按天分区，日分区从保留期的第一天开始建，
+ *     从 Metrics 补写的历史事件（见 {@link MetricBackfillServiceImpl}）落在各自日期的分区，更早的行落在第一个分区</li>
+ *     <li>REORGANIZE PARTITION pmax 拆出缺少的日分区直到今天+future-days；pmax 平时为空，只改元数据</li>
+ *     <li>早于 今天-retention-days 的分区 DROP PARTITION；archive 模式下先建同结构的非分区表，
+ *     EXCHANGE PARTITION 交换后再删除空分区，两步都不逐行复制</li>
+ * </ul>
+ * 写入只落在当天的分区，主键为 (UUID, timestamp)，没有自增锁，也不会锁其他分区。
+ * 分区的日期按 zone 计算，应与JDBC连接的 serverTimezone 一致。
+ */
+@Slf4j
+@Service
+public class MetricPartitionServiceImpl implements MetricPartitionService {
+
+    private static final String TABLE = "metric_events";
+    private static final String ARCHIVE_PREFIX = "metric_events_archive_";
+    private static final String LOCK_NAME = "adverge.metric_events.partition";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int futureDays;
+    private final boolean archive;
+    private final ZoneId zone;
+    private final Counter createdCounter;
+    private final Counter droppedCounter;
+
+    private volatile MetricPartitionReport lastReport;
+
+    public MetricPartitionServiceImpl(JdbcTemplate jdbcTemplate,
+                                      MeterRegistry registry,
+                                      @Value("${ad.metrics.partition.enabled:true}") boolean enabled,
+                                      @Value("${ad.metrics.partition.retention-days:90}") int retentionDays,
+                                      @Value("${ad.metrics.partition.future-days:7}") int futureDays,
+                                      @Value("${ad.metrics.partition.expire-mode:drop}") String expireMode,
+                                      @Value("${ad.metrics.partition.zone:UTC}") String zone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.retentionDays = Math.max(1, retentionDays);
+        this.futureDays = Math.max(1, futureDays);
+        this.archive = "archive".equalsIgnoreCase(expireMode);
+        this.zone = ZoneId.of(zone);
+        this.createdCounter = Counter.builder("ad.metrics.partition.created")
+                .description("新建的 metric_events 日分区")
+                .register(registry);
+        this.droppedCounter = Counter.builder("ad.metrics.partition.dropped")
+                .description("过期删除的 metric_events 日分区")
+                .register(registry);
+    }
+
+    /**
+     * 启动时补齐分区，Hibernate 此时已建好表
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduledMaintain();
+    }
+
+    @Scheduled(cron = "${ad.metrics.partition.cron:0 10 0 * * *}")
+    public void scheduledMaintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("metric_events 分区维护失败", e);
+        }
+    }
+
+    @Override
+    public MetricPartitionReport maintain() {
+        if (!enabled) {
+            return null;
+        }
+        return jdbcTemplate.execute((ConnectionCallback<MetricPartitionReport>) connection -> {
+            if (!acquireLock(connection)) {
+                log.info("metric_events 分区维护由其他节点执行");
+                return null;
+            }
+            try {
+                MetricPartitionReport report = doMaintain(connection);
+                if (report == null) {
+                    return null;
+                }
+                lastReport = report;
+                createdCounter.increment(report.getCreated().size());
+                droppedCounter.increment(report.getDropped().size());
+                log.info("metric_events 分区维护完成: {}新建{}个, 删除{}个{}, 现有{}个日分区（{} ~ {}），耗时{}ms",
+                        report.isConverted() ? "转换为按天分区, " : "",
+                        report.getCreated().size(), report.getDropped().size(),
+                        report.getArchivedTables().isEmpty() ? "" : "（已归档到" + report.getArchivedTables() + "）",
+                        report.getPartitions(), report.getOldestPartition(), report.getNewestPartition(),
+                        report.getDurationMillis());
+                return report;
+            } finally {
+                releaseLock(connection);
+            }
+        });
+    }
+
+    @Override
+    public MetricPartitionReport getLastReport() {
+        return lastReport;
+    }
+
+    private MetricPartitionReport doMaintain(Connection connection) throws SQLException {
+        long start = System.currentTimeMillis();
+        if (!tableExists(connection)) {
+            log.warn("表{}不存在，跳过分区维护", TABLE);
+            return null;
+        }
+        LocalDate today = LocalDate.now(zone);
+        LocalDate lastDay = today.plusDays(futureDays);
+        TreeMap<LocalDate, String> partitions = new TreeMap<>();
+        boolean hasMax = readPartitions(connection, partitions);
+        boolean converted = partitions.isEmpty() && !hasMax;
+        LocalDate cutoff = today.minusDays(retentionDays);
+        LocalDate from = partitions.isEmpty() ? cutoff : partitions.lastKey().plusDays(1);
+        List<String> definitions = new ArrayList<>();
+        List<String> created = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            definitions.add(definition(day));
+            created.add(name(day));
+            partitions.put(day, name(day));
+        }
+
+        if (converted) {
+            definitions.add(maxDefinition());
+            execute(connection, "ALTER TABLE " + TABLE + " PARTITION BY RANGE (TO_DAYS(`timestamp`)) ("
+                    + String.join(", ", definitions) + ")");
+        } else if (!definitions.isEmpty() && hasMax) {
+            // 停机期间写入的行在 pmax 中，拆分时随之移入对应的日分区
+            definitions.add(maxDefinition());
+            execute(connection, "ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION
+                    + " INTO (" + String.join(", ", definitions) + ")");
+        } else if (!definitions.isEmpty()) {
+            execute(connection, "ALTER TABLE " + TABLE + " ADD PARTITION (" + String.join(", ", definitions) + ")");
+        }
+
+        Map<LocalDate, String> expired = new TreeMap<>(partitions.headMap(cutoff));
+        List<String> archivedTables = new ArrayList<>();
+        if (!expired.isEmpty()) {
+            if (archive) {
+                for (String partition : expired.values()) {
+                    String archiveTable = ARCHIVE_PREFIX + partition.substring(1);
+                    execute(connection, "CREATE TABLE IF NOT EXISTS " + archiveTable + " LIKE " + TABLE);
+                    if (isPartitioned(connection, archiveTable)) {
+                        execute(connection, "ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+                    }
+                    execute(connection, "ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + partition
+                            + " WITH TABLE " + archiveTable);
+                    archivedTables.add(archiveTable);
+                }
+            }
+            execute(connection, "ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired.values()));
+            expired.keySet().forEach(partitions::remove);
+        }
+
+        return MetricPartitionReport.builder()
+                .startedAt(new Date(start))
+                .durationMillis(System.currentTimeMillis() - start)
+                .converted(converted)
+                .created(created)
+                .dropped(new ArrayList<>(expired.values()))
+                .archivedTables(archivedTables)
+                .partitions(partitions.size())
+                .oldestPartition(partitions.isEmpty() ? null : partitions.firstEntry().getValue())
+                .newestPartition(partitions.isEmpty() ? null : partitions.lastEntry().getValue())
+                .build();
+    }
+
+    /**
+     * 读取日分区，按日期排序放入 partitions
+     * @return 是否存在 pmax
+     */
+    private boolean readPartitions(Connection connection, Map<LocalDate, String> partitions) throws SQLException {
+        boolean hasMax = false;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL")) {
+            statement.setString(1, TABLE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String partition = rs.getString(1);
+                    if (MAX_PARTITION.equalsIgnoreCase(partition)) {
+                        hasMax = true;
+                        continue;
+                    }
+                    try {
+                        partitions.put(LocalDate.parse(partition.toLowerCase(), PARTITION_NAME), partition);
+                    } catch (DateTimeParseException e) {
+                        log.warn("忽略无法识别的分区{}", partition);
+                    }
+                }
+            }
+        }
+        return hasMax;
+    }
+
+    private boolean tableExists(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+            statement.setString(1, TABLE);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private boolean isPartitioned(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.execute();
+        } catch (SQLException e) {
+            log.warn("释放分区维护锁失败: {}", e.getMessage());
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        log.info("分区维护: {}", sql);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * 日分区保存当天的行，上界为次日
+     */
+    private static String definition(LocalDate day) {
+        return "PARTITION " + name(day) + " VALUES LESS THAN (TO_DAYS('" + day.plusDays(1) + "'))";
+    }
+
+    private static String maxDefinition() {
+        return "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE";
+    }
+
+    private static String name(LocalDate day) {
+        return day.format(PARTITION_NAME);
+    }
+} 
\ No newline at end of file
@@ -15,6 +15,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Mintegral广告平台服务实现
@@ -86,7 +87,7 @@ public class MintegralServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("Mintegral竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
             }
         });
     }
@@ -0,0 +1,126 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.service.NoFillCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 无填充负缓存实现
+ * <p>
+ * 第n次连续无填充后退避 min(base-ttl × 2^(n-1), max-ttl)。条目数有上限，达到上限时不再记录新的广告位与人群
+ * （已有条目照常更新），宁可多竞价也不让缓存无限增长；请求路径上不做清理，判断是否已满是O(1)的。
+ * 过期条目由定时任务清理，缓存已满时清理掉全部过期条目，腾出空间。
+ */
+@Slf4j
+@Service
+public class NoFillCacheServiceImpl implements NoFillCacheService {
+
+    private final boolean enabled;
+    private final long baseTtlMillis;
+    private final long maxTtlMillis;
+    private final double probeRate;
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter skipped;
+    private final Counter probes;
+    private final Counter rejected;
+
+    public NoFillCacheServiceImpl(MeterRegistry registry,
+                                  @Value("${ad.no-fill.enabled:true}") boolean enabled,
+                                  @Value("${ad.no-fill.base-ttl:2000}") long baseTtlMillis,
+                                  @Value("${ad.no-fill.max-ttl:60000}") long maxTtlMillis,
+                                  @Value("${ad.no-fill.probe-rate:0.05}") double probeRate,
+                                  @Value("${ad.no-fill.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.baseTtlMillis = Math.max(1, baseTtlMillis);
+        this.maxTtlMillis = Math.max(this.baseTtlMillis, maxTtlMillis);
+        this.probeRate = probeRate;
+        this.maxEntries = maxEntries;
+        this.skipped = Counter.builder("ad.nofill.cache").tag("result", "skip")
+                .description("无填充负缓存命中").register(registry);
+        this.probes = Counter.builder("ad.nofill.cache").tag("result", "probe")
+                .description("无填充负缓存命中").register(registry);
+        this.rejected = Counter.builder("ad.nofill.cache.rejected")
+                .description("缓存已满未记录的无填充").register(registry);
+        Gauge.builder("ad.nofill.cache.size", entries, Map::size)
+                .description("无填充负缓存条目数").register(registry);
+    }
+
+    @Override
+    public boolean shouldSkip(String adUnitId, String segment) {
+        if (!enabled) {
+            return false;
+        }
+        Entry entry = entries.get(key(adUnitId, segment));
+        if (entry == null || entry.until <= System.currentTimeMillis()) {
+            return false;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < probeRate) {
+            probes.increment();
+            return false;
+        }
+        skipped.increment();
+        return true;
+    }
+
+    @Override
+    public void recordNoFill(String adUnitId, String segment) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(adUnitId, segment);
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            rejected.increment();
+            return;
+        }
+        entries.compute(key, (k, previous) -> {
+            int consecutive = previous == null ? 1 : Math.min(previous.consecutive + 1, 30);
+            long ttl = Math.min(maxTtlMillis, baseTtlMillis << Math.min(consecutive - 1, 20));
+            return new Entry(consecutive, System.currentTimeMillis() + ttl);
+        });
+    }
+
+    @Override
+    public void recordFill(String adUnitId, String segment) {
+        if (enabled && !entries.isEmpty()) {
+            entries.remove(key(adUnitId, segment));
+        }
+    }
+
+    /**
+     * 清理过期条目
+     * <p>
+     * 过期条目保留一个最大退避时长，使退避在短暂恢复后重新无填充时继续累加，之后才删除；
+     * 缓存已满时不再保留，全部删除。
+     */
+    @Scheduled(fixedDelayString = "${ad.no-fill.cleanup-interval:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        long threshold = entries.size() >= maxEntries ? now : now - maxTtlMillis;
+        entries.values().removeIf(entry -> entry.until <= threshold);
+    }
+
+    private static String key(String adUnitId, String segment) {
+        return adUnitId + '#' + segment;
+    }
+
+    private static final class Entry {
+        private final int consecutive;
+        private final long until;
+
+        private Entry(int consecutive, long until) {
+            this.consecutive = consecutive;
+            this.until = until;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.AdEventDto;
+import com.adverge.backend.service.ReachService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 独立触达统计实现
+ * <p>
+ * 键为 reach:{日期}:{广告位}:{平台}:{d|u}（d为设备，u为用户），广告位或平台为 _all 的键是对应维度的汇总，
+ * 查询某个平台在所有广告位的触达时不需要合并所有广告位的键。每个展示事件写入4组维度的键。
+ * <p>
+ * 事件路径只把 (键, ID) 放入本地队列，定时任务取出后按键分组，一次管道提交全部 PFADD 与 EXPIRE。
+ * 队列有上限，Redis 变慢时丢弃超出的写入而不是阻塞事件处理，丢弃数见 ad.reach.dropped。
+ */
+@Slf4j
+@Service
+public class ReachServiceImpl implements ReachService {
+
+    private static final String KEY_PREFIX = "reach:";
+    private static final String ALL = "_all";
+    private static final String DEVICE = "d";
+    private static final String USER = "u";
+
+    /**
+     * Redis HyperLogLog 的标准误差 1.04/sqrt(16384)
+     */
+    private static final double STANDARD_ERROR = 0.0081;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final int maxPending;
+    private final int maxDays;
+
+    private final Queue<String[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Counter dropped;
+
+    public ReachServiceImpl(RedisTemplate<String, String> redisTemplate,
+                            MeterRegistry registry,
+                            @Value("${ad.reach.enabled:true}") boolean enabled,
+                            @Value("${ad.reach.ttl-days:400}") int ttlDays,
+                            @Value("${ad.reach.max-pending:100000}") int maxPending,
+                            @Value("${ad.reach.max-days:92}") int maxDays) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.ttlSeconds = TimeUnit.DAYS.toSeconds(Math.max(1, ttlDays));
+        this.maxPending = maxPending;
+        this.maxDays = maxDays;
+        this.dropped = Counter.builder("ad.reach.dropped")
+                .description("缓冲区已满被丢弃的触达写入")
+                .register(registry);
+        Gauge.builder("ad.reach.pending", pendingCount, AtomicInteger::get)
+                .description("等待提交到Redis的触达写入")
+                .register(registry);
+    }
+
+    @Override
+    public void record(AdEventDto event) {
+        if (!enabled || event.getEventType() != AdEventDto.EventType.IMPRESSION) {
+            return;
+        }
+        String deviceId = event.resolveDeviceId();
+        String userId = event.getUserId();
+        if (!StringUtils.hasText(deviceId) && !StringUtils.hasText(userId)) {
+            return;
+        }
+        LocalDate date = event.getEventTime() == null ? LocalDate.now()
+                : event.getEventTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        String adUnitId = StringUtils.hasText(event.getAdUnitId()) ? event.getAdUnitId() : "unknown";
+        String platform = StringUtils.hasText(event.getPlatform()) ? event.getPlatform() : "unknown";
+        if (StringUtils.hasText(deviceId)) {
+            enqueue(date, adUnitId, platform, DEVICE, deviceId);
+        }
+        if (StringUtils.hasText(userId)) {
+            enqueue(date, adUnitId, platform, USER, userId);
+        }
+    }
+
+    private void enqueue(LocalDate date, String adUnitId, String platform, String kind, String id) {
+        if (pendingCount.get() >= maxPending) {
+            dropped.increment(4);
+            return;
+        }
+        pendingCount.addAndGet(4);
+        pending.offer(new String[]{key(date, adUnitId, platform, kind), id});
+        pending.offer(new String[]{key(date, adUnitId, ALL, kind), id});
+        pending.offer(new String[]{key(date, ALL, platform, kind), id});
+        pending.offer(new String[]{key(date, ALL, ALL, kind), id});
+    }
+
+    /**
+     * 将缓冲的写入按键分组后一次管道提交
+     */
+    @Scheduled(fixedDelayString = "${ad.reach.flush-interval:1000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> byKey = new HashMap<>();
+        String[] entry;
+        while ((entry = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            byKey.computeIfAbsent(entry[0], k -> new LinkedHashSet<>()).add(entry[1]);
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, Set<String>> keyIds : byKey.entrySet()) {
+                    byte[] rawKey = keyIds.getKey().getBytes(StandardCharsets.UTF_8);
+                    byte[][] values = new byte[keyIds.getValue().size()][];
+                    int i = 0;
+                    for (String id : keyIds.getValue()) {
+                        values[i++] = id.getBytes(StandardCharsets.UTF_8);
+                    }
+                    connection.hyperLogLogCommands().pfAdd(rawKey, values);
+                    connection.keyCommands().expire(rawKey, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("提交触达统计失败，丢弃{}个键的写入: {}", byKey.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getReach(String adUnitId, String platform, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("结束日期早于开始日期");
+        }
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > maxDays) {
+            throw new IllegalArgumentException("日期范围不能超过" + maxDays + "天");
+        }
+        String unit = StringUtils.hasText(adUnitId) ? adUnitId : ALL;
+        String network = StringUtils.hasText(platform) ? platform : ALL;
+        List<String> deviceKeys = new ArrayList<>((int) days);
+        List<String> userKeys = new ArrayList<>((int) days);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            deviceKeys.add(key(date, unit, network, DEVICE));
+            userKeys.add(key(date, unit, network, USER));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("adUnitId", StringUtils.hasText(adUnitId) ? adUnitId : null);
+        result.put("platform", StringUtils.hasText(platform) ? platform : null);
+        result.put("startDate", startDate.toString());
+        result.put("endDate", endDate.toString());
+        // 多个键的 PFCOUNT 返回并集基数，同一设备跨天只计一次
+        result.put("devices", redisTemplate.opsForHyperLogLog().size(deviceKeys.toArray(new String[0])));
+        result.put("users", redisTemplate.opsForHyperLogLog().size(userKeys.toArray(new String[0])));
+        result.put("standardError", STANDARD_ERROR);
+        return result;
+    }
+
+    private static String key(LocalDate date, String adUnitId, String platform, String kind) {
+        return KEY_PREFIX + date + ":" + adUnitId + ":" + platform + ":" + kind;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,253 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.service.StatsQueryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 收益统计查询实现
+ * <p>
+ * 每个 维度×日期 的桶保存该日各分组的事件数与金额之和，查询时逐日取桶再合并。已结束超过 closed-after 的日期为
+ * 关闭的桶，缓存 closed-ttl；当天（以及刚结束、可能还有迟到事件的前一天）为开放的桶，只缓存 open-ttl。
+ * 缺少的桶用一条按 日期×分组 GROUP BY 的查询一次补齐，只扫描对应的日分区。
+ * <p>
+ * 同一维度、同一日期范围的并发查询合并为一次计算，其余请求等待同一结果。
+ * 桶的命中与未命中按接口记入 ad.stats.cache，合并的请求记为 coalesced。
+ */
+@Slf4j
+@Service
+public class StatsQueryServiceImpl implements StatsQueryService {
+
+    private static final Map<Dimension, String> GROUP_COLUMNS = new EnumMap<>(Dimension.class);
+
+    static {
+        GROUP_COLUMNS.put(Dimension.PLATFORM, "platform");
+        GROUP_COLUMNS.put(Dimension.PLACEMENT, "placement_id");
+        GROUP_COLUMNS.put(Dimension.DAY, "DATE(`timestamp`)");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ZoneId zone;
+    private final long openTtlMillis;
+    private final long closedTtlMillis;
+    private final long closedAfterMillis;
+    private final int maxEntries;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<Map<String, Object>>>> inflight = new ConcurrentHashMap<>();
+    private final Map<Dimension, Counter[]> counters = new EnumMap<>(Dimension.class);
+
+    public StatsQueryServiceImpl(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry registry,
+                                 @Value("${ad.stats.cache.enabled:true}") boolean enabled,
+                                 @Value("${ad.metrics.partition.zone:UTC}") String zone,
+                                 @Value("${ad.stats.cache.open-ttl:30000}") long openTtlMillis,
+                                 @Value("${ad.stats.cache.closed-ttl:21600000}") long closedTtlMillis,
+                                 @Value("${ad.stats.cache.closed-after:600000}") long closedAfterMillis,
+                                 @Value("${ad.stats.cache.max-entries:20000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.zone = ZoneId.of(zone);
+        this.openTtlMillis = openTtlMillis;
+        this.closedTtlMillis = closedTtlMillis;
+        this.closedAfterMillis = closedAfterMillis;
+        this.maxEntries = maxEntries;
+        for (Dimension dimension : Dimension.values()) {
+            String endpoint = dimension == Dimension.DAY ? "daily" : dimension.name().toLowerCase();
+            counters.put(dimension, new Counter[]{
+                    Counter.builder("ad.stats.cache").tag("endpoint", endpoint).tag("result", "hit")
+                            .description("统计结果缓存的按天桶").register(registry),
+                    Counter.builder("ad.stats.cache").tag("endpoint", endpoint).tag("result", "miss")
+                            .description("统计结果缓存的按天桶").register(registry),
+                    Counter.builder("ad.stats.cache").tag("endpoint", endpoint).tag("result", "coalesced")
+                            .description("统计结果缓存的按天桶").register(registry)
+            });
+        }
+        Gauge.builder("ad.stats.cache.size", buckets, Map::size)
+                .description("统计结果缓存的桶数").register(registry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> query(Dimension dimension, Date startDate, Date endDate) {
+        LocalDate startDay = startDate.toInstant().atZone(zone).toLocalDate();
+        LocalDate endDay = endDate.toInstant().atZone(zone).toLocalDate();
+        if (endDay.isBefore(startDay)) {
+            return new ArrayList<>();
+        }
+        String key = dimension + ":" + startDay + ":" + endDay;
+        CompletableFuture<List<Map<String, Object>>> future = new CompletableFuture<>();
+        CompletableFuture<List<Map<String, Object>>> running = inflight.putIfAbsent(key, future);
+        if (running != null) {
+            counters.get(dimension)[2].increment();
+            try {
+                return copy(running.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            List<Map<String, Object>> result = compute(dimension, startDay, endDay);
+            future.complete(result);
+            return copy(result);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, future);
+        }
+    }
+
+    private List<Map<String, Object>> compute(Dimension dimension, LocalDate startDay, LocalDate endDay) {
+        long now = System.currentTimeMillis();
+        Counter[] counter = counters.get(dimension);
+        Map<LocalDate, Map<String, double[]>> days = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+            Bucket bucket = enabled ? buckets.get(bucketKey(dimension, day)) : null;
+            if (bucket != null && bucket.expiresAt > now) {
+                counter[0].increment();
+                days.put(day, bucket.groups);
+                continue;
+            }
+            counter[1].increment();
+            if (firstMissing == null) {
+                firstMissing = day;
+            }
+            lastMissing = day;
+        }
+
+        if (firstMissing != null) {
+            Map<LocalDate, Map<String, double[]>> loaded = load(dimension, firstMissing, lastMissing);
+            for (LocalDate day = firstMissing; !day.isAfter(lastMissing); day = day.plusDays(1)) {
+                Map<String, double[]> groups = loaded.getOrDefault(day, Collections.emptyMap());
+                days.put(day, groups);
+                cache(dimension, day, groups, now);
+            }
+        }
+
+        Map<String, double[]> merged = new HashMap<>();
+        for (Map<String, double[]> groups : days.values()) {
+            groups.forEach((group, values) -> {
+                double[] total = merged.computeIfAbsent(group, k -> new double[2]);
+                total[0] += values[0];
+                total[1] += values[1];
+            });
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(merged.size());
+        merged.forEach((group, values) -> {
+            Map<String, Object> stat = new HashMap<>();
+            stat.put(dimension.getField(), group);
+            stat.put("revenue", values[1]);
+            stat.put("count", (long) values[0]);
+            stat.put("average", values[0] > 0 ? values[1] / values[0] : 0.0);
+            result.add(stat);
+        });
+        if (dimension == Dimension.DAY) {
+            result.sort(Comparator.comparing(m -> (String) m.get(dimension.getField())));
+        } else {
+            result.sort((a, b) -> Double.compare((Double) b.get("revenue"), (Double) a.get("revenue")));
+        }
+        return result;
+    }
+
+    /**
+     * 按 日期×分组 汇总一段连续日期，没有数据的日期不出现在结果中
+     */
+    private Map<LocalDate, Map<String, double[]>> load(Dimension dimension, LocalDate firstDay, LocalDate lastDay) {
+        String group = GROUP_COLUMNS.get(dimension);
+        String sql = "SELECT DATE(`timestamp`) AS day, " + group + " AS grp, COUNT(price) AS n, "
+                + "COALESCE(SUM(price), 0) AS total FROM metric_events "
+                + "WHERE `timestamp` >= ? AND `timestamp` < ? AND " + group + " IS NOT NULL GROUP BY day, grp";
+        Map<LocalDate, Map<String, double[]>> days = new HashMap<>();
+        // LocalDateTime 原样发送，与按 serverTimezone 存入的时间一致
+        jdbcTemplate.query(sql, rs -> {
+            LocalDate day = rs.getDate("day").toLocalDate();
+            days.computeIfAbsent(day, k -> new HashMap<>())
+                    .put(rs.getString("grp"), new double[]{rs.getLong("n"), rs.getDouble("total")});
+        }, firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+        return days;
+    }
+
+    private void cache(Dimension dimension, LocalDate day, Map<String, double[]> groups, long now) {
+        if (!enabled) {
+            return;
+        }
+        long dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long ttl = now >= dayEnd + closedAfterMillis ? closedTtlMillis : openTtlMillis;
+        if (ttl <= 0) {
+            return;
+        }
+        String key = bucketKey(dimension, day);
+        if (buckets.size() >= maxEntries && !buckets.containsKey(key)) {
+            evictExpired();
+            if (buckets.size() >= maxEntries) {
+                return;
+            }
+        }
+        buckets.put(key, new Bucket(groups, now + ttl));
+    }
+
+    /**
+     * 清理过期的桶
+     */
+    @Scheduled(fixedDelayString = "${ad.stats.cache.cleanup-interval:300000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        buckets.values().removeIf(bucket -> bucket.expiresAt <= now);
+    }
+
+    @Override
+    public void invalidate() {
+        buckets.clear();
+    }
+
+    /**
+     * 合并的请求共享同一结果，返回给调用方的是各自的副本
+     */
+    private static List<Map<String, Object>> copy(List<Map<String, Object>> result) {
+        List<Map<String, Object>> copy = new ArrayList<>(result.size());
+        for (Map<String, Object> stat : result) {
+            copy.add(new HashMap<>(stat));
+        }
+        return copy;
+    }
+
+    private static String bucketKey(Dimension dimension, LocalDate day) {
+        return dimension + ":" + day;
+    }
+
+    private static final class Bucket {
+        private final Map<String, double[]> groups;
+        private final long expiresAt;
+
+        private Bucket(Map<String, double[]> groups, long expiresAt) {
+            this.groups = groups;
+            this.expiresAt = expiresAt;
+        }
+    }
+} 
\ No newline at end of file
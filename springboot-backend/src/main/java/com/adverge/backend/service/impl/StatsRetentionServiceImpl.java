@@ -0,0 +1,287 @@
+package com.adverge.backend.service.impl;
+
+import com.adverge.backend.dto.StatsRetentionReport;
+import com.adverge.backend.service.StatsRetentionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Redis统计键保留与压缩服务实现
+ * <p>
+ * 每天定时执行：先用 SET NX PX 抢占租约，只有持有租约的节点继续；随后 SCAN 遍历 stats:* 键，
+ * 早于保留期的按天计数键按批次以管道提交Lua脚本，每个键在Redis内原子地完成
+ * GET → HINCRBY 月度哈希 → DEL，中途失败重跑不会重复累加。批次之间续约，续约失败即停止。
+ * 释放的内存取压缩前后 INFO memory 的 used_memory 之差。
+ */
+@Slf4j
+@Service
+public class StatsRetentionServiceImpl implements StatsRetentionService {
+
+    private static final String KEY_PREFIX = "stats:";
+    private static final String MONTHLY_PREFIX = "stats:monthly:";
+    private static final String LOCK_KEY = "stats:retention:leader";
+    private static final Pattern DAILY_KEY = Pattern.compile("^stats:(\\d{4}-\\d{2}-\\d{2}):([^:]+):(.+)$");
+
+    /**
+     * KEYS[1] 按天计数键，KEYS[2] 月度哈希；ARGV[1] 哈希字段，ARGV[2] 月度哈希过期秒数（0为不过期）。
+     * 返回合并的计数值长度，键已不存在时返回-1
+     */
+    private static final String COMPACT_SCRIPT =
+            "local v = redis.call('GET', KEYS[1]) " +
+            "if not v then return -1 end " +
+            "redis.call('HINCRBY', KEYS[2], ARGV[1], v) " +
+            "if tonumber(ARGV[2]) > 0 then redis.call('EXPIRE', KEYS[2], ARGV[2]) end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return string.len(v)";
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('DEL', KEYS[1]) else return 0 end", Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final long monthlyTtlSeconds;
+    private final int batchSize;
+    private final long leaseMillis;
+    private final String nodeId;
+    private final Counter compactedCounter;
+    private final Counter reclaimedCounter;
+
+    private volatile StatsRetentionReport lastReport;
+
+    public StatsRetentionServiceImpl(RedisTemplate<String, String> redisTemplate,
+                                     MeterRegistry registry,
+                                     @Value("${ad.stats.retention.enabled:true}") boolean enabled,
+                                     @Value("${ad.stats.retention.retention-days:7}") int retentionDays,
+                                     @Value("${ad.stats.retention.monthly-ttl-days:730}") int monthlyTtlDays,
+                                     @Value("${ad.stats.retention.batch-size:500}") int batchSize,
+                                     @Value("${ad.stats.retention.lease:600000}") long leaseMillis) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.retentionDays = Math.max(1, retentionDays);
+        this.monthlyTtlSeconds = TimeUnit.DAYS.toSeconds(Math.max(0, monthlyTtlDays));
+        this.batchSize = Math.max(1, batchSize);
+        this.leaseMillis = leaseMillis;
+        this.nodeId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        this.compactedCounter = Counter.builder("ad.stats.retention.compacted")
+                .description("合并进月度哈希并删除的按天统计键")
+                .register(registry);
+        this.reclaimedCounter = Counter.builder("ad.stats.retention.reclaimed")
+                .description("统计键压缩释放的Redis内存")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * 在单独的线程中压缩，SCAN 全部统计键耗时较长，不占用调度线程
+     */
+    @Scheduled(cron = "${ad.stats.retention.cron:0 30 3 * * *}")
+    public void scheduledCompact() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                compact();
+            } catch (Exception e) {
+                log.error("统计键压缩失败", e);
+            }
+        }, "stats-retention-compact");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public StatsRetentionReport compact() {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, Duration.ofMillis(leaseMillis));
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.info("统计键压缩由其他节点执行: {}", redisTemplate.opsForValue().get(LOCK_KEY));
+            return null;
+        }
+        try {
+            StatsRetentionReport report = doCompact();
+            lastReport = report;
+            compactedCounter.increment(report.getCompactedKeys());
+            if (report.getReclaimedBytes() > 0) {
+                reclaimedCounter.increment(report.getReclaimedBytes());
+            }
+            log.info("统计键压缩完成: 扫描{}个, 压缩{}个早于{}的按天统计键到{}个月度哈希, 释放内存{}KB, 耗时{}ms{}",
+                    report.getScannedKeys(), report.getCompactedKeys(), report.getCutoffDate(),
+                    report.getMonthlyHashes(), report.getReclaimedBytes() / 1024, report.getDurationMillis(),
+                    report.isCompleted() ? "" : "（租约丢失，提前结束）");
+            return report;
+        } finally {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(LOCK_KEY), nodeId);
+        }
+    }
+
+    @Override
+    public StatsRetentionReport getLastReport() {
+        return lastReport;
+    }
+
+    private StatsRetentionReport doCompact() {
+        long start = System.currentTimeMillis();
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        long usedMemoryBefore = usedMemory();
+        byte[] script = COMPACT_SCRIPT.getBytes(StandardCharsets.UTF_8);
+        String sha = redisTemplate.execute((RedisCallback<String>) connection ->
+                connection.scriptingCommands().scriptLoad(script));
+
+        Set<String> monthlyHashes = new HashSet<>();
+        long[] counts = new long[2]; // 0: 扫描数，1: 压缩数
+        boolean completed = Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection -> {
+            List<String[]> batch = new ArrayList<>(batchSize);
+            long lastRenew = System.currentTimeMillis();
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(batchSize).build();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    String key = new String(cursor.next(), StandardCharsets.UTF_8);
+                    String[] target = compactionTarget(key, cutoff);
+                    counts[0]++;
+                    if (target == null) {
+                        continue;
+                    }
+                    batch.add(target);
+                    monthlyHashes.add(target[1]);
+                    if (batch.size() >= batchSize) {
+                        counts[1] += flush(sha, batch);
+                        batch.clear();
+                        if (System.currentTimeMillis() - lastRenew > leaseMillis / 2) {
+                            if (!renewLease()) {
+                                log.warn("统计键压缩租约已丢失，停止压缩");
+                                return false;
+                            }
+                            lastRenew = System.currentTimeMillis();
+                        }
+                    }
+                }
+            }
+            counts[1] += flush(sha, batch);
+            return true;
+        }));
+
+        long usedMemoryAfter = usedMemory();
+        return StatsRetentionReport.builder()
+                .node(nodeId)
+                .startedAt(new Date(start))
+                .durationMillis(System.currentTimeMillis() - start)
+                .cutoffDate(cutoff.toString())
+                .scannedKeys(counts[0])
+                .compactedKeys(counts[1])
+                .monthlyHashes(monthlyHashes.size())
+                .usedMemoryBefore(usedMemoryBefore)
+                .usedMemoryAfter(usedMemoryAfter)
+                .reclaimedBytes(Math.max(0, usedMemoryBefore - usedMemoryAfter))
+                .completed(completed)
+                .build();
+    }
+
+    /**
+     * 解析按天统计键，早于截止日期时返回 {原键, 月度哈希键, 哈希字段}，否则返回null
+     */
+    private static String[] compactionTarget(String key, LocalDate cutoff) {
+        Matcher matcher = DAILY_KEY.matcher(key);
+        if (!matcher.matches()) {
+            return null;
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(matcher.group(1));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        if (!date.isBefore(cutoff)) {
+            return null;
+        }
+        String month = matcher.group(1).substring(0, 7);
+        return new String[]{key, MONTHLY_PREFIX + month, matcher.group(2) + ":" + matcher.group(3)};
+    }
+
+    /**
+     * 一次管道提交一批压缩脚本
+     * @return 实际压缩的键数
+     */
+    private long flush(String sha, List<String[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        byte[] ttl = String.valueOf(monthlyTtlSeconds).getBytes(StandardCharsets.UTF_8);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String[] target : batch) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 2,
+                        target[0].getBytes(StandardCharsets.UTF_8),
+                        target[1].getBytes(StandardCharsets.UTF_8),
+                        target[2].getBytes(StandardCharsets.UTF_8),
+                        ttl);
+            }
+            return null;
+        });
+        long compacted = 0;
+        for (Object result : results) {
+            if (result instanceof Long && (Long) result >= 0) {
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    private boolean renewLease() {
+        Long renewed = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(LOCK_KEY),
+                nodeId, String.valueOf(leaseMillis));
+        return renewed != null && renewed > 0;
+    }
+
+    private long usedMemory() {
+        try {
+            Properties info = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                    connection.serverCommands().info("memory"));
+            String usedMemory = info == null ? null : info.getProperty("used_memory");
+            return usedMemory == null ? 0 : Long.parseLong(usedMemory.trim());
+        } catch (Exception e) {
+            log.warn("读取Redis内存用量失败: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+} 
\ No newline at end of file
@@ -15,6 +15,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * TopOn广告平台服务实现
@@ -87,7 +88,7 @@ public class TopOnServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("TopOn竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
             }
         });
     }
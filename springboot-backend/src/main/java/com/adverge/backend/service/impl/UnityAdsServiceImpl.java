@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * UnityAds广告平台服务实现
@@ -102,7 +103,7 @@ public class UnityAdsServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("UnityAds竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
             }
         });
     }
@@ -215,7 +216,7 @@ public class UnityAdsServiceImpl extends AbstractAdNetworkService {
                 return null;
             }
             
-            Object[] bids = (Object[]) response.get("bids");
+            Object[] bids = asArray(response.get("bids"));
             if (bids == null || bids.length == 0) {
                 return null;
             }
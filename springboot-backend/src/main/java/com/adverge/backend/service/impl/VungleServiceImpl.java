@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Vungle广告平台服务实现
@@ -92,7 +93,7 @@ public class VungleServiceImpl extends AbstractAdNetworkService {
                 return null;
             } catch (Exception e) {
                 log.error("Vungle竞价请求失败", e);
-                return null;
+                throw new CompletionException(e);
             }
         });
     }
@@ -0,0 +1,109 @@
+package com.adverge.backend.trace;
+
+import com.adverge.backend.dto.AuctionTrace;
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.metrics.AuctionMetrics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 采样竞价在进行中的追踪数据
+ * <p>
+ * 只为被采样的请求创建。各平台的回调在不同线程上完成，因此方法都加锁；
+ * 竞价结束后才返回的平台不会再写入已生成的记录。
+ */
+public class AuctionTraceRecorder implements NetworkCallListener {
+
+    private static final String PENDING = "pending";
+
+    private final String requestId;
+    private final String adUnitId;
+    private final String appId;
+    private final BigDecimal floorPrice;
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, AuctionTrace.NetworkCall> calls = new LinkedHashMap<>();
+    private String winner;
+    private Double winningPrice;
+
+    AuctionTraceRecorder(String requestId, String adUnitId, String appId, BigDecimal floorPrice) {
+        this.requestId = requestId;
+        this.adUnitId = adUnitId;
+        this.appId = appId;
+        this.floorPrice = floorPrice;
+    }
+
+    public String getAdUnitId() {
+        return adUnitId;
+    }
+
+    @Override
+    public synchronized void networkCalled(String network) {
+        calls.put(network, AuctionTrace.NetworkCall.builder()
+                .network(network)
+                .outcome(PENDING)
+                .build());
+    }
+
+    @Override
+    public synchronized void networkCompleted(String network, AuctionMetrics.Outcome outcome, long elapsedNanos, Double price) {
+        AuctionTrace.NetworkCall call = calls.computeIfAbsent(network,
+                key -> AuctionTrace.NetworkCall.builder().network(key).build());
+        call.setOutcome(outcome.getTag());
+        call.setLatencyMs(elapsedNanos / 1_000_000.0);
+        call.setPrice(price);
+    }
+
+    /**
+     * 记录平台出价被底价过滤
+     */
+    public synchronized void floorFiltered(String network) {
+        AuctionTrace.NetworkCall call = calls.get(network);
+        if (call != null) {
+            call.setFilteredByFloor(true);
+        }
+    }
+
+    /**
+     * 记录胜出竞价
+     */
+    public synchronized void winner(BidResponse winnerBid) {
+        if (winnerBid != null) {
+            this.winner = winnerBid.getSource();
+            this.winningPrice = winnerBid.getPrice();
+        }
+    }
+
+    /**
+     * 生成不可变的追踪记录
+     */
+    synchronized AuctionTrace finish(long sequence) {
+        List<AuctionTrace.NetworkCall> networks = new ArrayList<>(calls.size());
+        for (AuctionTrace.NetworkCall call : calls.values()) {
+            networks.add(AuctionTrace.NetworkCall.builder()
+                    .network(call.getNetwork())
+                    .outcome(call.getOutcome())
+                    .latencyMs(call.getLatencyMs())
+                    .price(call.getPrice())
+                    .filteredByFloor(call.isFilteredByFloor())
+                    .build());
+        }
+        return AuctionTrace.builder()
+                .sequence(sequence)
+                .requestId(requestId)
+                .adUnitId(adUnitId)
+                .appId(appId)
+                .startedAt(new Date(startedAtMillis))
+                .durationMs((System.nanoTime() - startNanos) / 1_000_000.0)
+                .floorPrice(floorPrice)
+                .winner(winner)
+                .winningPrice(winningPrice)
+                .networks(networks)
+                .build();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.adverge.backend.trace;
+
+import com.adverge.backend.dto.AdRequest;
+import com.adverge.backend.dto.AuctionTrace;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 竞价采样追踪
+ * <p>
+ * 按采样率选中请求，竞价结束后写入固定大小的无锁环形缓冲区，新记录覆盖最旧的记录。
+ * 未被采样的请求只读取一次采样率并生成一个随机数，不分配任何对象；采样率为0时只有一次volatile读。
+ */
+@Slf4j
+@Component
+public class AuctionTracer {
+
+    private final AtomicReferenceArray<AuctionTrace> buffer;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile double sampleRate;
+
+    public AuctionTracer(@Value("${ad.trace.sample-rate:0.01}") double sampleRate,
+                         @Value("${ad.trace.buffer-size:1024}") int bufferSize) {
+        // 容量取不小于配置值的2的幂，下标用位运算计算
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        setSampleRate(sampleRate);
+    }
+
+    /**
+     * 决定是否采样本次竞价
+     *
+     * @return 追踪数据，未采样时为null
+     */
+    public AuctionTraceRecorder start(String adUnitId, AdRequest adRequest) {
+        double rate = sampleRate;
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return null;
+        }
+        String requestId = adRequest.getRequestId() != null ? adRequest.getRequestId() : UUID.randomUUID().toString();
+        return new AuctionTraceRecorder(requestId, adUnitId, adRequest.getAppId(), adRequest.getFloorPrice());
+    }
+
+    /**
+     * 竞价结束，写入环形缓冲区
+     *
+     * @param recorder 追踪数据，为null时忽略
+     */
+    public void record(AuctionTraceRecorder recorder) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            long seq = sequence.getAndIncrement();
+            buffer.set((int) (seq & mask), recorder.finish(seq));
+        } catch (Exception e) {
+            log.warn("写入竞价追踪失败: adUnitId={}", recorder.getAdUnitId(), e);
+        }
+    }
+
+    /**
+     * 按时间倒序读取最近的追踪记录
+     *
+     * @param adUnitId 广告位ID，为空时不过滤
+     * @param platform 参与竞价的广告平台，为空时不过滤
+     * @param limit 最多返回条数
+     * @return 追踪记录
+     */
+    public List<AuctionTrace> recent(String adUnitId, String platform, int limit) {
+        List<AuctionTrace> result = new ArrayList<>(Math.min(limit, buffer.length()));
+        long end = sequence.get();
+        long start = Math.max(0, end - buffer.length());
+        for (long seq = end - 1; seq >= start && result.size() < limit; seq--) {
+            AuctionTrace trace = buffer.get((int) (seq & mask));
+            // 槽位尚未写入，或已被更新的记录覆盖
+            if (trace == null || trace.getSequence() != seq) {
+                continue;
+            }
+            if (matches(trace, adUnitId, platform)) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 调整本节点的采样率，取值范围 [0, 1]
+     */
+    public void setSampleRate(double sampleRate) {
+        if (Double.isNaN(sampleRate) || sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("采样率必须在0到1之间: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public int getCapacity() {
+        return buffer.length();
+    }
+
+    private static boolean matches(AuctionTrace trace, String adUnitId, String platform) {
+        if (adUnitId != null && !adUnitId.isEmpty() && !adUnitId.equals(trace.getAdUnitId())) {
+            return false;
+        }
+        if (platform == null || platform.isEmpty()) {
+            return true;
+        }
+        for (AuctionTrace.NetworkCall call : trace.getNetworks()) {
+            if (platform.equalsIgnoreCase(call.getNetwork())) {
+                return true;
+            }
+        }
+        return false;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.adverge.backend.trace;
+
+import com.adverge.backend.metrics.AuctionMetrics;
+
+/**
+ * 接收单次竞价中各广告平台的调用情况
+ * <p>
+ * networkCalled 在发起竞价的线程上依次调用；networkCompleted 在各平台请求完成的线程上调用。
+ */
+public interface NetworkCallListener {
+
+    /**
+     * 已向平台发出请求
+     */
+    void networkCalled(String network);
+
+    /**
+     * 平台返回结果
+     *
+     * @param network 平台名称
+     * @param outcome 结果
+     * @param elapsedNanos 请求耗时
+     * @param price 出价，没有时为null
+     */
+    void networkCompleted(String network, AuctionMetrics.Outcome outcome, long elapsedNanos, Double price);
+
+    /**
+     * 合并两个监听器，任一为null时直接返回另一个
+     */
+    static NetworkCallListener both(NetworkCallListener first, NetworkCallListener second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return new NetworkCallListener() {
+            @Override
+            public void networkCalled(String network) {
+                first.networkCalled(network);
+                second.networkCalled(network);
+            }
+
+            @Override
+            public void networkCompleted(String network, AuctionMetrics.Outcome outcome, long elapsedNanos, Double price) {
+                first.networkCompleted(network, outcome, elapsedNanos, price);
+                second.networkCompleted(network, outcome, elapsedNanos, price);
+            }
+        };
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.adverge.backend.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动耗时与就绪后首分钟的竞价延迟
+ * <p>
+ * 首次进入 ACCEPTING_TRAFFIC 时记录JVM启动到就绪的耗时，之后 ad.warmup.report-window 内的竞价请求耗时
+ * 逐条记入定长数组，窗口结束时排序得到精确的分位数，用于对比预热前后的冷启动延迟。
+ * <ul>
+ *     <li>ad.startup.time-to-ready：JVM启动到就绪的耗时</li>
+ *     <li>ad.startup.first-minute.p99：就绪后首个统计窗口内竞价请求耗时的p99，窗口结束前为NaN</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    private final TaskScheduler taskScheduler;
+    private final long reportWindow;
+    private final long[] samples;
+    private final AtomicInteger sampleCount = new AtomicInteger();
+
+    private volatile long timeToReadyMillis = -1;
+    private volatile boolean recording;
+    private volatile double firstMinuteP99Millis = Double.NaN;
+
+    public StartupReport(MeterRegistry registry,
+                         TaskScheduler taskScheduler,
+                         @Value("${ad.warmup.report-window:60000}") long reportWindow,
+                         @Value("${ad.warmup.report-max-samples:200000}") int maxSamples) {
+        this.taskScheduler = taskScheduler;
+        this.reportWindow = reportWindow;
+        this.samples = new long[maxSamples];
+        TimeGauge.builder("ad.startup.time-to-ready", this,
+                        TimeUnit.MILLISECONDS, report -> report.timeToReadyMillis < 0 ? Double.NaN : report.timeToReadyMillis)
+                .description("JVM启动到竞价服务就绪的耗时")
+                .register(registry);
+        TimeGauge.builder("ad.startup.first-minute.p99", this,
+                        TimeUnit.MILLISECONDS, report -> report.firstMinuteP99Millis)
+                .description("就绪后首个统计窗口内竞价请求耗时的p99")
+                .register(registry);
+    }
+
+    @EventListener
+    public void onReadinessChanged(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || timeToReadyMillis >= 0) {
+            return;
+        }
+        timeToReadyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("竞价服务已就绪，JVM启动到就绪耗时{}ms", timeToReadyMillis);
+        recording = true;
+        taskScheduler.schedule(this::report, Instant.now().plusMillis(reportWindow));
+    }
+
+    /**
+     * 记录一次竞价请求的耗时，只在就绪后的统计窗口内生效
+     * @param elapsedNanos 请求耗时
+     */
+    public void recordRequest(long elapsedNanos) {
+        if (!recording) {
+            return;
+        }
+        int index = sampleCount.getAndIncrement();
+        if (index < samples.length) {
+            samples[index] = elapsedNanos;
+        }
+    }
+
+    private void report() {
+        recording = false;
+        int count = Math.min(sampleCount.get(), samples.length);
+        if (count == 0) {
+            log.info("就绪后{}ms内没有竞价请求", reportWindow);
+            return;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        firstMinuteP99Millis = percentile(sorted, 0.99) / 1e6;
+        log.info("就绪后{}ms内竞价请求: {}次, p50={}ms, p99={}ms, max={}ms", reportWindow, sampleCount.get(),
+                String.format("%.1f", percentile(sorted, 0.5) / 1e6),
+                String.format("%.1f", firstMinuteP99Millis),
+                String.format("%.1f", sorted[count - 1] / 1e6));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.adverge.backend.warmup;
+
+import com.adverge.backend.dto.AdRequest;
+import com.adverge.backend.dto.BidResponse;
+import com.adverge.backend.model.GeoData;
+import com.adverge.backend.model.UserData;
+import com.adverge.backend.service.AdDirectoryService;
+import com.adverge.backend.service.AdNetworkService;
+import com.adverge.backend.service.ConfigService;
+import com.adverge.backend.service.impl.BidSelector;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 竞价链路的启动预热
+ * <p>
+ * Spring Boot 在全部 ApplicationRunner 执行完之后才发布 ReadinessState.ACCEPTING_TRAFFIC，
+ * 预热在这里同步执行，完成前 /actuator/health/readiness 返回 OUT_OF_SERVICE，
+ * 竞价接口由 {@link com.adverge.backend.admission.AdmissionControlInterceptor} 直接返回无填充。
+ * <ol>
+ *     <li>加载广告位/应用目录和配置快照，建立Redis连接</li>
+ *     <li>并行对各广告平台接口主机发送HEAD请求，连接留在keep-alive缓存中</li>
+ *     <li>用 warmup/responses/&lt;平台名&gt;.json 中的响应样例执行模拟竞价：请求构建、JSON解析、
+ *     响应解析、胜出者选择和结果序列化，不发出网络请求，触发竞价热点代码的JIT编译</li>
+ * </ol>
+ * 任何一步失败都只记录日志，不阻止服务启动；模拟竞价的总耗时受 ad.warmup.max-duration 限制。
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final String SAMPLE_LOCATION = "warmup/responses/";
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final List<AdNetworkService> adNetworks;
+    private final AdDirectoryService adDirectoryService;
+    private final ConfigService configService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean preconnect;
+    private final long preconnectTimeout;
+    private final int iterations;
+    private final long maxDuration;
+
+    public StartupWarmup(List<AdNetworkService> adNetworks,
+                         AdDirectoryService adDirectoryService,
+                         ConfigService configService,
+                         RedisTemplate<String, String> redisTemplate,
+                         ObjectMapper objectMapper,
+                         @Value("${ad.warmup.enabled:true}") boolean enabled,
+                         @Value("${ad.warmup.preconnect:true}") boolean preconnect,
+                         @Value("${ad.warmup.preconnect-timeout:5000}") long preconnectTimeout,
+                         @Value("${ad.warmup.iterations:2000}") int iterations,
+                         @Value("${ad.warmup.max-duration:20000}") long maxDuration) {
+        this.adNetworks = adNetworks;
+        this.adDirectoryService = adDirectoryService;
+        this.configService = configService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.preconnect = preconnect;
+        this.preconnectTimeout = preconnectTimeout;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            log.info("启动预热已关闭");
+            return;
+        }
+        long start = System.nanoTime();
+        preload();
+        if (preconnect) {
+            preconnectNetworks();
+        }
+        simulateAuctions();
+        log.info("启动预热完成，耗时{}ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void preload() {
+        long start = System.nanoTime();
+        try {
+            int adUnits = adDirectoryService.getAdUnits().size();
+            int configs = configService.getAllConfigs().size();
+            redisTemplate.execute(RedisConnection::ping, true);
+            log.info("预加载完成: {}个广告位, {}个配置, 耗时{}ms",
+                    adUnits, configs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.warn("预加载失败，首批请求将按需加载", e);
+        }
+    }
+
+    private void preconnectNetworks() {
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(adNetworks.size());
+        for (AdNetworkService network : adNetworks) {
+            futures.add(CompletableFuture.runAsync(network::preconnect));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(preconnectTimeout, TimeUnit.MILLISECONDS);
+            log.info("广告平台预连接完成: {}个平台, 耗时{}ms",
+                    adNetworks.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            log.warn("广告平台预连接超过{}ms，未完成的平台在首次竞价时建立连接", preconnectTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("广告平台预连接失败", e);
+        }
+    }
+
+    private void simulateAuctions() {
+        Map<AdNetworkService, byte[]> samples = loadSamples();
+        if (samples.isEmpty() || iterations <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDuration);
+        int completed = 0;
+        int filled = 0;
+        try {
+            for (; completed < iterations && System.nanoTime() < deadline; completed++) {
+                AdRequest adRequest = syntheticRequest(completed);
+                List<BidResponse> bids = new ArrayList<>(samples.size());
+                for (Map.Entry<AdNetworkService, byte[]> sample : samples.entrySet()) {
+                    Map<String, Object> response = objectMapper.readValue(sample.getValue(), MAP_TYPE);
+                    bids.add(sample.getKey().simulateBid(adRequest, response));
+                }
+                BidResponse winner = BidSelector.selectWinner(BidSelector.filterValid(bids, adRequest.getFloorPrice()));
+                if (winner != null) {
+                    objectMapper.writeValueAsBytes(winner);
+                    filled++;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("模拟竞价失败，已完成{}次", completed, e);
+            return;
+        }
+        log.info("模拟竞价完成: {}次, {}个平台, 填充{}次, 耗时{}ms", completed, samples.size(), filled,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private Map<AdNetworkService, byte[]> loadSamples() {
+        Map<AdNetworkService, byte[]> samples = new LinkedHashMap<>();
+        for (AdNetworkService network : adNetworks) {
+            ClassPathResource resource = new ClassPathResource(SAMPLE_LOCATION + network.getPlatformName() + ".json");
+            if (!resource.exists()) {
+                log.debug("{}平台没有响应样例，不参与模拟竞价", network.getPlatformName());
+                continue;
+            }
+            try (InputStream in = resource.getInputStream()) {
+                samples.put(network, StreamUtils.copyToByteArray(in));
+            } catch (IOException e) {
+                log.warn("读取{}平台响应样例失败", network.getPlatformName(), e);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * 模拟竞价的请求，设备和地区在几组取值间轮换，避免只按单一取值优化
+     */
+    private static AdRequest syntheticRequest(int i) {
+        AdRequest.DeviceInfo deviceInfo = new AdRequest.DeviceInfo();
+        deviceInfo.setType(i % 3 == 0 ? "tablet" : "phone");
+        deviceInfo.setOs(i % 2 == 0 ? "Android" : "iOS");
+        deviceInfo.setOsVersion(i % 2 == 0 ? "13" : "17.1");
+        deviceInfo.setModel(i % 2 == 0 ? "Pixel 7" : "iPhone15,2");
+        deviceInfo.setLanguage("zh-CN");
+
+        GeoData geo = new GeoData();
+        geo.setCountry(i % 4 == 0 ? "US" : "CN");
+        UserData userData = new UserData();
+        userData.setGeo(geo);
+
+        AdRequest adRequest = new AdRequest();
+        adRequest.setAppId("warmup-app");
+        adRequest.setAdUnitId("warmup-unit-" + (i % 8));
+        adRequest.setRequestId("warmup-" + i);
+        adRequest.setDeviceInfo(deviceInfo);
+        adRequest.setUserData(userData);
+        adRequest.setType(i % 2 == 0 ? "interstitial" : "banner");
+        adRequest.setFloorPrice(i % 5 == 0 ? null : BigDecimal.valueOf(0.5));
+        return adRequest;
+    }
+} 
\ No newline at end of file